@@ -0,0 +1,58 @@
+package org.ed06.benchmarks;
+
+import org.ed06.model.Cliente;
+import org.ed06.model.ResultadoValidacion;
+import org.ed06.model.ValidadorCliente;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el constructor de {@link Cliente}, que valida el nombre, el DNI y el email.
+ * <p>
+ * Se miden tanto datos válidos como un email inválido, porque el rechazo de filas es habitual
+ * en las importaciones masivas de clientes, junto con la validación sin excepciones de
+ * {@link ValidadorCliente} que usan esas importaciones.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClienteValidacionBenchmark {
+
+    private String nombre = "Adrián";
+    private String dni = "12345678Z";
+    private String email = "adrian@adrian.es";
+    private String emailInvalido = "adrian.adrian.es";
+
+    @Benchmark
+    @Threads(1)
+    public Cliente clienteValido() {
+        return new Cliente(1, nombre, dni, email, false);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Cliente clienteValidoConcurrente() {
+        return new Cliente(1, nombre, dni, email, false);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object clienteInvalido() {
+        try {
+            return new Cliente(1, nombre, dni, emailInvalido, false);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ResultadoValidacion validadorInvalido() {
+        return ValidadorCliente.validar(nombre, dni, emailInvalido);
+    }
+}
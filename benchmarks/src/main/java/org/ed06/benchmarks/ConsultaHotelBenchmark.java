@@ -0,0 +1,87 @@
+package org.ed06.benchmarks;
+
+import org.ed06.model.Habitacion;
+import org.ed06.model.Hotel;
+import org.ed06.model.Pagina;
+import org.ed06.model.Reserva;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide las consultas de {@link Hotel}: {@link Hotel#getHabitacion}, {@link Hotel#listarReservas} y
+ * la primera página de {@link Hotel#getReservas}.
+ * <p>
+ * El hotel se crea una vez por ejecución con una reserva de media por habitación.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConsultaHotelBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int numHabitaciones;
+
+    private Hotel hotel;
+
+    @Setup(Level.Trial)
+    public void crearHotel() {
+        HotelBenchmarks.silenciarConsola();
+        hotel = HotelBenchmarks.crearHotel(numHabitaciones);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < numHabitaciones; i++) {
+            LocalDate entrada = HotelBenchmarks.FECHA_BASE.plusDays(random.nextInt(HotelBenchmarks.DIAS_HORIZONTE));
+            hotel.reservarHabitacion(1 + random.nextInt(HotelBenchmarks.NUM_CLIENTES), HotelBenchmarks.tipo(i),
+                    entrada, entrada.plusDays(1 + random.nextInt(7)));
+        }
+    }
+
+    /**
+     * Estado por hilo con el generador de números de habitación.
+     */
+    @State(Scope.Thread)
+    public static class Numeros {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        int siguiente(int numHabitaciones) {
+            return 1 + random.nextInt(numHabitaciones);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Optional<Habitacion> getHabitacion(Numeros numeros) {
+        return hotel.getHabitacion(numeros.siguiente(numHabitaciones));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Optional<Habitacion> getHabitacionConcurrente(Numeros numeros) {
+        return hotel.getHabitacion(numeros.siguiente(numHabitaciones));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void listarReservas() {
+        hotel.listarReservas();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void listarReservasConcurrente() {
+        hotel.listarReservas();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Pagina<Reserva> paginaReservas() {
+        return hotel.getReservas(Pagina.INICIO, 500);
+    }
+}
@@ -0,0 +1,409 @@
+package org.ed06.benchmarks;
+
+import org.ed06.model.Habitacion;
+import org.ed06.model.Hotel;
+import org.ed06.model.Pagina;
+import org.ed06.model.Reserva;
+
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga sintética contra un {@link Hotel} que mide la latencia de cada operación.
+ *
+ * <p>La carga es de bucle abierto: la operación {@code i} tiene asignado el instante
+ * {@code inicio + i / tasa} y su latencia se mide desde ese instante, no desde que un hilo queda
+ * libre para lanzarla. Si el hotel se atasca, las operaciones que deberían haber empezado durante
+ * el atasco acumulan ese retraso en su latencia, en lugar de no llegar a lanzarse; así se evita la
+ * omisión coordinada que haría parecer rápido un sistema saturado.</p>
+ *
+ * <p>Las operaciones se reparten entre los hilos por turnos: el hilo {@code h} lanza las
+ * operaciones {@code h, h + hilos, h + 2 * hilos...}. Cada hilo elige el tipo de operación y sus
+ * datos con su propio generador, derivado de la semilla, por lo que dos ejecuciones con la misma
+ * semilla y el mismo número de hilos lanzan las mismas operaciones. Las fechas de entrada siguen
+ * una distribución exponencial de antelación y las estancias una geométrica de noches, como las
+ * reservas reales, que se concentran en los próximos días y en estancias cortas.</p>
+ *
+ * <p>Se ejecuta desde el jar de los benchmarks:</p>
+ * <pre>
+ * java -cp target/benchmarks.jar org.ed06.benchmarks.GeneradorCarga \
+ *     --habitaciones=10000 --clientes=1000 --tasa=20000 --duracion=30 --hilos=8 \
+ *     --mezcla=reservar:50,consultar:35,listar:5,registrar-cliente:8,registrar-habitacion:2
+ * </pre>
+ */
+public final class GeneradorCarga {
+
+    /** Número de reservas o clientes de cada página de los listados */
+    private static final int TAMANO_PAGINA = 100;
+
+    /** Noches máximas de una estancia */
+    private static final int NOCHES_MAXIMAS = 21;
+
+    private static final Habitacion.RoomType[] TIPOS = Habitacion.RoomType.values();
+
+    /**
+     * Operaciones que se pueden incluir en la mezcla de carga.
+     */
+    enum Operacion {
+        /** {@link Hotel#reservarHabitacion} con un cliente, un tipo y unas fechas aleatorias */
+        RESERVAR("reservar"),
+
+        /** {@link Hotel#getHabitacion} con un número aleatorio */
+        CONSULTAR("consultar"),
+
+        /** La siguiente página de {@link Hotel#getReservas}, volviendo al principio al terminar */
+        LISTAR("listar"),
+
+        /** {@link Hotel#registrarCliente} con un DNI nuevo */
+        REGISTRAR_CLIENTE("registrar-cliente"),
+
+        /** {@link Hotel#registrarHabitacion} de un tipo aleatorio */
+        REGISTRAR_HABITACION("registrar-habitacion");
+
+        private final String nombre;
+
+        Operacion(String nombre) {
+            this.nombre = nombre;
+        }
+
+        static Operacion deNombre(String nombre) {
+            for (Operacion operacion : values()) {
+                if (operacion.nombre.equals(nombre)) {
+                    return operacion;
+                }
+            }
+            throw new IllegalArgumentException("Operación desconocida: " + nombre);
+        }
+    }
+
+    private final Hotel hotel;
+    private final Configuracion configuracion;
+
+    /** Último número usado para generar el DNI de un cliente nuevo */
+    private final AtomicInteger ultimoDni;
+
+    /** Número de clientes cuyo registro ha terminado, que pueden elegirse para reservar */
+    private final AtomicInteger clientesRegistrados;
+
+    private GeneradorCarga(Hotel hotel, Configuracion configuracion) {
+        this.hotel = hotel;
+        this.configuracion = configuracion;
+        this.ultimoDni = new AtomicInteger(configuracion.clientes);
+        this.clientesRegistrados = new AtomicInteger(configuracion.clientes);
+    }
+
+    /**
+     * Construye el hotel, lanza la carga y muestra el informe.
+     *
+     * @param args Opciones {@code --nombre=valor}; ver {@link Configuracion}.
+     * @throws InterruptedException Si se interrumpe la espera de los hilos.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Configuracion configuracion = Configuracion.leer(args);
+        PrintStream consola = System.out;
+        HotelBenchmarks.silenciarConsola();
+        Hotel hotel = HotelBenchmarks.crearHotel(configuracion.habitaciones, configuracion.clientes);
+        Informe informe = new GeneradorCarga(hotel, configuracion).ejecutar();
+        informe.mostrar(consola, configuracion);
+    }
+
+    /**
+     * Lanza la carga con un hilo por cada trabajador y espera a que terminen.
+     *
+     * @return Las latencias y el rendimiento medidos.
+     * @throws InterruptedException Si se interrumpe la espera de los hilos.
+     */
+    private Informe ejecutar() throws InterruptedException {
+        SplittableRandom semilla = new SplittableRandom(configuracion.semilla);
+        double periodo = 1e9 / configuracion.tasa;
+        long calentamiento = TimeUnit.SECONDS.toNanos(configuracion.calentamiento);
+        long fin = calentamiento + TimeUnit.SECONDS.toNanos(configuracion.duracion);
+        // Margen para que todos los hilos estén listos antes de la primera operación
+        long inicio = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+
+        List<Trabajador> trabajadores = new ArrayList<>();
+        List<Thread> hilos = new ArrayList<>();
+        for (int h = 0; h < configuracion.hilos; h++) {
+            Trabajador trabajador = new Trabajador(h, semilla.split(), inicio, periodo, calentamiento, fin);
+            trabajadores.add(trabajador);
+            Thread hilo = new Thread(trabajador, "carga-" + h);
+            hilos.add(hilo);
+            hilo.start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+
+        Informe informe = new Informe();
+        for (Trabajador trabajador : trabajadores) {
+            informe.sumar(trabajador);
+        }
+        informe.segundos = (informe.ultimoFin - (inicio + calentamiento)) / 1e9;
+        return informe;
+    }
+
+    /**
+     * Hilo que lanza una de cada {@code hilos} operaciones en su instante previsto.
+     */
+    private final class Trabajador implements Runnable {
+        private final int primera;
+        private final SplittableRandom random;
+        private final long inicio;
+        private final double periodo;
+        private final long calentamiento;
+        private final long fin;
+        private final HistogramaLatencias[] latencias = new HistogramaLatencias[Operacion.values().length];
+        private final HistogramaLatencias retrasos = new HistogramaLatencias();
+        private final long[] fallidas = new long[Operacion.values().length];
+        private long cursorListado = Pagina.INICIO;
+        private long ultimoFin;
+
+        Trabajador(int primera, SplittableRandom random, long inicio, double periodo, long calentamiento, long fin) {
+            this.primera = primera;
+            this.random = random;
+            this.inicio = inicio;
+            this.periodo = periodo;
+            this.calentamiento = calentamiento;
+            this.fin = fin;
+            for (int i = 0; i < latencias.length; i++) {
+                latencias[i] = new HistogramaLatencias();
+            }
+        }
+
+        @Override
+        public void run() {
+            for (long i = primera; ; i += configuracion.hilos) {
+                long desplazamiento = (long) (i * periodo);
+                if (desplazamiento >= fin) {
+                    return;
+                }
+                long previsto = inicio + desplazamiento;
+                long ahora;
+                while ((ahora = System.nanoTime()) < previsto) {
+                    LockSupport.parkNanos(previsto - ahora);
+                }
+                Operacion operacion = configuracion.elegir(random);
+                boolean correcta = lanzar(operacion);
+                long terminada = System.nanoTime();
+                if (desplazamiento >= calentamiento) {
+                    latencias[operacion.ordinal()].registrar(terminada - previsto);
+                    retrasos.registrar(ahora - previsto);
+                    if (!correcta) {
+                        fallidas[operacion.ordinal()]++;
+                    }
+                    ultimoFin = terminada;
+                }
+            }
+        }
+
+        /**
+         * Lanza una operación con datos aleatorios.
+         *
+         * @param operacion La operación.
+         * @return false si el hotel la ha rechazado, por ejemplo por no quedar habitaciones libres.
+         */
+        private boolean lanzar(Operacion operacion) {
+            switch (operacion) {
+                case RESERVAR -> {
+                    LocalDate entrada = HotelBenchmarks.FECHA_BASE.plusDays(antelacion());
+                    LocalDate salida = entrada.plusDays(noches());
+                    int clienteId = 1 + random.nextInt(clientesRegistrados.get());
+                    return hotel.reservarHabitacion(clienteId, TIPOS[random.nextInt(TIPOS.length)], entrada, salida) > 0;
+                }
+                case CONSULTAR -> {
+                    return hotel.getHabitacion(1 + random.nextInt(hotel.getNumHabitaciones())).isPresent();
+                }
+                case LISTAR -> {
+                    Pagina<Reserva> pagina = hotel.getReservas(cursorListado, TAMANO_PAGINA);
+                    cursorListado = pagina.hayMas() ? pagina.getCursor() : Pagina.INICIO;
+                    return true;
+                }
+                case REGISTRAR_CLIENTE -> {
+                    int numero = ultimoDni.incrementAndGet();
+                    hotel.registrarCliente("Cliente " + numero, "cliente" + numero + "@hotel.com",
+                            HotelBenchmarks.dni(numero), random.nextInt(10) == 0);
+                    clientesRegistrados.incrementAndGet();
+                    return true;
+                }
+                case REGISTRAR_HABITACION -> {
+                    hotel.registrarHabitacion(TIPOS[random.nextInt(TIPOS.length)], 50 + random.nextInt(200));
+                    return true;
+                }
+                default -> throw new IllegalStateException("Operación sin implementar: " + operacion);
+            }
+        }
+
+        /**
+         * Genera los días de antelación de una reserva con una distribución exponencial,
+         * limitada al horizonte de reservas.
+         */
+        private int antelacion() {
+            double dias = -configuracion.antelacionMedia * Math.log(1 - random.nextDouble());
+            return (int) Math.min(dias, HotelBenchmarks.DIAS_HORIZONTE - 1);
+        }
+
+        /**
+         * Genera las noches de una estancia con una distribución geométrica de media 3.
+         */
+        private int noches() {
+            int noches = 1;
+            while (noches < NOCHES_MAXIMAS && random.nextInt(3) != 0) {
+                noches++;
+            }
+            return noches;
+        }
+    }
+
+    /**
+     * Opciones de la línea de comandos, con sus valores por defecto.
+     */
+    private static final class Configuracion {
+        int habitaciones = 10_000;
+        int clientes = HotelBenchmarks.NUM_CLIENTES;
+        double tasa = 10_000;
+        int duracion = 30;
+        int calentamiento = 5;
+        int hilos = Runtime.getRuntime().availableProcessors();
+        long semilla = 42;
+        double antelacionMedia = 45;
+        Map<Operacion, Integer> mezcla = new HashMap<>(Map.of(
+                Operacion.RESERVAR, 50, Operacion.CONSULTAR, 35, Operacion.LISTAR, 5,
+                Operacion.REGISTRAR_CLIENTE, 8, Operacion.REGISTRAR_HABITACION, 2));
+
+        /** Peso acumulado de cada operación, en orden de {@link Operacion#values()} */
+        private int[] acumulados;
+
+        static Configuracion leer(String[] args) {
+            Configuracion configuracion = new Configuracion();
+            for (String arg : args) {
+                int igual = arg.indexOf('=');
+                if (!arg.startsWith("--") || igual < 0) {
+                    throw new IllegalArgumentException("Opción no válida: " + arg);
+                }
+                String valor = arg.substring(igual + 1);
+                switch (arg.substring(2, igual)) {
+                    case "habitaciones" -> configuracion.habitaciones = Integer.parseInt(valor);
+                    case "clientes" -> configuracion.clientes = Integer.parseInt(valor);
+                    case "tasa" -> configuracion.tasa = Double.parseDouble(valor);
+                    case "duracion" -> configuracion.duracion = Integer.parseInt(valor);
+                    case "calentamiento" -> configuracion.calentamiento = Integer.parseInt(valor);
+                    case "hilos" -> configuracion.hilos = Integer.parseInt(valor);
+                    case "semilla" -> configuracion.semilla = Long.parseLong(valor);
+                    case "antelacion-media" -> configuracion.antelacionMedia = Double.parseDouble(valor);
+                    case "mezcla" -> configuracion.mezcla = leerMezcla(valor);
+                    default -> throw new IllegalArgumentException("Opción desconocida: " + arg);
+                }
+            }
+            if (configuracion.habitaciones < 1 || configuracion.clientes < 1 || configuracion.hilos < 1
+                    || !(configuracion.tasa > 0) || configuracion.duracion < 1 || configuracion.calentamiento < 0) {
+                throw new IllegalArgumentException("Las habitaciones, los clientes, los hilos, la tasa y la "
+                        + "duración deben ser positivos");
+            }
+            configuracion.acumular();
+            return configuracion;
+        }
+
+        private static Map<Operacion, Integer> leerMezcla(String valor) {
+            Map<Operacion, Integer> mezcla = new HashMap<>();
+            for (String parte : valor.split(",")) {
+                String[] nombrePeso = parte.split(":");
+                if (nombrePeso.length != 2) {
+                    throw new IllegalArgumentException("Mezcla no válida: " + parte);
+                }
+                mezcla.put(Operacion.deNombre(nombrePeso[0].trim()), Integer.parseInt(nombrePeso[1].trim()));
+            }
+            return mezcla;
+        }
+
+        private void acumular() {
+            acumulados = new int[Operacion.values().length];
+            int total = 0;
+            for (Operacion operacion : Operacion.values()) {
+                int peso = mezcla.getOrDefault(operacion, 0);
+                if (peso < 0) {
+                    throw new IllegalArgumentException("El peso de " + operacion.nombre + " es negativo");
+                }
+                total += peso;
+                acumulados[operacion.ordinal()] = total;
+            }
+            if (total == 0) {
+                throw new IllegalArgumentException("La mezcla no incluye ninguna operación");
+            }
+        }
+
+        Operacion elegir(SplittableRandom random) {
+            int tirada = random.nextInt(acumulados[acumulados.length - 1]);
+            Operacion[] operaciones = Operacion.values();
+            for (int i = 0; i < acumulados.length; i++) {
+                if (tirada < acumulados[i]) {
+                    return operaciones[i];
+                }
+            }
+            throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * Latencias combinadas de todos los hilos.
+     */
+    private static final class Informe {
+        private final HistogramaLatencias[] latencias = new HistogramaLatencias[Operacion.values().length];
+        private final HistogramaLatencias total = new HistogramaLatencias();
+        private final HistogramaLatencias retrasos = new HistogramaLatencias();
+        private final long[] fallidas = new long[Operacion.values().length];
+        private long ultimoFin;
+        private double segundos;
+
+        Informe() {
+            for (int i = 0; i < latencias.length; i++) {
+                latencias[i] = new HistogramaLatencias();
+            }
+        }
+
+        void sumar(Trabajador trabajador) {
+            for (int i = 0; i < latencias.length; i++) {
+                latencias[i].sumar(trabajador.latencias[i]);
+                total.sumar(trabajador.latencias[i]);
+                fallidas[i] += trabajador.fallidas[i];
+            }
+            retrasos.sumar(trabajador.retrasos);
+            ultimoFin = Math.max(ultimoFin, trabajador.ultimoFin);
+        }
+
+        void mostrar(PrintStream consola, Configuracion configuracion) {
+            consola.printf("Tasa objetivo: %.0f op/s - Rendimiento medido: %.0f op/s en %.1f s con %d hilos%n",
+                    configuracion.tasa, total.getTotal() / segundos, segundos, configuracion.hilos);
+            consola.printf("%-21s %10s %9s %10s %10s %10s %10s %10s%n",
+                    "Operación", "Total", "Fallidas", "p50 (µs)", "p99 (µs)", "p99.9 (µs)", "Máx (µs)", "Media (µs)");
+            for (Operacion operacion : Operacion.values()) {
+                if (latencias[operacion.ordinal()].getTotal() > 0) {
+                    fila(consola, operacion.nombre, latencias[operacion.ordinal()], fallidas[operacion.ordinal()]);
+                }
+            }
+            long totalFallidas = 0;
+            for (long f : fallidas) {
+                totalFallidas += f;
+            }
+            fila(consola, "total", total, totalFallidas);
+            fila(consola, "retraso de inicio", retrasos, 0);
+            if (retrasos.percentil(99) > TimeUnit.MILLISECONDS.toNanos(1)) {
+                consola.println("Aviso: el 1 % de las operaciones empezó con más de 1 ms de retraso; "
+                        + "los hilos no dan abasto con la tasa pedida y las latencias incluyen la espera.");
+            }
+        }
+
+        private static void fila(PrintStream consola, String nombre, HistogramaLatencias histograma, long fallidas) {
+            consola.printf("%-21s %10d %9d %10.1f %10.1f %10.1f %10.1f %10.1f%n", nombre, histograma.getTotal(), fallidas,
+                    histograma.percentil(50) / 1e3, histograma.percentil(99) / 1e3,
+                    histograma.percentil(99.9) / 1e3, histograma.getMaximo() / 1e3, histograma.getMedia() / 1e3);
+        }
+    }
+}
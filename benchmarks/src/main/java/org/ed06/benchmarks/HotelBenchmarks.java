@@ -0,0 +1,88 @@
+package org.ed06.benchmarks;
+
+import org.ed06.model.Habitacion;
+import org.ed06.model.Hotel;
+
+import java.io.PrintStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+/**
+ * Utilidades compartidas por los benchmarks para construir hoteles de prueba.
+ */
+final class HotelBenchmarks {
+
+    /** Primera fecha de entrada usada en las reservas de los benchmarks */
+    static final LocalDate FECHA_BASE = LocalDate.of(2027, 1, 1);
+
+    /** Número de días sobre los que se reparten las fechas de entrada */
+    static final int DIAS_HORIZONTE = 730;
+
+    /** Número de clientes registrados en cada hotel de prueba */
+    static final int NUM_CLIENTES = 1000;
+
+    private static final Habitacion.RoomType[] TIPOS = Habitacion.RoomType.values();
+
+    private static final String LETRAS_DNI = "TRWAGMYFPDXBNJZSQVHLCKE";
+
+    private HotelBenchmarks() {
+    }
+
+    /**
+     * Crea un hotel con el número de habitaciones indicado, repartidas entre todos los tipos,
+     * y {@link #NUM_CLIENTES} clientes.
+     *
+     * @param numHabitaciones Número de habitaciones a registrar.
+     * @return El hotel creado.
+     */
+    static Hotel crearHotel(int numHabitaciones) {
+        return crearHotel(numHabitaciones, NUM_CLIENTES);
+    }
+
+    /**
+     * Crea un hotel con el número de habitaciones indicado, repartidas entre todos los tipos,
+     * y el número de clientes indicado, con IDs de 1 a {@code numClientes}.
+     *
+     * @param numHabitaciones Número de habitaciones a registrar.
+     * @param numClientes Número de clientes a registrar.
+     * @return El hotel creado.
+     */
+    static Hotel crearHotel(int numHabitaciones, int numClientes) {
+        Hotel hotel = new Hotel("Benchmark", "Calle Entornos de Desarrollo 6", "123456789");
+        for (int i = 0; i < numHabitaciones; i++) {
+            hotel.registrarHabitacion(tipo(i), 50 + (i % 200));
+        }
+        for (int i = 1; i <= numClientes; i++) {
+            hotel.registrarCliente("Cliente " + i, "cliente" + i + "@hotel.com", dni(i), i % 10 == 0);
+        }
+        return hotel;
+    }
+
+    /**
+     * Obtiene el tipo de habitación asociado a un índice, recorriendo los tipos en orden.
+     *
+     * @param i El índice.
+     * @return El tipo de habitación.
+     */
+    static Habitacion.RoomType tipo(int i) {
+        return TIPOS[i % TIPOS.length];
+    }
+
+    /**
+     * Genera un DNI válido, con su letra de control, a partir de un número.
+     *
+     * @param numero El número del DNI.
+     * @return El DNI con 8 dígitos y letra.
+     */
+    static String dni(int numero) {
+        return String.format("%08d%c", numero, LETRAS_DNI.charAt(numero % 23));
+    }
+
+    /**
+     * Sustituye la salida estándar por un flujo que descarta todo lo que se escribe, para que
+     * los mensajes del modelo no inunden la salida de JMH. El coste de formatearlos sí se mide.
+     */
+    static void silenciarConsola() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+}
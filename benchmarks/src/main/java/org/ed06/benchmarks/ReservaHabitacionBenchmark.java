@@ -0,0 +1,67 @@
+package org.ed06.benchmarks;
+
+import org.ed06.model.Hotel;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide {@link Hotel#reservarHabitacion} con hoteles de distintos tamaños.
+ * <p>
+ * Cada iteración parte de un hotel vacío de reservas y reserva estancias de 1 a 7 noches con
+ * fechas de entrada aleatorias dentro de un horizonte de dos años, de modo que los calendarios de
+ * las habitaciones se van llenando igual que en producción.
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservaHabitacionBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int numHabitaciones;
+
+    private Hotel hotel;
+
+    @Setup(Level.Trial)
+    public void silenciarConsola() {
+        HotelBenchmarks.silenciarConsola();
+    }
+
+    @Setup(Level.Iteration)
+    public void crearHotel() {
+        hotel = HotelBenchmarks.crearHotel(numHabitaciones);
+    }
+
+    /**
+     * Estado por hilo con el generador de fechas, tipos y clientes.
+     */
+    @State(Scope.Thread)
+    public static class Peticiones {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        int reservar(Hotel hotel) {
+            LocalDate entrada = HotelBenchmarks.FECHA_BASE.plusDays(random.nextInt(HotelBenchmarks.DIAS_HORIZONTE));
+            LocalDate salida = entrada.plusDays(1 + random.nextInt(7));
+            int clienteId = 1 + random.nextInt(HotelBenchmarks.NUM_CLIENTES);
+            return hotel.reservarHabitacion(clienteId, HotelBenchmarks.tipo(random.nextInt(4)), entrada, salida);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int reservar(Peticiones peticiones) {
+        return peticiones.reservar(hotel);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int reservarConcurrente(Peticiones peticiones) {
+        return peticiones.reservar(hotel);
+    }
+}
@@ -0,0 +1,65 @@
+package org.ed06.benchmarks;
+
+import org.ed06.model.Cliente;
+import org.ed06.model.Habitacion;
+import org.ed06.model.Reserva;
+import org.ed06.tarifas.MotorPrecios;
+import org.ed06.tarifas.ReglaPrecio;
+import org.ed06.tarifas.Temporada;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el constructor de {@link Reserva}, que calcula el precio final con sus descuentos, y las
+ * cotizaciones de {@link MotorPrecios} con y sin caché.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservaPrecioBenchmark {
+
+    private final Habitacion habitacion = new Habitacion(1, Habitacion.RoomType.SUITE, 120);
+    private final Cliente cliente = new Cliente(1, "Daniel", "12345678Z", "daniel@daniel.com", false);
+    private final Cliente clienteVip = new Cliente(2, "Adrián", "87654321X", "adrian@adrian.es", true);
+    private final LocalDate entrada = LocalDate.of(2027, 3, 1);
+    private final LocalDate salidaCorta = entrada.plusDays(2);
+    private final LocalDate salidaLarga = entrada.plusDays(10);
+    private final MotorPrecios motorSinCache = new MotorPrecios(
+            List.of(ReglaPrecio.descuentoVip(1000), ReglaPrecio.descuentoEstanciaLarga(7, 500)), 0);
+
+    @Benchmark
+    @Threads(1)
+    public Reserva estanciaCorta() {
+        return new Reserva(1, cliente.getId(), habitacion.getNumero(), entrada, salidaCorta, habitacion, cliente);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Reserva estanciaLargaVip() {
+        return new Reserva(1, clienteVip.getId(), habitacion.getNumero(), entrada, salidaLarga, habitacion, clienteVip);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Reserva estanciaLargaVipConcurrente() {
+        return new Reserva(1, clienteVip.getId(), habitacion.getNumero(), entrada, salidaLarga, habitacion, clienteVip);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long cotizacionCacheada() {
+        return MotorPrecios.porDefecto().cotizar(Habitacion.RoomType.SUITE, 12000, 10, true, Temporada.BAJA);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long cotizacionSinCache() {
+        return motorSinCache.cotizar(Habitacion.RoomType.SUITE, 12000, 10, true, Temporada.BAJA);
+    }
+}
@@ -0,0 +1,252 @@
+package org.ed06.analitica;
+
+import org.ed06.model.Habitacion;
+import org.ed06.model.Hotel;
+import org.ed06.model.ObservadorHotel;
+import org.ed06.model.Reserva;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Contadores de ocupación e ingresos de un {@link Hotel} que se mantienen de forma incremental.
+ *
+ * <p>Al adjuntarse a un hotel se inicializan recorriendo en paralelo las columnas de una
+ * {@link VistaColumnarReservas}, que fija a la vez sus habitaciones y sus reservas, y después se
+ * actualizan con cada reserva nueva o cancelada como {@link ObservadorHotel}. Así las consultas habituales de los paneles (ocupación de un
+ * día, ingresos de un mes, estancia media) se responden sin recorrer las reservas. Para análisis
+ * que no cubren estos contadores se puede construir una {@link VistaColumnarReservas}.</p>
+ *
+ * <p>Los contadores usan {@link LongAdder}, {@link DoubleAdder} y arrays atómicos, por lo que las
+ * reservas concurrentes no compiten por ningún cerrojo al actualizarlos.</p>
+ */
+public class AnaliticaReservas implements ObservadorHotel {
+    private static final Habitacion.RoomType[] TIPOS = Habitacion.RoomType.values();
+
+    private final LongAdder[] habitacionesPorTipo = new LongAdder[TIPOS.length];
+
+    /** Habitaciones ocupadas de cada tipo, por día epoch */
+    private final Map<Long, AtomicIntegerArray> ocupacionPorDia = new ConcurrentHashMap<>();
+
+    /** Ingresos por mes epoch, en celdas {@code tipo * 2 + (vip ? 1 : 0)} */
+    private final Map<Integer, DoubleAdder[]> ingresosPorMes = new ConcurrentHashMap<>();
+
+    private final LongAdder numReservas = new LongAdder();
+    private final LongAdder nochesReservadas = new LongAdder();
+
+    private AnaliticaReservas() {
+        for (int t = 0; t < TIPOS.length; t++) {
+            habitacionesPorTipo[t] = new LongAdder();
+        }
+    }
+
+    /**
+     * Crea los contadores de un hotel a partir de sus reservas actuales y los mantiene al día con
+     * las reservas posteriores.
+     * <p>
+     * Las habitaciones y las reservas iniciales se toman de una misma {@link VistaColumnarReservas},
+     * cuyas columnas se recorren en paralelo.
+     * </p>
+     * <p>
+     * Debe llamarse antes de que el hotel empiece a recibir reservas (por ejemplo, justo después
+     * de reconstruirlo desde su almacenamiento), ya que las reservas hechas durante el recorrido
+     * inicial podrían contarse dos veces o ninguna.
+     * </p>
+     *
+     * @param hotel El hotel a analizar.
+     * @return Los contadores del hotel.
+     */
+    public static AnaliticaReservas adjuntar(Hotel hotel) {
+        AnaliticaReservas analitica = new AnaliticaReservas();
+        VistaColumnarReservas vista = VistaColumnarReservas.de(hotel);
+        for (Habitacion.RoomType tipo : TIPOS) {
+            analitica.habitacionesPorTipo[tipo.ordinal()].add(vista.getNumHabitaciones(tipo));
+        }
+        IntStream.range(0, vista.getNumReservas()).parallel()
+                .forEach(i -> analitica.sumar(vista.getTipo(i), vista.isVip(i), vista.getInicio(i),
+                        vista.getNoches(i), vista.getMes(i), vista.getPrecio(i), 1));
+        hotel.anadirObservador(analitica);
+        return analitica;
+    }
+
+    @Override
+    public void habitacionRegistrada(Habitacion habitacion) {
+        habitacionesPorTipo[habitacion.getTipo().ordinal()].increment();
+    }
+
+    @Override
+    public void reservaRealizada(Reserva reserva) {
+        sumar(reserva, 1);
+    }
+
+    @Override
+    public void reservaCancelada(Reserva reserva) {
+        sumar(reserva, -1);
+    }
+
+    /**
+     * Suma o resta una reserva de todos los contadores.
+     *
+     * @param reserva La reserva.
+     * @param signo 1 para sumarla y -1 para restarla.
+     */
+    private void sumar(Reserva reserva, int signo) {
+        long entrada = reserva.getFechaInicio().toEpochDay();
+        sumar(reserva.getTipoHabitacion().ordinal(), reserva.isClienteVip(), entrada,
+                (int) (reserva.getFechaFin().toEpochDay() - entrada),
+                VistaColumnarReservas.mesEpoch(reserva.getFechaInicio()), reserva.getPrecioTotal(), signo);
+    }
+
+    /**
+     * Suma o resta una reserva, dada por sus atributos, de todos los contadores.
+     *
+     * @param tipo El ordinal del tipo de habitación.
+     * @param vip Si el cliente es VIP.
+     * @param entrada El día epoch de entrada.
+     * @param noches El número de noches.
+     * @param mes El mes de entrada, como en {@link VistaColumnarReservas#mesEpoch(LocalDate)}.
+     * @param precio El precio total.
+     * @param signo 1 para sumarla y -1 para restarla.
+     */
+    private void sumar(int tipo, boolean vip, long entrada, int noches, int mes, double precio, int signo) {
+        for (long dia = entrada; dia < entrada + noches; dia++) {
+            ocupacionPorDia.computeIfAbsent(dia, d -> new AtomicIntegerArray(TIPOS.length)).addAndGet(tipo, signo);
+        }
+        ingresosPorMes.computeIfAbsent(mes, m -> nuevasCeldas())[tipo * 2 + (vip ? 1 : 0)].add(signo * precio);
+        numReservas.add(signo);
+        nochesReservadas.add((long) signo * noches);
+    }
+
+    private static DoubleAdder[] nuevasCeldas() {
+        DoubleAdder[] celdas = new DoubleAdder[TIPOS.length * 2];
+        for (int i = 0; i < celdas.length; i++) {
+            celdas[i] = new DoubleAdder();
+        }
+        return celdas;
+    }
+
+    /**
+     * Obtiene el número de habitaciones de un tipo ocupadas una noche.
+     *
+     * @param tipo El tipo de habitación.
+     * @param dia El día.
+     * @return El número de habitaciones ocupadas.
+     */
+    public int habitacionesOcupadas(Habitacion.RoomType tipo, LocalDate dia) {
+        AtomicIntegerArray ocupadas = ocupacionPorDia.get(dia.toEpochDay());
+        return ocupadas == null ? 0 : ocupadas.get(tipo.ordinal());
+    }
+
+    /**
+     * Obtiene la tasa de ocupación de un tipo de habitación una noche.
+     *
+     * @param tipo El tipo de habitación.
+     * @param dia El día.
+     * @return La fracción de habitaciones del tipo ocupadas, entre 0 y 1.
+     */
+    public double tasaOcupacion(Habitacion.RoomType tipo, LocalDate dia) {
+        long total = habitacionesPorTipo[tipo.ordinal()].sum();
+        return total == 0 ? 0 : (double) habitacionesOcupadas(tipo, dia) / total;
+    }
+
+    /**
+     * Obtiene la tasa de ocupación de un tipo de habitación para cada día de un rango.
+     *
+     * @param tipo El tipo de habitación.
+     * @param desde El primer día (incluido).
+     * @param hasta El último día (excluido).
+     * @return La tasa de ocupación de cada día.
+     */
+    public double[] tasasOcupacion(Habitacion.RoomType tipo, LocalDate desde, LocalDate hasta) {
+        int dias = (int) (hasta.toEpochDay() - desde.toEpochDay());
+        double[] tasas = new double[Math.max(0, dias)];
+        for (int d = 0; d < tasas.length; d++) {
+            tasas[d] = tasaOcupacion(tipo, desde.plusDays(d));
+        }
+        return tasas;
+    }
+
+    /**
+     * Obtiene los ingresos de un mes para un tipo de habitación y grupo de clientes.
+     *
+     * @param mes El mes, según la fecha de entrada de las reservas.
+     * @param tipo El tipo de habitación.
+     * @param esVip true para los clientes VIP, false para el resto.
+     * @return Los ingresos correspondientes.
+     */
+    public double ingresos(YearMonth mes, Habitacion.RoomType tipo, boolean esVip) {
+        DoubleAdder[] celdas = ingresosPorMes.get(mes.getYear() * 12 + mes.getMonthValue() - 1);
+        return celdas == null ? 0 : celdas[tipo.ordinal() * 2 + (esVip ? 1 : 0)].sum();
+    }
+
+    /**
+     * Obtiene los ingresos totales de cada mes.
+     *
+     * @return Los ingresos de cada mes, ordenados cronológicamente.
+     */
+    public SortedMap<YearMonth, Double> ingresosPorMes() {
+        SortedMap<YearMonth, Double> resultado = new TreeMap<>();
+        ingresosPorMes.forEach((mes, celdas) -> {
+            double total = 0;
+            for (DoubleAdder celda : celdas) {
+                total += celda.sum();
+            }
+            resultado.put(VistaColumnarReservas.aYearMonth(mes), total);
+        });
+        return resultado;
+    }
+
+    /**
+     * Obtiene los ingresos totales de cada tipo de habitación.
+     *
+     * @return Los ingresos de cada tipo.
+     */
+    public Map<Habitacion.RoomType, Double> ingresosPorTipo() {
+        double[] totales = new double[TIPOS.length];
+        for (DoubleAdder[] celdas : ingresosPorMes.values()) {
+            for (int c = 0; c < celdas.length; c++) {
+                totales[c / 2] += celdas[c].sum();
+            }
+        }
+        Map<Habitacion.RoomType, Double> resultado = new EnumMap<>(Habitacion.RoomType.class);
+        for (Habitacion.RoomType tipo : TIPOS) {
+            resultado.put(tipo, totales[tipo.ordinal()]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene los ingresos totales de las reservas de clientes VIP o no VIP.
+     *
+     * @param esVip true para los clientes VIP, false para el resto.
+     * @return Los ingresos del grupo indicado.
+     */
+    public double ingresosPorVip(boolean esVip) {
+        double total = 0;
+        for (DoubleAdder[] celdas : ingresosPorMes.values()) {
+            for (int t = 0; t < TIPOS.length; t++) {
+                total += celdas[t * 2 + (esVip ? 1 : 0)].sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Obtiene la duración media de las estancias, en noches.
+     *
+     * @return La estancia media, o 0 si no hay reservas.
+     */
+    public double estanciaMedia() {
+        long reservas = numReservas.sum();
+        return reservas == 0 ? 0 : (double) nochesReservadas.sum() / reservas;
+    }
+}
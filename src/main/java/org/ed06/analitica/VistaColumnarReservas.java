@@ -0,0 +1,316 @@
+package org.ed06.analitica;
+
+import org.ed06.model.Habitacion;
+import org.ed06.model.Hotel;
+import org.ed06.model.Reserva;
+import org.ed06.model.VistaHotel;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Vista columnar e inmutable de todas las reservas de un {@link Hotel} en un instante.
+ *
+ * <p>Cada atributo de las reservas se guarda en su propio array primitivo, de modo que las
+ * consultas recorren memoria contigua sin seguir referencias a objetos. Las agregaciones dividen
+ * las reservas en trozos que se procesan en paralelo en el {@code ForkJoinPool} común: cada trozo
+ * acumula en sus propios arrays y al final se suman, sin ningún dato compartido entre hilos.</p>
+ */
+public class VistaColumnarReservas {
+    /** Número de reservas que procesa cada tarea paralela */
+    private static final int TAMANO_TROZO = 64 * 1024;
+
+    private static final Habitacion.RoomType[] TIPOS = Habitacion.RoomType.values();
+
+    private final int tamano;
+    private final byte[] tipo;
+    private final boolean[] vip;
+    private final long[] inicio;
+    private final int[] noches;
+    private final int[] mes;
+    private final double[] precio;
+    private final int[] habitacionesPorTipo = new int[TIPOS.length];
+
+    private VistaColumnarReservas(int capacidad) {
+        this.tamano = capacidad;
+        this.tipo = new byte[capacidad];
+        this.vip = new boolean[capacidad];
+        this.inicio = new long[capacidad];
+        this.noches = new int[capacidad];
+        this.mes = new int[capacidad];
+        this.precio = new double[capacidad];
+    }
+
+    /**
+     * Construye la vista con las reservas actuales del hotel, tomadas todas de una misma
+     * {@link VistaHotel} para que el informe sea coherente aunque se siga reservando.
+     *
+     * @param hotel El hotel.
+     * @return La vista columnar de sus reservas.
+     */
+    public static VistaColumnarReservas de(Hotel hotel) {
+        VistaHotel estado = hotel.getVista();
+        List<Reserva> reservas = estado.getReservas();
+        VistaColumnarReservas vista = new VistaColumnarReservas(reservas.size());
+        for (Habitacion habitacion : estado.getHabitaciones()) {
+            vista.habitacionesPorTipo[habitacion.getTipo().ordinal()]++;
+        }
+        for (int i = 0; i < reservas.size(); i++) {
+            vista.anadir(i, reservas.get(i));
+        }
+        return vista;
+    }
+
+    private void anadir(int i, Reserva reserva) {
+        tipo[i] = (byte) reserva.getTipoHabitacion().ordinal();
+        vip[i] = reserva.isClienteVip();
+        inicio[i] = reserva.getFechaInicio().toEpochDay();
+        noches[i] = (int) (reserva.getFechaFin().toEpochDay() - inicio[i]);
+        mes[i] = mesEpoch(reserva.getFechaInicio());
+        precio[i] = reserva.getPrecioTotal();
+    }
+
+    /**
+     * Convierte una fecha en un número de mes consecutivo (año * 12 + mes - 1).
+     *
+     * @param fecha La fecha.
+     * @return El número de mes.
+     */
+    static int mesEpoch(LocalDate fecha) {
+        return fecha.getYear() * 12 + fecha.getMonthValue() - 1;
+    }
+
+    /**
+     * Convierte un número de mes consecutivo en un {@link YearMonth}.
+     *
+     * @param mesEpoch El número de mes.
+     * @return El mes correspondiente.
+     */
+    static YearMonth aYearMonth(int mesEpoch) {
+        return YearMonth.of(Math.floorDiv(mesEpoch, 12), Math.floorMod(mesEpoch, 12) + 1);
+    }
+
+    /**
+     * Obtiene el número de reservas de la vista.
+     *
+     * @return El número de reservas.
+     */
+    public int getNumReservas() {
+        return tamano;
+    }
+
+    /**
+     * Obtiene el número de habitaciones de un tipo que tenía el hotel al construir la vista.
+     *
+     * @param tipoHabitacion El tipo de habitación.
+     * @return El número de habitaciones del tipo.
+     */
+    public int getNumHabitaciones(Habitacion.RoomType tipoHabitacion) {
+        return habitacionesPorTipo[tipoHabitacion.ordinal()];
+    }
+
+    /**
+     * Obtiene el tipo de habitación de la reserva i-ésima.
+     *
+     * @param i El índice de la reserva.
+     * @return El ordinal del tipo de habitación.
+     */
+    int getTipo(int i) {
+        return tipo[i];
+    }
+
+    /**
+     * Indica si la reserva i-ésima es de un cliente VIP.
+     *
+     * @param i El índice de la reserva.
+     * @return true si el cliente era VIP al construir la vista.
+     */
+    boolean isVip(int i) {
+        return vip[i];
+    }
+
+    /**
+     * Obtiene el día de entrada de la reserva i-ésima.
+     *
+     * @param i El índice de la reserva.
+     * @return El día epoch de entrada.
+     */
+    long getInicio(int i) {
+        return inicio[i];
+    }
+
+    /**
+     * Obtiene las noches de la reserva i-ésima.
+     *
+     * @param i El índice de la reserva.
+     * @return El número de noches.
+     */
+    int getNoches(int i) {
+        return noches[i];
+    }
+
+    /**
+     * Obtiene el mes de entrada de la reserva i-ésima.
+     *
+     * @param i El índice de la reserva.
+     * @return El número de mes, como en {@link #mesEpoch(LocalDate)}.
+     */
+    int getMes(int i) {
+        return mes[i];
+    }
+
+    /**
+     * Obtiene el precio total de la reserva i-ésima.
+     *
+     * @param i El índice de la reserva.
+     * @return El precio total.
+     */
+    double getPrecio(int i) {
+        return precio[i];
+    }
+
+    /**
+     * Cuenta, para cada día de un rango, las habitaciones de un tipo ocupadas esa noche.
+     *
+     * @param tipoHabitacion El tipo de habitación.
+     * @param desde El primer día del rango.
+     * @param dias El número de días del rango.
+     * @return Un array con el número de habitaciones ocupadas en cada día.
+     */
+    public long[] habitacionesOcupadas(Habitacion.RoomType tipoHabitacion, LocalDate desde, int dias) {
+        byte buscado = (byte) tipoHabitacion.ordinal();
+        long primerDia = desde.toEpochDay();
+        long[] diferencias = enTrozos(() -> new long[dias + 1], (acumulado, i) -> {
+            if (tipo[i] != buscado) {
+                return;
+            }
+            long entrada = Math.max(inicio[i], primerDia) - primerDia;
+            long salida = Math.min(inicio[i] + noches[i], primerDia + dias) - primerDia;
+            if (entrada < salida) {
+                acumulado[(int) entrada]++;
+                acumulado[(int) salida]--;
+            }
+        });
+        long[] ocupadas = new long[dias];
+        long actual = 0;
+        for (int d = 0; d < dias; d++) {
+            actual += diferencias[d];
+            ocupadas[d] = actual;
+        }
+        return ocupadas;
+    }
+
+    /**
+     * Calcula los ingresos de cada mes, según la fecha de entrada de las reservas.
+     *
+     * @return Los ingresos de cada mes, ordenados cronológicamente.
+     */
+    public SortedMap<YearMonth, Double> ingresosPorMes() {
+        SortedMap<YearMonth, Double> resultado = new TreeMap<>();
+        if (tamano == 0) {
+            return resultado;
+        }
+        int primerMes = IntStream.of(mes).parallel().min().orElse(0);
+        int ultimoMes = IntStream.of(mes).parallel().max().orElse(0);
+        double[] ingresos = enTrozos(() -> new double[ultimoMes - primerMes + 1],
+                (acumulado, i) -> acumulado[mes[i] - primerMes] += precio[i]);
+        for (int m = 0; m < ingresos.length; m++) {
+            if (ingresos[m] != 0) {
+                resultado.put(aYearMonth(primerMes + m), ingresos[m]);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Calcula los ingresos de cada tipo de habitación.
+     *
+     * @return Los ingresos de cada tipo.
+     */
+    public Map<Habitacion.RoomType, Double> ingresosPorTipo() {
+        double[] ingresos = enTrozos(() -> new double[TIPOS.length], (acumulado, i) -> acumulado[tipo[i]] += precio[i]);
+        Map<Habitacion.RoomType, Double> resultado = new EnumMap<>(Habitacion.RoomType.class);
+        for (Habitacion.RoomType t : TIPOS) {
+            resultado.put(t, ingresos[t.ordinal()]);
+        }
+        return resultado;
+    }
+
+    /**
+     * Calcula los ingresos de las reservas de clientes VIP o no VIP.
+     *
+     * @param esVip true para los clientes VIP, false para el resto.
+     * @return Los ingresos del grupo indicado.
+     */
+    public double ingresosPorVip(boolean esVip) {
+        double[] ingresos = enTrozos(() -> new double[2], (acumulado, i) -> acumulado[vip[i] ? 1 : 0] += precio[i]);
+        return ingresos[esVip ? 1 : 0];
+    }
+
+    /**
+     * Calcula la duración media de las estancias, en noches.
+     *
+     * @return La estancia media, o 0 si no hay reservas.
+     */
+    public double estanciaMedia() {
+        if (tamano == 0) {
+            return 0;
+        }
+        long[] total = enTrozos(() -> new long[1], (acumulado, i) -> acumulado[0] += noches[i]);
+        return (double) total[0] / tamano;
+    }
+
+    /**
+     * Recorre las reservas en trozos paralelos, acumulando cada trozo en su propio array, y suma
+     * los arrays parciales.
+     *
+     * @param nuevo Crea un array parcial vacío ({@code long[]} o {@code double[]}).
+     * @param acumulador Acumula una reserva en un array parcial.
+     * @return La suma de todos los arrays parciales.
+     */
+    private <A> A enTrozos(Supplier<A> nuevo, Acumulador<A> acumulador) {
+        int numTrozos = Math.max(1, (tamano + TAMANO_TROZO - 1) / TAMANO_TROZO);
+        return IntStream.range(0, numTrozos).parallel()
+                .mapToObj(trozo -> {
+                    A acumulado = nuevo.get();
+                    int fin = Math.min(tamano, (trozo + 1) * TAMANO_TROZO);
+                    for (int i = trozo * TAMANO_TROZO; i < fin; i++) {
+                        acumulador.acumular(acumulado, i);
+                    }
+                    return acumulado;
+                })
+                .reduce(VistaColumnarReservas::sumar)
+                .orElseGet(nuevo);
+    }
+
+    private static <A> A sumar(A a, A b) {
+        if (a instanceof long[] x) {
+            long[] y = (long[]) b;
+            for (int i = 0; i < x.length; i++) {
+                x[i] += y[i];
+            }
+        } else {
+            double[] x = (double[]) a;
+            double[] y = (double[]) b;
+            for (int i = 0; i < x.length; i++) {
+                x[i] += y[i];
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Acumula la reserva i-ésima en un array parcial.
+     */
+    @FunctionalInterface
+    private interface Acumulador<A> {
+        void acumular(A acumulado, int i);
+    }
+}
@@ -0,0 +1,58 @@
+package org.ed06.app;
+
+import org.ed06.model.EventoHotel;
+
+import java.io.PrintStream;
+import java.util.function.Consumer;
+
+/**
+ * Suscriptor del bus de eventos del hotel que muestra cada evento como un mensaje en la consola.
+ */
+class ConsolaEventos implements Consumer<EventoHotel> {
+    private final PrintStream salida;
+
+    /**
+     * Crea el suscriptor.
+     *
+     * @param salida El flujo en el que se escriben los mensajes.
+     */
+    ConsolaEventos(PrintStream salida) {
+        this.salida = salida;
+    }
+
+    @Override
+    public void accept(EventoHotel evento) {
+        if (evento instanceof EventoHotel.ReservaRealizada) {
+            salida.println("Reserva realizada con éxito");
+        } else if (evento instanceof EventoHotel.ReservaRechazada rechazo) {
+            salida.println(mensajeRechazo(rechazo));
+        } else if (evento instanceof EventoHotel.ReservaCancelada) {
+            salida.println("Reserva cancelada con éxito");
+        } else if (evento instanceof EventoHotel.CancelacionRechazada rechazo) {
+            salida.println("No existe la reserva con id " + rechazo.getReservaId());
+        } else if (evento instanceof EventoHotel.EstadoVipCambiado cambio) {
+            salida.println("El cliente " + cambio.getNombre()
+                    + (cambio.isVip() ? " ha pasado a ser VIP" : " ha dejado de ser VIP"));
+        }
+    }
+
+    /**
+     * Construye el mensaje de una reserva rechazada.
+     *
+     * @param rechazo El evento del rechazo.
+     * @return El mensaje a mostrar.
+     */
+    private static String mensajeRechazo(EventoHotel.ReservaRechazada rechazo) {
+        boolean porTipo = rechazo.getTipo() != null;
+        return switch (rechazo.getMotivo()) {
+            case SIN_DISPONIBILIDAD -> porTipo
+                    ? "No hay habitaciones disponibles del tipo " + rechazo.getTipo()
+                    : "Habitación #" + rechazo.getNumeroHabitacion() + " ya reservada";
+            case FECHAS_NO_VALIDAS -> "La fecha de entrada es posterior a la fecha de salida";
+            case CLIENTE_INEXISTENTE -> "No existe el cliente con id " + rechazo.getClienteId();
+            case SIN_HABITACION -> porTipo
+                    ? "No hay habitaciones en el hotel"
+                    : "No existe la habitación #" + rechazo.getNumeroHabitacion();
+        };
+    }
+}
@@ -1,17 +1,30 @@
 package org.ed06.app;
 
+import org.ed06.importacion.FilaRechazada;
+import org.ed06.importacion.ImportadorCsv;
+import org.ed06.importacion.InformeImportacion;
 import org.ed06.model.Cliente;
 import org.ed06.model.Habitacion;
 import org.ed06.model.Hotel;
+import org.ed06.persistencia.AlmacenHotel;
+import org.ed06.servidor.ServidorHotel;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import java.util.Scanner;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Clase principal que gestiona la interacción con el usuario para un sistema de gestión de hoteles.
  * Permite registrar habitaciones, listar habitaciones disponibles, realizar reservas,
- * listar reservas, registrar clientes y listar clientes.
+ * listar y cancelar reservas, registrar, listar y buscar clientes.
  */
 public class Main {
     static Scanner scanner = new Scanner(System.in);
@@ -21,27 +34,73 @@ public class Main {
     private static final int LISTAR_HABITACIONES_DISPONIBLES = 2;
     private static final int RESERVAR_HABITACION = 11;
     private static final int LISTAR_RESERVAS = 12;
+    private static final int CANCELAR_RESERVA = 13;
     private static final int LISTAR_CLIENTES = 21;
     private static final int REGISTRAR_CLIENTE = 22;
+    private static final int BUSCAR_CLIENTES = 23;
+    private static final int MOSTRAR_METRICAS = 31;
     private static final int SALIR = 0;
 
+    // Número máximo de clientes que se muestran al buscar por nombre
+    private static final int MAXIMO_RESULTADOS_BUSQUEDA = 20;
+
+    // Opciones de la línea de comandos para importar y guardar datos
+    private static final String OPCION_HABITACIONES = "--habitaciones=";
+    private static final String OPCION_CLIENTES = "--clientes=";
+    private static final String OPCION_DIARIO = "--diario=";
+    private static final String OPCION_INSTANTANEA = "--instantanea=";
+    private static final String OPCION_SERVIDOR = "--servidor=";
+
+    // Tiempo máximo entre dos volcados a disco del diario y entre dos instantáneas
+    private static final Duration INTERVALO_SINCRONIZACION_DIARIO = Duration.ofMillis(50);
+    private static final Duration INTERVALO_COMPACTACION = Duration.ofMinutes(10);
+
+    // Tiempo entre dos revisiones de los clientes VIP por reservas recientes
+    private static final Duration INTERVALO_REVISION_VIP = Duration.ofDays(1);
+
+    // Tiempo entre dos procesados de las entradas y salidas de las reservas
+    private static final Duration INTERVALO_ESTANCIAS = Duration.ofMinutes(15);
+
     /**
      * Método principal que inicia la aplicación.
      *
-     * @param args Argumentos de la línea de comandos (no utilizados).
+     * @param args Argumentos de la línea de comandos: {@code --habitaciones=<fichero.csv>} y
+     *             {@code --clientes=<fichero.csv>} importan los datos iniciales desde ficheros CSV, y
+     *             {@code --diario=<fichero>} guarda todos los cambios en un diario que se reproduce
+     *             al volver a arrancar, y {@code --instantanea=<fichero>} mantiene además una
+     *             instantánea del hotel para que el arranque no tenga que reproducir todo el diario.
+     *             {@code --servidor=<puerto>} atiende el hotel con una API HTTP en lugar del menú.
+     *             Si el hotel queda vacío se registran unos datos de ejemplo.
      */
     public static void main(String[] args) {
         Hotel hotel = new Hotel("El mirador", "Calle Entornos de Desarrollo 6", "123456789");
+        hotel.getEventos().suscribir("consola", new ConsolaEventos(System.out));
 
-        // Registramos algunas habitaciones
-        hotel.registrarHabitacion(Habitacion.RoomType.SIMPLE, 50);
-        hotel.registrarHabitacion(Habitacion.RoomType.DOBLE, 80);
-        hotel.registrarHabitacion(Habitacion.RoomType.SUITE, 120);
-        hotel.registrarHabitacion(Habitacion.RoomType.LITERAS, 200);
+        AlmacenHotel almacen = abrirAlmacen(hotel, args);
+        importarDatos(hotel, args);
+        if (hotel.getNumHabitaciones() == 0) {
+            // Registramos algunas habitaciones
+            hotel.registrarHabitacion(Habitacion.RoomType.SIMPLE, 50);
+            hotel.registrarHabitacion(Habitacion.RoomType.DOBLE, 80);
+            hotel.registrarHabitacion(Habitacion.RoomType.SUITE, 120);
+            hotel.registrarHabitacion(Habitacion.RoomType.LITERAS, 200);
 
-        // Registramos algunos clientes
-        hotel.registrarCliente("Daniel", "daniel@daniel.com", "12345678A", true);
-        hotel.registrarCliente("Adrián", "adrian@adrian.es", "87654321B", false);
+            // Registramos algunos clientes
+            hotel.registrarCliente("Daniel", "daniel@daniel.com", "12345678Z", true);
+            hotel.registrarCliente("Adrián", "adrian@adrian.es", "87654321X", false);
+        }
+        // Las métricas se pueden consultar desde el menú o con cualquier cliente JMX
+        hotel.activarMetricas().registrarMBean();
+        ScheduledExecutorService tareas = programarTareas(hotel);
+
+        Integer puerto = leerPuerto(args);
+        if (puerto != null) {
+            servir(hotel, puerto);
+            tareas.shutdownNow();
+            hotel.getEventos().close();
+            cerrarAlmacen(almacen);
+            return;
+        }
 
         // Bucle principal del menú
         while (true) {
@@ -61,14 +120,26 @@ public class Main {
                 case LISTAR_RESERVAS:
                     hotel.listarReservas();
                     break;
+                case CANCELAR_RESERVA:
+                    cancelarReserva(hotel);
+                    break;
                 case LISTAR_CLIENTES:
                     hotel.listarClientes();
                     break;
                 case REGISTRAR_CLIENTE:
                     registrarCliente(hotel);
                     break;
+                case BUSCAR_CLIENTES:
+                    buscarClientes(hotel);
+                    break;
+                case MOSTRAR_METRICAS:
+                    hotel.getMetricas().ifPresent(metricas -> System.out.print(metricas.volcar()));
+                    break;
                 case SALIR:
                     System.out.println("Saliendo del programa...");
+                    tareas.shutdownNow();
+                    hotel.getEventos().close();
+                    cerrarAlmacen(almacen);
                     scanner.close();
                     return;
                 default:
@@ -78,6 +149,160 @@ public class Main {
         }
     }
 
+    /**
+     * Programa en un hilo aparte las tareas periódicas del hotel: la revisión de los clientes VIP
+     * por reservas recientes y el procesado de las entradas y salidas de las reservas.
+     *
+     * @param hotel Instancia del hotel.
+     * @return El planificador de las tareas, que debe detenerse al salir.
+     */
+    private static ScheduledExecutorService programarTareas(Hotel hotel) {
+        ScheduledExecutorService tareas = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "tareas-hotel");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        long periodoVip = INTERVALO_REVISION_VIP.toMillis();
+        tareas.scheduleWithFixedDelay(hotel::revisarEstadoVip, 0, periodoVip, TimeUnit.MILLISECONDS);
+        long periodoEstancias = INTERVALO_ESTANCIAS.toMillis();
+        tareas.scheduleWithFixedDelay(hotel::procesarEstancias, 0, periodoEstancias, TimeUnit.MILLISECONDS);
+        return tareas;
+    }
+
+    /**
+     * Obtiene el puerto del servidor HTTP indicado en los argumentos.
+     *
+     * @param args Argumentos de la línea de comandos.
+     * @return El puerto, o null si no se ha pedido el servidor.
+     */
+    private static Integer leerPuerto(String[] args) {
+        for (String arg : args) {
+            if (arg.startsWith(OPCION_SERVIDOR)) {
+                try {
+                    return Integer.parseInt(arg.substring(OPCION_SERVIDOR.length()));
+                } catch (NumberFormatException e) {
+                    System.out.println("Puerto no válido: " + arg);
+                    System.exit(1);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Atiende el hotel con la API HTTP hasta que se escribe "salir" o se cierra la entrada.
+     *
+     * @param hotel Instancia del hotel que se sirve.
+     * @param puerto El puerto en que se escucha.
+     */
+    private static void servir(Hotel hotel, int puerto) {
+        try (ServidorHotel servidor = ServidorHotel.iniciar(hotel, new InetSocketAddress(puerto))) {
+            System.out.println("Servidor escuchando en el puerto " + servidor.getPuerto()
+                    + ". Escribe \"salir\" para detenerlo.");
+            while (scanner.hasNextLine() && !scanner.nextLine().trim().equalsIgnoreCase("salir")) {
+                // Solo se espera la orden de salida
+            }
+            System.out.println("Deteniendo el servidor...");
+        } catch (IOException e) {
+            System.out.println("No se ha podido iniciar el servidor: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Importa habitaciones y clientes desde los ficheros CSV indicados en los argumentos.
+     *
+     * @param hotel Instancia del hotel donde se registrarán los datos.
+     * @param args Argumentos de la línea de comandos.
+     */
+    private static void importarDatos(Hotel hotel, String[] args) {
+        ImportadorCsv importador = new ImportadorCsv(hotel);
+        for (String arg : args) {
+            try {
+                if (arg.startsWith(OPCION_HABITACIONES)) {
+                    mostrarInforme("Habitaciones", importador.importarHabitaciones(
+                            Path.of(arg.substring(OPCION_HABITACIONES.length()))));
+                } else if (arg.startsWith(OPCION_CLIENTES)) {
+                    mostrarInforme("Clientes", importador.importarClientes(
+                            Path.of(arg.substring(OPCION_CLIENTES.length()))));
+                } else if (!arg.startsWith(OPCION_DIARIO) && !arg.startsWith(OPCION_INSTANTANEA)
+                        && !arg.startsWith(OPCION_SERVIDOR)) {
+                    System.out.println("Opción no válida: " + arg);
+                }
+            } catch (IOException e) {
+                System.out.println("No se ha podido leer el fichero: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Abre el diario y la instantánea indicados en los argumentos, reconstruyendo el hotel.
+     *
+     * @param hotel Instancia del hotel que se reconstruye.
+     * @param args Argumentos de la línea de comandos.
+     * @return El almacenamiento abierto, o null si no se ha indicado ningún diario.
+     */
+    private static AlmacenHotel abrirAlmacen(Hotel hotel, String[] args) {
+        Path diario = null;
+        Path instantanea = null;
+        for (String arg : args) {
+            if (arg.startsWith(OPCION_DIARIO)) {
+                diario = Path.of(arg.substring(OPCION_DIARIO.length()));
+            } else if (arg.startsWith(OPCION_INSTANTANEA)) {
+                instantanea = Path.of(arg.substring(OPCION_INSTANTANEA.length()));
+            }
+        }
+        if (diario == null) {
+            if (instantanea != null) {
+                System.out.println("La instantánea necesita un diario (" + OPCION_DIARIO + ")");
+            }
+            return null;
+        }
+        try {
+            AlmacenHotel almacen = AlmacenHotel.abrir(diario, instantanea, hotel,
+                    INTERVALO_SINCRONIZACION_DIARIO, INTERVALO_COMPACTACION);
+            long descartados = almacen.getDiario().getBytesDescartados();
+            if (descartados > 0) {
+                System.out.println("Se descartan " + descartados + " bytes incompletos al final del diario");
+            }
+            return almacen;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("No se ha podido abrir el diario: " + e.getMessage());
+            System.exit(1);
+            return null;
+        }
+    }
+
+    /**
+     * Cierra el almacenamiento, volcando a disco los cambios pendientes.
+     *
+     * @param almacen El almacenamiento a cerrar, o null si no hay ninguno.
+     */
+    private static void cerrarAlmacen(AlmacenHotel almacen) {
+        if (almacen == null) {
+            return;
+        }
+        almacen.getErrorCompactacion().ifPresent(e ->
+                System.out.println("No se ha podido generar la instantánea: " + e.getMessage()));
+        try {
+            almacen.close();
+        } catch (IOException e) {
+            System.out.println("No se ha podido cerrar el diario: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Muestra el resultado de una importación y las filas rechazadas.
+     *
+     * @param titulo Título de la importación.
+     * @param informe Informe de la importación.
+     */
+    private static void mostrarInforme(String titulo, InformeImportacion informe) {
+        System.out.println(titulo + " - " + informe);
+        for (FilaRechazada fila : informe.getRechazadas()) {
+            System.out.println("  " + fila);
+        }
+    }
+
     /**
      * Registra una nueva habitación en el hotel.
      *
@@ -125,6 +350,18 @@ public class Main {
         }
     }
 
+    /**
+     * Cancela una reserva del hotel.
+     *
+     * @param hotel Instancia del hotel donde se cancelará la reserva.
+     */
+    private static void cancelarReserva(Hotel hotel) {
+        System.out.println("Introduce el id de la reserva: ");
+        int reservaId = scanner.nextInt();
+        scanner.nextLine();
+        hotel.cancelarReserva(reservaId);
+    }
+
     /**
      * Registra un nuevo cliente en el hotel.
      *
@@ -140,8 +377,31 @@ public class Main {
         System.out.println("¿Es VIP? (true/false): ");
         boolean esVip = scanner.nextBoolean();
         scanner.nextLine();
-        hotel.registrarCliente(nombre, email, dni, esVip);
-        System.out.println("Cliente registrado: " + nombre);
+        try {
+            hotel.registrarCliente(nombre, email, dni, esVip);
+            System.out.println("Cliente registrado: " + nombre);
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Busca clientes por nombre y muestra los encontrados. Si ninguno empieza por el texto
+     * introducido, se muestran los de nombre parecido.
+     *
+     * @param hotel Instancia del hotel donde se buscarán los clientes.
+     */
+    private static void buscarClientes(Hotel hotel) {
+        System.out.println("Introduce el nombre del cliente: ");
+        String texto = scanner.nextLine();
+        List<Cliente> clientes = hotel.buscarClientes(texto, MAXIMO_RESULTADOS_BUSQUEDA);
+        if (clientes.isEmpty()) {
+            clientes = hotel.buscarClientesAproximado(texto, MAXIMO_RESULTADOS_BUSQUEDA);
+        }
+        if (clientes.isEmpty()) {
+            System.out.println("No se ha encontrado ningún cliente");
+        }
+        clientes.forEach(System.out::println);
     }
 
     /**
@@ -169,8 +429,11 @@ public class Main {
         System.out.println("2. Listar habitaciones disponibles");
         System.out.println("11. Reservar habitación");
         System.out.println("12. Listar reservas");
+        System.out.println("13. Cancelar reserva");
         System.out.println("21. Listar clientes");
         System.out.println("22. Registrar cliente");
+        System.out.println("23. Buscar clientes por nombre");
+        System.out.println("31. Mostrar métricas");
         System.out.println("0. Salir");
     }
 }
\ No newline at end of file
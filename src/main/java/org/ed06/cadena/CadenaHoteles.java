@@ -0,0 +1,212 @@
+package org.ed06.cadena;
+
+import org.ed06.model.Habitacion;
+import org.ed06.model.Hotel;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Cadena de hoteles en la que se busca disponibilidad en todos sus hoteles a la vez.
+ *
+ * <p>Los hoteles se reparten en fragmentos por su índice en la cadena: el hotel {@code i} pertenece
+ * al fragmento {@code i % numFragmentos}. Cada búsqueda lanza un hilo virtual por fragmento, que
+ * recorre sus hoteles y conserva solo las {@code k} ofertas más baratas en un montículo; después
+ * se combinan las ofertas de todos los fragmentos. La latencia de una búsqueda es así la del
+ * fragmento más lento y no la suma de todos los hoteles.</p>
+ *
+ * <p>Los hoteles se pueden añadir mientras se realizan búsquedas: cada búsqueda trabaja con los
+ * hoteles que había al empezar.</p>
+ */
+public class CadenaHoteles implements AutoCloseable {
+    /** Capacidad inicial del montículo de cada fragmento, que crece si se piden más ofertas */
+    private static final int CAPACIDAD_INICIAL_FRAGMENTO = 64;
+
+    /** Orden de las ofertas: por precio, y a igual precio por hotel y habitación */
+    private static final Comparator<OfertaHabitacion> POR_PRECIO =
+            Comparator.comparingLong(OfertaHabitacion::getPrecioCentimos)
+                    .thenComparingInt(OfertaHabitacion::getIndiceHotel)
+                    .thenComparingInt(oferta -> oferta.getHabitacion().getNumero());
+
+    private final List<Hotel> hoteles = new CopyOnWriteArrayList<>();
+    private final int numFragmentos;
+    private final ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Crea una cadena vacía con un fragmento por procesador disponible.
+     */
+    public CadenaHoteles() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Crea una cadena vacía.
+     *
+     * @param numFragmentos El número de fragmentos en que se reparten los hoteles.
+     * @throws IllegalArgumentException Si el número de fragmentos no es positivo.
+     */
+    public CadenaHoteles(int numFragmentos) {
+        if (numFragmentos < 1) {
+            throw new IllegalArgumentException("El número de fragmentos debe ser positivo");
+        }
+        this.numFragmentos = numFragmentos;
+    }
+
+    /**
+     * Añade un hotel a la cadena.
+     *
+     * @param hotel El hotel a añadir.
+     * @return El índice del hotel en la cadena.
+     */
+    public synchronized int anadirHotel(Hotel hotel) {
+        hoteles.add(hotel);
+        return hoteles.size() - 1;
+    }
+
+    /**
+     * Obtiene un hotel por su índice en la cadena.
+     *
+     * @param indice El índice del hotel.
+     * @return Una opción que contiene el hotel si existe, o vacía si no.
+     */
+    public Optional<Hotel> getHotel(int indice) {
+        List<Hotel> actuales = hoteles;
+        return indice >= 0 && indice < actuales.size() ? Optional.of(actuales.get(indice)) : Optional.empty();
+    }
+
+    /**
+     * Obtiene el número de hoteles de la cadena.
+     *
+     * @return El número de hoteles.
+     */
+    public int getNumHoteles() {
+        return hoteles.size();
+    }
+
+    /**
+     * Busca en todos los hoteles de la cadena las habitaciones libres más baratas de un tipo.
+     *
+     * @param tipo El tipo de habitación.
+     * @param fechaEntrada La fecha de entrada.
+     * @param fechaSalida La fecha de salida.
+     * @param vip Indica si el precio se calcula para un cliente VIP.
+     * @param maximo El número máximo de ofertas a devolver.
+     * @return Como mucho {@code maximo} ofertas, ordenadas de menor a mayor precio.
+     * @throws IllegalArgumentException Si el máximo no es positivo.
+     * @throws IllegalStateException Si se interrumpe la búsqueda.
+     */
+    public List<OfertaHabitacion> buscarMasBaratas(Habitacion.RoomType tipo, LocalDate fechaEntrada,
+                                                   LocalDate fechaSalida, boolean vip, int maximo) {
+        if (maximo < 1) {
+            throw new IllegalArgumentException("El número máximo de ofertas debe ser positivo");
+        }
+        if (!fechaEntrada.isBefore(fechaSalida)) {
+            return new ArrayList<>();
+        }
+        Hotel[] actuales = hoteles.toArray(new Hotel[0]);
+        int fragmentos = Math.min(numFragmentos, actuales.length);
+        List<Future<List<OfertaHabitacion>>> parciales = new ArrayList<>(fragmentos);
+        for (int f = 0; f < fragmentos; f++) {
+            int fragmento = f;
+            parciales.add(ejecutor.submit(() -> buscarEnFragmento(actuales, fragmento, fragmentos,
+                    tipo, fechaEntrada, fechaSalida, vip, maximo)));
+        }
+        List<OfertaHabitacion> ofertas = new ArrayList<>();
+        try {
+            for (Future<List<OfertaHabitacion>> parcial : parciales) {
+                ofertas.addAll(parcial.get());
+            }
+        } catch (InterruptedException e) {
+            parciales.forEach(parcial -> parcial.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido mientras se buscaba disponibilidad", e);
+        } catch (ExecutionException e) {
+            parciales.forEach(parcial -> parcial.cancel(true));
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Error al buscar disponibilidad", e.getCause());
+        }
+        ofertas.sort(POR_PRECIO);
+        return ofertas.size() > maximo ? new ArrayList<>(ofertas.subList(0, maximo)) : ofertas;
+    }
+
+    /**
+     * Reserva la habitación de una oferta en su hotel.
+     * <p>
+     * La habitación puede haberse reservado desde la búsqueda; en ese caso se devuelve el código de
+     * error del hotel y se puede intentar con la siguiente oferta. El precio de la reserva se
+     * calcula de nuevo al reservar.
+     * </p>
+     *
+     * @param oferta La oferta a reservar.
+     * @param clienteId El ID del cliente en el hotel de la oferta.
+     * @return El número de la habitación reservada, o un código de error negativo.
+     */
+    public int reservar(OfertaHabitacion oferta, int clienteId) {
+        return oferta.getHotel().reservarHabitacionConcreta(clienteId, oferta.getHabitacion().getNumero(),
+                oferta.getFechaEntrada(), oferta.getFechaSalida());
+    }
+
+    /**
+     * Busca las ofertas más baratas entre los hoteles de un fragmento.
+     * <p>
+     * Cada hotel devuelve sus habitaciones libres de menor precio base, que son también las de
+     * menor precio para la estancia, por lo que se deja de cotizar un hotel en cuanto una de sus
+     * habitaciones no mejora las ofertas ya reunidas.
+     * </p>
+     *
+     * @param hoteles Los hoteles de la cadena al empezar la búsqueda.
+     * @param fragmento El fragmento a recorrer.
+     * @param fragmentos El número de fragmentos de la búsqueda.
+     * @param tipo El tipo de habitación.
+     * @param fechaEntrada La fecha de entrada.
+     * @param fechaSalida La fecha de salida.
+     * @param vip Indica si el precio se calcula para un cliente VIP.
+     * @param maximo El número máximo de ofertas.
+     * @return Las ofertas más baratas del fragmento, sin ordenar.
+     */
+    private static List<OfertaHabitacion> buscarEnFragmento(Hotel[] hoteles, int fragmento, int fragmentos,
+                                                            Habitacion.RoomType tipo, LocalDate fechaEntrada,
+                                                            LocalDate fechaSalida, boolean vip, int maximo) {
+        PriorityQueue<OfertaHabitacion> masBaratas = new PriorityQueue<>(Math.min(maximo, CAPACIDAD_INICIAL_FRAGMENTO),
+                POR_PRECIO.reversed());
+        for (int i = fragmento; i < hoteles.length; i += fragmentos) {
+            Hotel hotel = hoteles[i];
+            for (Habitacion habitacion : hotel.getHabitacionesLibres(tipo, fechaEntrada, fechaSalida, maximo)) {
+                OptionalLong precio = hotel.cotizar(habitacion.getNumero(), fechaEntrada, fechaSalida, vip);
+                if (precio.isEmpty()) {
+                    continue;
+                }
+                OfertaHabitacion oferta = new OfertaHabitacion(i, hotel, habitacion, fechaEntrada, fechaSalida,
+                        precio.getAsLong());
+                if (masBaratas.size() == maximo && POR_PRECIO.compare(oferta, masBaratas.peek()) >= 0) {
+                    break;
+                }
+                masBaratas.add(oferta);
+                if (masBaratas.size() > maximo) {
+                    masBaratas.poll();
+                }
+            }
+        }
+        return new ArrayList<>(masBaratas);
+    }
+
+    /**
+     * Espera a que terminen las búsquedas en curso y libera sus hilos.
+     */
+    @Override
+    public void close() {
+        ejecutor.close();
+    }
+}
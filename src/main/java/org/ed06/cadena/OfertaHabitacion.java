@@ -0,0 +1,104 @@
+package org.ed06.cadena;
+
+import org.ed06.model.Habitacion;
+import org.ed06.model.Hotel;
+
+import java.time.LocalDate;
+
+/**
+ * Habitación libre de un hotel de la cadena, con el precio de la estancia buscada.
+ */
+public class OfertaHabitacion {
+    private final int indiceHotel;
+    private final Hotel hotel;
+    private final Habitacion habitacion;
+    private final LocalDate fechaEntrada;
+    private final LocalDate fechaSalida;
+    private final long precioCentimos;
+
+    /**
+     * Constructor de la clase OfertaHabitacion.
+     *
+     * @param indiceHotel El índice del hotel en la cadena.
+     * @param hotel El hotel.
+     * @param habitacion La habitación libre.
+     * @param fechaEntrada La fecha de entrada.
+     * @param fechaSalida La fecha de salida.
+     * @param precioCentimos El precio de la estancia, en céntimos.
+     */
+    OfertaHabitacion(int indiceHotel, Hotel hotel, Habitacion habitacion, LocalDate fechaEntrada,
+                     LocalDate fechaSalida, long precioCentimos) {
+        this.indiceHotel = indiceHotel;
+        this.hotel = hotel;
+        this.habitacion = habitacion;
+        this.fechaEntrada = fechaEntrada;
+        this.fechaSalida = fechaSalida;
+        this.precioCentimos = precioCentimos;
+    }
+
+    /**
+     * Obtiene el índice del hotel en la cadena.
+     *
+     * @return El índice del hotel.
+     */
+    public int getIndiceHotel() {
+        return indiceHotel;
+    }
+
+    /**
+     * Obtiene el hotel de la oferta.
+     *
+     * @return El hotel.
+     */
+    public Hotel getHotel() {
+        return hotel;
+    }
+
+    /**
+     * Obtiene la habitación ofrecida.
+     *
+     * @return La habitación.
+     */
+    public Habitacion getHabitacion() {
+        return habitacion;
+    }
+
+    /**
+     * Obtiene la fecha de entrada de la estancia.
+     *
+     * @return La fecha de entrada.
+     */
+    public LocalDate getFechaEntrada() {
+        return fechaEntrada;
+    }
+
+    /**
+     * Obtiene la fecha de salida de la estancia.
+     *
+     * @return La fecha de salida.
+     */
+    public LocalDate getFechaSalida() {
+        return fechaSalida;
+    }
+
+    /**
+     * Obtiene el precio de la estancia en el momento de la búsqueda.
+     *
+     * @return El precio en céntimos.
+     */
+    public long getPrecioCentimos() {
+        return precioCentimos;
+    }
+
+    /**
+     * Representación en formato de texto de la oferta.
+     *
+     * @return Una cadena que describe la oferta.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s - Habitación #%d - Tipo: %s - Fechas: %s a %s - Precio: %.2f",
+                hotel.getNombre(), habitacion.getNumero(), habitacion.getTipo(), fechaEntrada, fechaSalida,
+                precioCentimos / 100.0);
+    }
+}
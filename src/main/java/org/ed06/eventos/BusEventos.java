@@ -0,0 +1,243 @@
+package org.ed06.eventos;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Bus de eventos asíncrono sobre un búfer circular acotado y sin cerrojos.
+ *
+ * <p>Cualquier hilo puede publicar eventos con {@link #publicar(Object)}, que nunca se bloquea:
+ * reserva una posición del búfer con una operación atómica, guarda el evento y lo marca como
+ * publicado. Cada suscriptor recibe todos los eventos, en orden de publicación, desde su propio
+ * hilo, de modo que un suscriptor lento (por ejemplo, la consola) no retrasa a quien publica.</p>
+ *
+ * <p>Si el suscriptor más lento lleva {@code capacidad} eventos de retraso, el búfer está lleno
+ * y los nuevos eventos se descartan en lugar de esperar; {@link #getDescartados()} cuenta los
+ * descartados. Sin suscriptores, los eventos también se descartan, pero sin contarlos.</p>
+ *
+ * <p>Los suscriptores esperan a nuevos eventos sondeando el búfer, primero activamente y después
+ * durmiendo periodos cortos, para que publicar no tenga que despertar a nadie.</p>
+ *
+ * @param <E> El tipo de los eventos.
+ */
+public class BusEventos<E> implements AutoCloseable {
+    /** Número de sondeos activos antes de ceder el procesador */
+    private static final int SONDEOS_ACTIVOS = 100;
+
+    /** Número de sondeos cediendo el procesador antes de dormir */
+    private static final int SONDEOS_CEDIENDO = 200;
+
+    /** Tiempo que duerme un suscriptor sin eventos entre dos sondeos */
+    private static final long PAUSA_NANOS = 1_000_000;
+
+    private final Object[] eventos;
+    private final AtomicLongArray publicados;
+    private final int mascara;
+    private final AtomicLong siguiente = new AtomicLong();
+    private final LongAdder descartados = new LongAdder();
+
+    private volatile Suscriptor<E>[] suscriptores = nuevosSuscriptores(0);
+    private volatile long minimoLeido;
+    private volatile boolean cerrado;
+
+    /**
+     * Crea un bus de eventos.
+     *
+     * @param capacidad El número máximo de eventos pendientes de leer por el suscriptor más lento;
+     *                  se redondea a la siguiente potencia de dos.
+     * @throws IllegalArgumentException Si la capacidad no es positiva.
+     */
+    public BusEventos(int capacidad) {
+        if (capacidad < 1 || capacidad > 1 << 30) {
+            throw new IllegalArgumentException("La capacidad debe estar entre 1 y 2^30");
+        }
+        int tamano = Integer.highestOneBit(capacidad - 1) << 1;
+        tamano = Math.max(tamano, 1);
+        this.eventos = new Object[tamano];
+        this.publicados = new AtomicLongArray(tamano);
+        this.mascara = tamano - 1;
+        for (int i = 0; i < tamano; i++) {
+            publicados.set(i, -1);
+        }
+    }
+
+    /**
+     * Publica un evento para todos los suscriptores, sin bloquearse.
+     *
+     * @param evento El evento.
+     * @return {@code true} si se ha publicado, {@code false} si se ha descartado porque el búfer
+     *         está lleno, no hay suscriptores o el bus está cerrado.
+     */
+    public boolean publicar(E evento) {
+        long secuencia;
+        do {
+            Suscriptor<E>[] actuales = suscriptores;
+            if (actuales.length == 0 || cerrado) {
+                return false;
+            }
+            secuencia = siguiente.get();
+            long limite = secuencia - eventos.length;
+            if (limite >= minimoLeido) {
+                long minimo = minimoLeido(actuales, secuencia);
+                minimoLeido = minimo;
+                if (limite >= minimo) {
+                    descartados.increment();
+                    return false;
+                }
+            }
+        } while (!siguiente.compareAndSet(secuencia, secuencia + 1));
+
+        int posicion = (int) secuencia & mascara;
+        eventos[posicion] = evento;
+        publicados.set(posicion, secuencia);
+        return true;
+    }
+
+    /**
+     * Indica si algún suscriptor recibiría un evento publicado ahora.
+     * <p>
+     * Es una lectura barata que permite no construir un evento que {@link #publicar(Object)}
+     * descartaría. Un suscriptor que llegue justo después tampoco lo habría recibido, porque solo
+     * recibe los eventos publicados a partir de su suscripción.
+     * </p>
+     *
+     * @return {@code true} si hay suscriptores y el bus no está cerrado.
+     */
+    public boolean hayInteresados() {
+        return suscriptores.length > 0 && !cerrado;
+    }
+
+    /**
+     * Añade un suscriptor que recibirá, en un hilo propio, los eventos publicados a partir de ahora.
+     *
+     * @param nombre El nombre del suscriptor, que se usa para nombrar su hilo.
+     * @param consumidor La operación que procesa cada evento. Las excepciones que lance se pasan al
+     *                   manejador de excepciones de su hilo y no detienen al suscriptor.
+     * @throws IllegalStateException Si el bus está cerrado.
+     */
+    public synchronized void suscribir(String nombre, Consumer<? super E> consumidor) {
+        if (cerrado) {
+            throw new IllegalStateException("El bus de eventos está cerrado");
+        }
+        Suscriptor<E> suscriptor = new Suscriptor<>(this, consumidor, siguiente.get());
+        Suscriptor<E>[] actuales = suscriptores;
+        Suscriptor<E>[] nuevos = Arrays.copyOf(actuales, actuales.length + 1);
+        nuevos[actuales.length] = suscriptor;
+        suscriptores = nuevos;
+        // Los publicadores que aún no veían al suscriptor pueden haber avanzado; empieza tras ellos
+        suscriptor.leido.set(siguiente.get());
+        suscriptor.hilo = Thread.ofPlatform().daemon().name("eventos-" + nombre).start(suscriptor);
+    }
+
+    /**
+     * Obtiene el número de eventos descartados por encontrar el búfer lleno.
+     *
+     * @return El número de eventos descartados.
+     */
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    /**
+     * Cierra el bus: deja de aceptar eventos y espera a que los suscriptores procesen los que ya
+     * se habían publicado.
+     */
+    @Override
+    public void close() {
+        Suscriptor<E>[] actuales;
+        synchronized (this) {
+            cerrado = true;
+            actuales = suscriptores;
+        }
+        boolean interrumpido = false;
+        for (Suscriptor<E> suscriptor : actuales) {
+            while (true) {
+                try {
+                    suscriptor.hilo.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrumpido = true;
+                }
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static <E> long minimoLeido(Suscriptor<E>[] actuales, long maximo) {
+        long minimo = maximo;
+        for (Suscriptor<E> suscriptor : actuales) {
+            minimo = Math.min(minimo, suscriptor.leido.get());
+        }
+        return minimo;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> Suscriptor<E>[] nuevosSuscriptores(int tamano) {
+        return (Suscriptor<E>[]) new Suscriptor<?>[tamano];
+    }
+
+    /**
+     * Suscriptor del bus, que lee el búfer desde su propio hilo.
+     *
+     * @param <E> El tipo de los eventos.
+     */
+    private static final class Suscriptor<E> implements Runnable {
+        private final BusEventos<E> bus;
+        private final Consumer<? super E> consumidor;
+
+        /** Secuencia del siguiente evento a leer; los anteriores ya se pueden sobrescribir */
+        private final AtomicLong leido;
+        private Thread hilo;
+
+        Suscriptor(BusEventos<E> bus, Consumer<? super E> consumidor, long inicio) {
+            this.bus = bus;
+            this.consumidor = consumidor;
+            this.leido = new AtomicLong(inicio);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run() {
+            long secuencia = leido.get();
+            int sondeos = 0;
+            while (true) {
+                int posicion = (int) secuencia & bus.mascara;
+                if (bus.publicados.get(posicion) == secuencia) {
+                    E evento = (E) bus.eventos[posicion];
+                    leido.setRelease(++secuencia);
+                    procesar(evento);
+                    sondeos = 0;
+                } else if (bus.cerrado && secuencia == bus.siguiente.get()) {
+                    return;
+                } else {
+                    esperar(sondeos++);
+                }
+            }
+        }
+
+        private void procesar(E evento) {
+            try {
+                consumidor.accept(evento);
+            } catch (RuntimeException e) {
+                Thread hiloActual = Thread.currentThread();
+                hiloActual.getUncaughtExceptionHandler().uncaughtException(hiloActual, e);
+            }
+        }
+
+        private static void esperar(int sondeos) {
+            if (sondeos < SONDEOS_ACTIVOS) {
+                Thread.onSpinWait();
+            } else if (sondeos < SONDEOS_CEDIENDO) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PAUSA_NANOS);
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.ed06.importacion;
+
+/**
+ * Fila de un fichero de importación que no se ha podido registrar.
+ */
+public class FilaRechazada {
+    private final long linea;
+    private final String motivo;
+
+    /**
+     * Constructor de la clase FilaRechazada.
+     *
+     * @param linea El número de línea de la fila en el fichero, empezando en 1.
+     * @param motivo El motivo por el que se ha rechazado la fila.
+     */
+    public FilaRechazada(long linea, String motivo) {
+        this.linea = linea;
+        this.motivo = motivo;
+    }
+
+    /**
+     * Obtiene el número de línea de la fila rechazada.
+     *
+     * @return El número de línea, empezando en 1.
+     */
+    public long getLinea() {
+        return linea;
+    }
+
+    /**
+     * Obtiene el motivo del rechazo.
+     *
+     * @return El motivo por el que se ha rechazado la fila.
+     */
+    public String getMotivo() {
+        return motivo;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Línea %d: %s", linea, motivo);
+    }
+}
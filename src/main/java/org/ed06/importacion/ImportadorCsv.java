@@ -0,0 +1,303 @@
+package org.ed06.importacion;
+
+import org.ed06.model.Habitacion;
+import org.ed06.model.Hotel;
+import org.ed06.model.ResultadoValidacion;
+import org.ed06.model.ValidadorCliente;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Importa clientes y habitaciones a un {@link Hotel} desde ficheros CSV.
+ *
+ * <p>Los ficheros se leen línea a línea y se procesan en lotes, por lo que la memoria usada no
+ * depende del tamaño del fichero. Los clientes de cada lote se validan en paralelo con
+ * {@link ValidadorCliente} y los válidos se registran después en orden, de modo que los
+ * identificadores asignados siguen el orden del fichero.</p>
+ *
+ * <p>Formatos admitidos (separados por comas, con campos opcionalmente entre comillas dobles y
+ * una cabecera opcional en la primera línea):</p>
+ * <ul>
+ *     <li>Clientes: {@code nombre,email,dni,vip}</li>
+ *     <li>Habitaciones: {@code tipo,precioBase}</li>
+ * </ul>
+ */
+public class ImportadorCsv {
+    /** Tamaño de lote por defecto */
+    public static final int TAMANO_LOTE_POR_DEFECTO = 10_000;
+
+    private static final int CAMPOS_CLIENTE = 4;
+    private static final int CAMPOS_HABITACION = 2;
+
+    private final Hotel hotel;
+    private final int tamanoLote;
+
+    /**
+     * Constructor de la clase ImportadorCsv con el tamaño de lote por defecto.
+     *
+     * @param hotel El hotel en el que se registrarán los datos importados.
+     */
+    public ImportadorCsv(Hotel hotel) {
+        this(hotel, TAMANO_LOTE_POR_DEFECTO);
+    }
+
+    /**
+     * Constructor de la clase ImportadorCsv.
+     *
+     * @param hotel El hotel en el que se registrarán los datos importados.
+     * @param tamanoLote Número de filas que se validan y registran juntas.
+     */
+    public ImportadorCsv(Hotel hotel, int tamanoLote) {
+        if (tamanoLote < 1) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser positivo");
+        }
+        this.hotel = hotel;
+        this.tamanoLote = tamanoLote;
+    }
+
+    /**
+     * Importa clientes desde un fichero CSV en UTF-8.
+     *
+     * @param fichero La ruta del fichero.
+     * @return El informe de la importación.
+     * @throws IOException Si no se puede leer el fichero.
+     */
+    public InformeImportacion importarClientes(Path fichero) throws IOException {
+        try (Reader lector = Files.newBufferedReader(fichero, StandardCharsets.UTF_8)) {
+            return importarClientes(lector);
+        }
+    }
+
+    /**
+     * Importa clientes desde un flujo de texto CSV.
+     *
+     * @param lector El flujo de texto. No se cierra al terminar.
+     * @return El informe de la importación.
+     * @throws IOException Si no se puede leer el flujo.
+     */
+    public InformeImportacion importarClientes(Reader lector) throws IOException {
+        InformeImportacion informe = new InformeImportacion();
+        leerEnLotes(lector, "nombre", CAMPOS_CLIENTE, informe, lote -> registrarClientes(lote, informe));
+        informe.ordenarRechazadas();
+        return informe;
+    }
+
+    /**
+     * Importa habitaciones desde un fichero CSV en UTF-8.
+     *
+     * @param fichero La ruta del fichero.
+     * @return El informe de la importación.
+     * @throws IOException Si no se puede leer el fichero.
+     */
+    public InformeImportacion importarHabitaciones(Path fichero) throws IOException {
+        try (Reader lector = Files.newBufferedReader(fichero, StandardCharsets.UTF_8)) {
+            return importarHabitaciones(lector);
+        }
+    }
+
+    /**
+     * Importa habitaciones desde un flujo de texto CSV.
+     *
+     * @param lector El flujo de texto. No se cierra al terminar.
+     * @return El informe de la importación.
+     * @throws IOException Si no se puede leer el flujo.
+     */
+    public InformeImportacion importarHabitaciones(Reader lector) throws IOException {
+        InformeImportacion informe = new InformeImportacion();
+        leerEnLotes(lector, "tipo", CAMPOS_HABITACION, informe, lote -> registrarHabitaciones(lote, informe));
+        informe.ordenarRechazadas();
+        return informe;
+    }
+
+    /**
+     * Lee el flujo línea a línea y entrega las filas al procesador en lotes.
+     * <p>
+     * Las líneas vacías se ignoran, la primera línea se descarta si es una cabecera y las filas con
+     * un número de campos incorrecto se rechazan sin llegar al procesador.
+     * </p>
+     *
+     * @param lector El flujo de texto.
+     * @param primeraColumna Nombre de la primera columna de la cabecera.
+     * @param numCampos Número de campos esperado en cada fila.
+     * @param informe El informe en el que se anotan las filas rechazadas.
+     * @param procesador El procesador de cada lote.
+     * @throws IOException Si no se puede leer el flujo.
+     */
+    private void leerEnLotes(Reader lector, String primeraColumna, int numCampos, InformeImportacion informe,
+                             ProcesadorLote procesador) throws IOException {
+        BufferedReader lineas = lector instanceof BufferedReader br ? br : new BufferedReader(lector);
+        List<Fila> lote = new ArrayList<>(tamanoLote);
+        long numLinea = 0;
+        String linea;
+        while ((linea = lineas.readLine()) != null) {
+            numLinea++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            String[] campos = dividir(linea);
+            if (numLinea == 1 && campos[0].equalsIgnoreCase(primeraColumna)) {
+                continue;
+            }
+            if (campos.length != numCampos) {
+                informe.rechazar(numLinea, "Se esperaban " + numCampos + " campos y hay " + campos.length);
+                continue;
+            }
+            lote.add(new Fila(numLinea, campos));
+            if (lote.size() == tamanoLote) {
+                procesador.procesar(lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            procesador.procesar(lote);
+        }
+    }
+
+    /**
+     * Valida en paralelo un lote de clientes y registra en orden los que son válidos y no repiten
+     * el DNI ni el email de otro cliente del hotel.
+     *
+     * @param lote Las filas del lote.
+     * @param informe El informe de la importación.
+     */
+    private void registrarClientes(List<Fila> lote, InformeImportacion informe) {
+        ResultadoValidacion[] resultados = new ResultadoValidacion[lote.size()];
+        IntStream.range(0, lote.size()).parallel().forEach(i -> {
+            String[] campos = lote.get(i).campos;
+            resultados[i] = ValidadorCliente.validar(campos[0], campos[2], campos[1]);
+        });
+
+        int aceptadas = 0;
+        for (int i = 0; i < lote.size(); i++) {
+            Fila fila = lote.get(i);
+            if (!resultados[i].esValido()) {
+                informe.rechazar(fila.linea, resultados[i].getMensaje());
+                continue;
+            }
+            String vip = fila.campos[3];
+            if (!vip.equalsIgnoreCase("true") && !vip.equalsIgnoreCase("false")) {
+                informe.rechazar(fila.linea, "El campo VIP debe ser true o false");
+                continue;
+            }
+            if (hotel.getClientePorDni(fila.campos[2]).isPresent()) {
+                informe.rechazar(fila.linea, ResultadoValidacion.DNI_DUPLICADO.getMensaje());
+                continue;
+            }
+            if (hotel.getClientePorEmail(fila.campos[1]).isPresent()) {
+                informe.rechazar(fila.linea, ResultadoValidacion.EMAIL_DUPLICADO.getMensaje());
+                continue;
+            }
+            try {
+                hotel.registrarCliente(fila.campos[0], fila.campos[1], fila.campos[2], Boolean.parseBoolean(vip));
+            } catch (IllegalArgumentException e) {
+                // Otro hilo ha registrado el mismo DNI o email después de la comprobación
+                informe.rechazar(fila.linea, e.getMessage());
+                continue;
+            }
+            aceptadas++;
+        }
+        informe.sumarAceptadas(aceptadas);
+    }
+
+    /**
+     * Valida un lote de habitaciones y registra juntas las que son válidas.
+     *
+     * @param lote Las filas del lote.
+     * @param informe El informe de la importación.
+     */
+    private void registrarHabitaciones(List<Fila> lote, InformeImportacion informe) {
+        List<Habitacion.RoomType> tipos = new ArrayList<>(lote.size());
+        List<Double> preciosBase = new ArrayList<>(lote.size());
+        for (Fila fila : lote) {
+            Habitacion.RoomType tipo;
+            double precioBase;
+            try {
+                tipo = Habitacion.RoomType.valueOf(fila.campos[0].toUpperCase());
+            } catch (IllegalArgumentException e) {
+                informe.rechazar(fila.linea, "Tipo de habitación no válido: " + fila.campos[0]);
+                continue;
+            }
+            try {
+                precioBase = Double.parseDouble(fila.campos[1]);
+            } catch (NumberFormatException e) {
+                informe.rechazar(fila.linea, "Precio base no válido: " + fila.campos[1]);
+                continue;
+            }
+            if (!(precioBase > 0)) {
+                informe.rechazar(fila.linea, "El precio base debe ser positivo");
+                continue;
+            }
+            tipos.add(tipo);
+            preciosBase.add(precioBase);
+        }
+        hotel.registrarHabitaciones(tipos, preciosBase);
+        informe.sumarAceptadas(tipos.size());
+    }
+
+    /**
+     * Divide una línea CSV en campos, quitando los espacios de los extremos de cada uno.
+     * <p>
+     * Un campo entre comillas dobles puede contener comas, y dos comillas seguidas dentro de él
+     * representan una comilla.
+     * </p>
+     *
+     * @param linea La línea a dividir.
+     * @return Los campos de la línea.
+     */
+    static String[] dividir(String linea) {
+        List<String> campos = new ArrayList<>(CAMPOS_CLIENTE);
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (entreComillas) {
+                if (c == '"' && i + 1 < linea.length() && linea.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreComillas = false;
+                } else {
+                    campo.append(c);
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString().trim());
+                campo.setLength(0);
+            } else {
+                campo.append(c);
+            }
+        }
+        campos.add(campo.toString().trim());
+        return campos.toArray(new String[0]);
+    }
+
+    /**
+     * Fila leída del fichero junto con su número de línea.
+     */
+    private static class Fila {
+        private final long linea;
+        private final String[] campos;
+
+        Fila(long linea, String[] campos) {
+            this.linea = linea;
+            this.campos = campos;
+        }
+    }
+
+    /**
+     * Operación que procesa un lote de filas.
+     */
+    @FunctionalInterface
+    private interface ProcesadorLote {
+        void procesar(List<Fila> lote);
+    }
+}
@@ -0,0 +1,63 @@
+package org.ed06.importacion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Resultado de una importación: cuántas filas se han registrado y cuáles se han rechazado.
+ */
+public class InformeImportacion {
+    private long aceptadas;
+    private final List<FilaRechazada> rechazadas = new ArrayList<>();
+
+    /**
+     * Suma filas registradas al informe.
+     *
+     * @param numFilas El número de filas registradas.
+     */
+    void sumarAceptadas(int numFilas) {
+        aceptadas += numFilas;
+    }
+
+    /**
+     * Añade una fila rechazada al informe.
+     *
+     * @param linea El número de línea de la fila.
+     * @param motivo El motivo del rechazo.
+     */
+    void rechazar(long linea, String motivo) {
+        rechazadas.add(new FilaRechazada(linea, motivo));
+    }
+
+    /**
+     * Ordena las filas rechazadas por número de línea.
+     */
+    void ordenarRechazadas() {
+        rechazadas.sort(Comparator.comparingLong(FilaRechazada::getLinea));
+    }
+
+    /**
+     * Obtiene el número de filas registradas.
+     *
+     * @return El número de filas aceptadas.
+     */
+    public long getAceptadas() {
+        return aceptadas;
+    }
+
+    /**
+     * Obtiene las filas rechazadas, en orden de línea.
+     *
+     * @return Lista inmodificable con las filas rechazadas.
+     */
+    public List<FilaRechazada> getRechazadas() {
+        return Collections.unmodifiableList(rechazadas);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Filas aceptadas: %d - Filas rechazadas: %d", aceptadas, rechazadas.size());
+    }
+}
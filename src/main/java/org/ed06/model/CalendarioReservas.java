@@ -0,0 +1,123 @@
+package org.ed06.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Índice de intervalos con las reservas de una única habitación.
+ *
+ * <p>Las reservas se guardan ordenadas por fecha de inicio en un {@link TreeMap}. Cada reserva
+ * ocupa el intervalo semiabierto {@code [fechaInicio, fechaFin)}, de modo que una salida y una
+ * entrada el mismo día no se solapan. Como el índice nunca admite intervalos solapados, basta
+ * con mirar la reserva que empieza justo antes de la fecha de salida pedida para saber si un
+ * rango está libre, lo que hace que la consulta y la inserción sean O(log n).</p>
+ *
+ * <p>Todas las operaciones se sincronizan sobre el propio calendario, que actúa como cerrojo de
+ * la habitación: la comprobación y la inserción de {@link #anadir(Reserva)} son atómicas.</p>
+ */
+class CalendarioReservas {
+
+    /** Reservas de la habitación indexadas por su fecha de inicio */
+    private final TreeMap<LocalDate, Reserva> reservas = new TreeMap<>();
+
+    /**
+     * Comprueba si el intervalo {@code [inicio, fin)} no se solapa con ninguna reserva.
+     *
+     * @param inicio Fecha de entrada (incluida).
+     * @param fin Fecha de salida (excluida).
+     * @return {@code true} si el intervalo está libre, {@code false} en caso contrario.
+     */
+    synchronized boolean estaLibre(LocalDate inicio, LocalDate fin) {
+        Map.Entry<LocalDate, Reserva> anterior = reservas.lowerEntry(fin);
+        return anterior == null || !anterior.getValue().getFechaFin().isAfter(inicio);
+    }
+
+    /**
+     * Comprueba si ninguna reserva ocupa una noche a partir de un día.
+     *
+     * @param dia El primer día consultado.
+     * @return {@code true} si todas las reservas terminan ese día o antes, {@code false} en caso contrario.
+     */
+    synchronized boolean estaLibreDesde(LocalDate dia) {
+        return reservas.isEmpty() || !reservas.lastEntry().getValue().getFechaFin().isAfter(dia);
+    }
+
+    /**
+     * Añade una reserva al calendario si su intervalo está libre.
+     *
+     * @param reserva La reserva a añadir.
+     * @return {@code true} si se ha añadido, {@code false} si se solapa con otra reserva.
+     */
+    boolean anadir(Reserva reserva) {
+        return anadir(reserva.getFechaInicio(), reserva.getFechaFin(), () -> reserva) != null;
+    }
+
+    /**
+     * Ocupa el intervalo {@code [inicio, fin)} si está libre y solo entonces crea la reserva que
+     * lo ocupa, sin soltar el calendario entre la comprobación y la creación.
+     *
+     * @param inicio Fecha de entrada (incluida).
+     * @param fin Fecha de salida (excluida).
+     * @param fabrica Crea la reserva, que debe tener esas mismas fechas.
+     * @return La reserva añadida, o null si el intervalo se solapa con otra reserva.
+     */
+    synchronized Reserva anadir(LocalDate inicio, LocalDate fin, Supplier<Reserva> fabrica) {
+        if (!estaLibre(inicio, fin)) {
+            return null;
+        }
+        Reserva reserva = fabrica.get();
+        reservas.put(inicio, reserva);
+        return reserva;
+    }
+
+    /**
+     * Retira una reserva del calendario, dejando libres sus fechas.
+     *
+     * @param reserva La reserva a retirar.
+     * @return {@code true} si la reserva estaba en el calendario, {@code false} en caso contrario.
+     */
+    synchronized boolean eliminar(Reserva reserva) {
+        return reservas.remove(reserva.getFechaInicio(), reserva);
+    }
+
+    /**
+     * Obtiene el número de reservas del calendario.
+     *
+     * @return El número de reservas.
+     */
+    synchronized int tamano() {
+        return reservas.size();
+    }
+
+    /**
+     * Obtiene las reservas del calendario ordenadas por fecha de inicio.
+     *
+     * @return Una copia de las reservas en orden cronológico.
+     */
+    synchronized List<Reserva> getReservas() {
+        return new ArrayList<>(reservas.values());
+    }
+
+    /**
+     * Obtiene, en orden cronológico, las reservas que empiezan después de una fecha.
+     *
+     * @param fecha La fecha de inicio de la última reserva ya obtenida, o null para empezar por la primera.
+     * @param maximo El número máximo de reservas a obtener.
+     * @return Una copia de como mucho {@code maximo} reservas.
+     */
+    synchronized List<Reserva> getReservasDespuesDe(LocalDate fecha, int maximo) {
+        Map<LocalDate, Reserva> siguientes = fecha == null ? reservas : reservas.tailMap(fecha, false);
+        List<Reserva> resultado = new ArrayList<>(Math.min(maximo, siguientes.size()));
+        for (Reserva reserva : siguientes.values()) {
+            if (resultado.size() == maximo) {
+                break;
+            }
+            resultado.add(reserva);
+        }
+        return resultado;
+    }
+}
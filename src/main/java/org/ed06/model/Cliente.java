@@ -8,8 +8,12 @@ package org.ed06.model;
  * introducidos para garantizar la integridad de la información.</p>
  *
  * <p>La validación se realiza para garantizar que el nombre tenga al menos 3 caracteres,
- * el DNI siga el formato adecuado (8 dígitos seguidos de una letra) y que el email
- * tenga un formato válido.</p>
+ * el DNI siga el formato adecuado (8 dígitos seguidos de su letra de control) y que el email
+ * tenga un formato válido. Las comprobaciones las realiza {@link ValidadorCliente}.</p>
+ *
+ * <p>Una vez registrado en un hotel, el DNI y el email del cliente son únicos en él: cambiarlos
+ * actualiza los índices del hotel y se rechaza si otro cliente ya usa el nuevo valor. Cambiar el
+ * nombre actualiza también el índice de búsqueda por nombre.</p>
  *
  * @author Miguel Vigo
  */
@@ -30,6 +34,9 @@ public class Cliente {
     /** Indica si el cliente es VIP */
     private boolean esVip;
 
+    /** Índices del hotel en el que está registrado el cliente, o null si aún no lo está */
+    private IndiceClientes indice;
+
     /**
      * Constructor que inicializa un cliente con los datos proporcionados.
      *
@@ -80,8 +87,11 @@ public class Cliente {
      * @param nombre Nombre del cliente.
      * @throws IllegalArgumentException Si el nombre es inválido (menos de 3 caracteres).
      */
-    public void setNombre(String nombre) {
+    public synchronized void setNombre(String nombre) {
         validarNombre(nombre);
+        if (indice != null) {
+            indice.cambiarNombre(this, nombre);
+        }
         this.nombre = nombre;
     }
 
@@ -98,10 +108,14 @@ public class Cliente {
      * Establece el DNI del cliente después de validarlo.
      *
      * @param dni DNI del cliente.
-     * @throws IllegalArgumentException Si el DNI no sigue el formato válido (8 números seguidos de una letra).
+     * @throws IllegalArgumentException Si el DNI no sigue el formato válido (8 números seguidos de su letra)
+     *                                  o ya lo tiene otro cliente del hotel.
      */
-    public void setDni(String dni) {
+    public synchronized void setDni(String dni) {
         validarDni(dni);
+        if (indice != null) {
+            comprobar(indice.cambiarDni(this, this.dni, dni));
+        }
         this.dni = dni;
     }
 
@@ -118,10 +132,13 @@ public class Cliente {
      * Establece el email del cliente después de validarlo.
      *
      * @param email Email del cliente.
-     * @throws IllegalArgumentException Si el email no es válido.
+     * @throws IllegalArgumentException Si el email no es válido o ya lo tiene otro cliente del hotel.
      */
-    public void setEmail(String email) {
+    public synchronized void setEmail(String email) {
         validarEmail(email);
+        if (indice != null) {
+            comprobar(indice.cambiarEmail(this, this.email, email));
+        }
         this.email = email;
     }
 
@@ -134,6 +151,16 @@ public class Cliente {
         this.esVip = esVip;
     }
 
+    /**
+     * Asocia el cliente a los índices del hotel en el que se ha registrado, que se actualizarán a
+     * partir de ahora cada vez que cambie su nombre, su DNI o su email.
+     *
+     * @param indice Los índices del hotel, en los que el cliente ya está.
+     */
+    synchronized void setIndice(IndiceClientes indice) {
+        this.indice = indice;
+    }
+
     /**
      * Valida que el nombre sea correcto, con al menos 3 caracteres.
      *
@@ -141,9 +168,7 @@ public class Cliente {
      * @throws IllegalArgumentException Si el nombre es inválido.
      */
     private void validarNombre(String nombre) {
-        if (nombre == null || nombre.trim().length() < 3) {
-            throw new IllegalArgumentException("El nombre debe tener al menos 3 caracteres");
-        }
+        comprobar(ValidadorCliente.validarNombre(nombre));
     }
 
     /**
@@ -153,20 +178,28 @@ public class Cliente {
      * @throws IllegalArgumentException Si el email no sigue el formato adecuado.
      */
     private void validarEmail(String email) {
-        if (email == null || !email.matches("^[A-Za-z0-9+_.-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$")) {
-            throw new IllegalArgumentException("El email debe tener un formato válido (ejemplo@dominio.com)");
-        }
+        comprobar(ValidadorCliente.validarEmail(email));
     }
 
     /**
-     * Valida que el DNI siga el formato adecuado (8 dígitos seguidos de una letra).
+     * Valida que el DNI siga el formato adecuado (8 dígitos seguidos de su letra de control).
      *
      * @param dni DNI a validar.
-     * @throws IllegalArgumentException Si el DNI no sigue el formato válido.
+     * @throws IllegalArgumentException Si el DNI no sigue el formato válido o la letra no es correcta.
      */
     private void validarDni(String dni) {
-        if (dni == null || !dni.matches("^[0-9]{8}[A-Z]$")) {
-            throw new IllegalArgumentException("El DNI debe tener 8 números seguidos de una letra mayúscula");
+        comprobar(ValidadorCliente.validarDni(dni));
+    }
+
+    /**
+     * Lanza una excepción con el mensaje del resultado si este no es válido.
+     *
+     * @param resultado Resultado de la validación.
+     * @throws IllegalArgumentException Si el resultado no es válido.
+     */
+    private void comprobar(ResultadoValidacion resultado) {
+        if (!resultado.esValido()) {
+            throw new IllegalArgumentException(resultado.getMensaje());
         }
     }
 
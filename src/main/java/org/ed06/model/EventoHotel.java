@@ -0,0 +1,241 @@
+package org.ed06.model;
+
+import java.time.LocalDate;
+
+/**
+ * Evento de dominio que el {@link Hotel} publica en su bus de eventos.
+ *
+ * <p>A diferencia de los avisos a un {@link ObservadorHotel}, los eventos se entregan de forma
+ * asíncrona, desde el hilo de cada suscriptor, por lo que llevan copiados los datos que describen
+ * y no dependen del estado posterior del hotel. Sirven para mostrar mensajes o alimentar
+ * procesos que no deben retrasar las operaciones, como la consola.</p>
+ */
+public abstract class EventoHotel {
+
+    private EventoHotel() {
+    }
+
+    /**
+     * Motivo por el que se ha rechazado una reserva, con su código de error.
+     */
+    public enum MotivoRechazo {
+        /** No quedan habitaciones libres en las fechas pedidas */
+        SIN_DISPONIBILIDAD(-1),
+
+        /** La fecha de entrada no es anterior a la de salida */
+        FECHAS_NO_VALIDAS(-2),
+
+        /** No existe el cliente */
+        CLIENTE_INEXISTENTE(-3),
+
+        /** El hotel no tiene habitaciones o no existe la habitación pedida */
+        SIN_HABITACION(-4);
+
+        private final int codigo;
+
+        MotivoRechazo(int codigo) {
+            this.codigo = codigo;
+        }
+
+        /**
+         * Obtiene el código de error que devuelven las reservas rechazadas por este motivo.
+         *
+         * @return El código de error, negativo.
+         */
+        public int getCodigo() {
+            return codigo;
+        }
+
+        /**
+         * Obtiene el motivo correspondiente a un código de error.
+         *
+         * @param codigo El código de error, entre -4 y -1.
+         * @return El motivo.
+         * @throws IllegalArgumentException Si el código no corresponde a ningún motivo.
+         */
+        public static MotivoRechazo deCodigo(int codigo) {
+            if (codigo < -4 || codigo > -1) {
+                throw new IllegalArgumentException("Código de error desconocido: " + codigo);
+            }
+            return values()[-codigo - 1];
+        }
+    }
+
+    /**
+     * Una reserva se ha realizado.
+     */
+    public static final class ReservaRealizada extends EventoHotel {
+        private final Reserva reserva;
+
+        ReservaRealizada(Reserva reserva) {
+            this.reserva = reserva;
+        }
+
+        /**
+         * Obtiene la reserva realizada.
+         *
+         * @return La reserva.
+         */
+        public Reserva getReserva() {
+            return reserva;
+        }
+    }
+
+    /**
+     * Una reserva se ha rechazado.
+     */
+    public static final class ReservaRechazada extends EventoHotel {
+        private final int clienteId;
+        private final Habitacion.RoomType tipo;
+        private final int numeroHabitacion;
+        private final LocalDate fechaEntrada;
+        private final LocalDate fechaSalida;
+        private final MotivoRechazo motivo;
+
+        ReservaRechazada(int clienteId, Habitacion.RoomType tipo, int numeroHabitacion, LocalDate fechaEntrada,
+                         LocalDate fechaSalida, MotivoRechazo motivo) {
+            this.clienteId = clienteId;
+            this.tipo = tipo;
+            this.numeroHabitacion = numeroHabitacion;
+            this.fechaEntrada = fechaEntrada;
+            this.fechaSalida = fechaSalida;
+            this.motivo = motivo;
+        }
+
+        /**
+         * Obtiene el ID del cliente que pedía la reserva.
+         *
+         * @return El ID del cliente.
+         */
+        public int getClienteId() {
+            return clienteId;
+        }
+
+        /**
+         * Obtiene el tipo de habitación pedido.
+         *
+         * @return El tipo de habitación, o {@code null} si se pedía una habitación concreta.
+         */
+        public Habitacion.RoomType getTipo() {
+            return tipo;
+        }
+
+        /**
+         * Obtiene el número de la habitación pedida.
+         *
+         * @return El número de la habitación, o 0 si se pedía un tipo de habitación.
+         */
+        public int getNumeroHabitacion() {
+            return numeroHabitacion;
+        }
+
+        /**
+         * Obtiene la fecha de entrada pedida.
+         *
+         * @return La fecha de entrada.
+         */
+        public LocalDate getFechaEntrada() {
+            return fechaEntrada;
+        }
+
+        /**
+         * Obtiene la fecha de salida pedida.
+         *
+         * @return La fecha de salida.
+         */
+        public LocalDate getFechaSalida() {
+            return fechaSalida;
+        }
+
+        /**
+         * Obtiene el motivo del rechazo.
+         *
+         * @return El motivo.
+         */
+        public MotivoRechazo getMotivo() {
+            return motivo;
+        }
+    }
+
+    /**
+     * Una reserva se ha cancelado.
+     */
+    public static final class ReservaCancelada extends EventoHotel {
+        private final int reservaId;
+
+        ReservaCancelada(int reservaId) {
+            this.reservaId = reservaId;
+        }
+
+        /**
+         * Obtiene el ID de la reserva cancelada.
+         *
+         * @return El ID de la reserva.
+         */
+        public int getReservaId() {
+            return reservaId;
+        }
+    }
+
+    /**
+     * Se ha pedido cancelar una reserva que no existe o ya estaba cancelada.
+     */
+    public static final class CancelacionRechazada extends EventoHotel {
+        private final int reservaId;
+
+        CancelacionRechazada(int reservaId) {
+            this.reservaId = reservaId;
+        }
+
+        /**
+         * Obtiene el ID de la reserva pedida.
+         *
+         * @return El ID de la reserva.
+         */
+        public int getReservaId() {
+            return reservaId;
+        }
+    }
+
+    /**
+     * Un cliente ha pasado a ser VIP por sus reservas recientes o ha dejado de serlo.
+     */
+    public static final class EstadoVipCambiado extends EventoHotel {
+        private final int clienteId;
+        private final String nombre;
+        private final boolean vip;
+
+        EstadoVipCambiado(Cliente cliente) {
+            this.clienteId = cliente.getId();
+            this.nombre = cliente.getNombre();
+            this.vip = cliente.isVip();
+        }
+
+        /**
+         * Obtiene el ID del cliente.
+         *
+         * @return El ID del cliente.
+         */
+        public int getClienteId() {
+            return clienteId;
+        }
+
+        /**
+         * Obtiene el nombre del cliente en el momento del cambio.
+         *
+         * @return El nombre del cliente.
+         */
+        public String getNombre() {
+            return nombre;
+        }
+
+        /**
+         * Indica si el cliente ha pasado a ser VIP o ha dejado de serlo.
+         *
+         * @return {@code true} si ha pasado a ser VIP.
+         */
+        public boolean isVip() {
+            return vip;
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package org.ed06.model;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+
 /**
  * Clase que representa una habitación en el hotel.
  *
- * <p>Una habitación tiene un número, un tipo, un precio base y un estado de disponibilidad.
+ * <p>Una habitación tiene un número, un tipo, un precio base y un calendario de reservas.
  * Los tipos de habitación están definidos en el enum {@link RoomType}, y la disponibilidad
- * de la habitación puede cambiar a medida que se realizan reservas.</p>
+ * de la habitación se calcula para cada rango de fechas a partir de su calendario.</p>
  *
  * @author Miguel Vigo
  */
@@ -20,8 +24,8 @@ public class Habitacion {
     /** Precio base de la habitación */
     private double precioBase;
 
-    /** Indica si la habitación está disponible o no */
-    private boolean disponible;
+    /** Reservas de la habitación, indexadas por intervalo de fechas */
+    private final CalendarioReservas calendario = new CalendarioReservas();
 
     /**
      * Enum que representa los diferentes tipos de habitaciones disponibles.
@@ -73,7 +77,6 @@ public class Habitacion {
         this.numero = numero;
         this.tipo = tipo;
         this.precioBase = precioBase;
-        this.disponible = true;  // La habitación está disponible al principio
     }
 
     /**
@@ -104,12 +107,53 @@ public class Habitacion {
     }
 
     /**
-     * Verifica si la habitación está disponible para reserva.
+     * Obtiene el precio base de la habitación en céntimos.
+     *
+     * @return El precio base redondeado al céntimo más cercano.
+     */
+    public long getPrecioBaseCentimos() {
+        return Math.round(precioBase * 100);
+    }
+
+    /**
+     * Verifica si la habitación está ocupada la noche de un día.
      *
+     * @param dia El día de la noche consultada.
+     * @return {@code true} si alguna reserva ocupa esa noche, {@code false} en caso contrario.
+     */
+    public boolean estaOcupada(LocalDate dia) {
+        return !estaDisponible(dia, dia.plusDays(1));
+    }
+
+    /**
+     * Verifica si la habitación está disponible para la noche de hoy.
+     *
+     * @param hoy El día actual, según el reloj del hotel.
      * @return {@code true} si la habitación está disponible, {@code false} en caso contrario.
      */
-    public boolean isDisponible() {
-        return disponible;
+    public boolean isDisponible(LocalDate hoy) {
+        return estaDisponible(hoy, hoy.plusDays(1));
+    }
+
+    /**
+     * Verifica si la habitación está libre entre dos fechas.
+     *
+     * @param fechaEntrada Fecha de entrada (incluida).
+     * @param fechaSalida Fecha de salida (excluida).
+     * @return {@code true} si ninguna reserva se solapa con el rango, {@code false} en caso contrario.
+     */
+    public boolean estaDisponible(LocalDate fechaEntrada, LocalDate fechaSalida) {
+        return calendario.estaLibre(fechaEntrada, fechaSalida);
+    }
+
+    /**
+     * Verifica si la habitación no tiene ninguna reserva pendiente a partir de un día.
+     *
+     * @param dia El primer día consultado.
+     * @return {@code true} si todas sus reservas terminan ese día o antes, {@code false} en caso contrario.
+     */
+    public boolean estaLibreDesde(LocalDate dia) {
+        return calendario.estaLibreDesde(dia);
     }
 
     /**
@@ -122,14 +166,73 @@ public class Habitacion {
     }
 
     /**
-     * Realiza una reserva de la habitación, marcándola como no disponible.
-     * Si la habitación ya está reservada, se muestra un mensaje de error.
+     * Realiza una reserva de la habitación, ocupando las fechas de la reserva en su calendario.
+     * <p>
+     * Solo la usa {@link IndiceHabitaciones}, que mantiene al día sus índices con cada reserva.
+     * </p>
+     *
+     * @param reserva La reserva a registrar en la habitación.
+     * @return {@code true} si la reserva se ha registrado, {@code false} si las fechas estaban ocupadas.
      */
-    public void reservar() {
-        if (!disponible) {
-            System.out.println("Habitación #" + numero + " ya reservada");
-            return;
-        }
-        disponible = false;  // La habitación ya no está disponible
+    boolean reservar(Reserva reserva) {
+        return calendario.anadir(reserva);
+    }
+
+    /**
+     * Ocupa unas fechas de la habitación si están libres y solo entonces crea la reserva.
+     * <p>
+     * Solo la usa {@link IndiceHabitaciones}, para no crear reservas de habitaciones que otro hilo
+     * acaba de ocupar.
+     * </p>
+     *
+     * @param fechaEntrada La fecha de entrada.
+     * @param fechaSalida La fecha de salida.
+     * @param fabrica Función que crea la reserva de estas fechas para la habitación.
+     * @return La reserva registrada, o null si las fechas estaban ocupadas.
+     */
+    Reserva reservar(LocalDate fechaEntrada, LocalDate fechaSalida, Function<Habitacion, Reserva> fabrica) {
+        return calendario.anadir(fechaEntrada, fechaSalida, () -> fabrica.apply(this));
+    }
+
+    /**
+     * Cancela una reserva de la habitación, liberando sus fechas.
+     * <p>
+     * Solo la usa {@link IndiceHabitaciones}; las cancelaciones pasan por {@link Hotel#cancelarReserva(int)}.
+     * </p>
+     *
+     * @param reserva La reserva a cancelar.
+     * @return {@code true} si la reserva se ha cancelado, {@code false} si no era de esta habitación.
+     */
+    boolean cancelar(Reserva reserva) {
+        return calendario.eliminar(reserva);
+    }
+
+    /**
+     * Obtiene el número de reservas registradas en la habitación.
+     *
+     * @return El número de reservas.
+     */
+    public int getNumReservas() {
+        return calendario.tamano();
+    }
+
+    /**
+     * Obtiene las reservas de la habitación ordenadas por fecha de entrada.
+     *
+     * @return Lista con las reservas de la habitación.
+     */
+    public List<Reserva> getReservas() {
+        return calendario.getReservas();
+    }
+
+    /**
+     * Obtiene, en orden cronológico, las reservas de la habitación que empiezan después de una fecha.
+     *
+     * @param fecha La fecha de inicio de la última reserva ya obtenida, o null para empezar por la primera.
+     * @param maximo El número máximo de reservas a obtener.
+     * @return Lista con como mucho {@code maximo} reservas.
+     */
+    public List<Reserva> getReservasDespuesDe(LocalDate fecha, int maximo) {
+        return calendario.getReservasDespuesDe(fecha, maximo);
     }
 }
@@ -0,0 +1,131 @@
+package org.ed06.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias que admite registros concurrentes sin cerrojos ni reservas de memoria.
+ *
+ * <p>Los valores menores que {@code 2 * SUBCUBETAS} nanosegundos se cuentan exactos y cada
+ * potencia de dos posterior se divide en {@link #SUBCUBETAS} cubetas del mismo ancho, por lo que
+ * los percentiles tienen un error relativo menor del 3 %. Los valores por encima de
+ * {@link #MAXIMO_NANOS} se cuentan en la última cubeta.</p>
+ */
+class HistogramaConcurrente {
+    /** Cubetas por cada potencia de dos; debe ser una potencia de dos */
+    static final int SUBCUBETAS = 32;
+
+    /** Mayor valor que se distingue, unos 18 minutos */
+    static final long MAXIMO_NANOS = (1L << 40) - 1;
+
+    private static final int BITS_SUBCUBETA = Integer.numberOfTrailingZeros(SUBCUBETAS);
+
+    private final AtomicLongArray cuentas = new AtomicLongArray(indice(MAXIMO_NANOS) + 1);
+    private final LongAdder suma = new LongAdder();
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra un valor.
+     *
+     * @param nanos El valor, en nanosegundos.
+     */
+    void registrar(long nanos) {
+        long valor = Math.min(Math.max(nanos, 0), MAXIMO_NANOS);
+        cuentas.incrementAndGet(indice(valor));
+        suma.add(valor);
+        long actual;
+        while (valor > (actual = maximo.get()) && !maximo.compareAndSet(actual, valor)) {
+            // Otro hilo ha cambiado el máximo; se vuelve a comparar
+        }
+    }
+
+    /**
+     * Obtiene el número de valores registrados.
+     *
+     * @return El número de valores.
+     */
+    long getTotal() {
+        long total = 0;
+        for (int i = 0; i < cuentas.length(); i++) {
+            total += cuentas.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Obtiene la media de los valores registrados.
+     *
+     * @return La media en nanosegundos, o 0 si no hay valores.
+     */
+    double getMedia() {
+        long total = getTotal();
+        return total == 0 ? 0 : (double) suma.sum() / total;
+    }
+
+    /**
+     * Obtiene el mayor valor registrado.
+     *
+     * @return El máximo en nanosegundos, o 0 si no hay valores.
+     */
+    long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Obtiene el valor por debajo del cual queda un porcentaje de los valores registrados.
+     * <p>
+     * Los registros concurrentes con la consulta pueden contarse o no.
+     * </p>
+     *
+     * @param percentil El percentil, entre 0 y 100.
+     * @return El límite superior de la cubeta del percentil en nanosegundos, o 0 si no hay valores.
+     */
+    long percentil(double percentil) {
+        long[] copia = new long[cuentas.length()];
+        long total = 0;
+        for (int i = 0; i < copia.length; i++) {
+            copia[i] = cuentas.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(percentil / 100 * total));
+        long acumulado = 0;
+        for (int i = 0; i < copia.length; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+     * Pone a cero el histograma.
+     */
+    void reiniciar() {
+        for (int i = 0; i < cuentas.length(); i++) {
+            cuentas.set(i, 0);
+        }
+        suma.reset();
+        maximo.set(0);
+    }
+
+    private static int indice(long valor) {
+        if (valor < 2L * SUBCUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUBCUBETA;
+        return SUBCUBETAS * (exponente + 1) + (int) ((valor >>> exponente) - SUBCUBETAS);
+    }
+
+    private static long limiteSuperior(int indice) {
+        if (indice < 2 * SUBCUBETAS) {
+            return indice;
+        }
+        int exponente = indice / SUBCUBETAS - 1;
+        return ((long) (SUBCUBETAS + indice % SUBCUBETAS) << exponente) + (1L << exponente) - 1;
+    }
+}
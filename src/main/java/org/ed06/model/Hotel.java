@@ -1,21 +1,81 @@
 package org.ed06.model;
 
+import org.ed06.eventos.BusEventos;
+import org.ed06.tarifas.MotorPrecios;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Clase que representa un hotel.
  * <p>
  * Gestiona habitaciones, clientes y reservas en un hotel.
  * </p>
+ * <p>
+ * Todas las operaciones se pueden invocar desde varios hilos a la vez. Las reservas bloquean
+ * únicamente la habitación que reclaman, por lo que dos reservas concurrentes nunca obtienen la
+ * misma habitación para fechas solapadas y las reservas de habitaciones distintas no compiten.
+ * </p>
+ * <p>
+ * Un cliente pasa a ser VIP al superar un número de reservas dentro de un periodo, contadas de
+ * forma incremental a medida que reserva. Los clientes promocionados vuelven a su estado normal
+ * cuando sus reservas salen del periodo, al ejecutar {@link #revisarEstadoVip()}.
+ * </p>
+ * <p>
+ * Las entradas y salidas de las reservas se procesan al ejecutar {@link #procesarEstancias()},
+ * que libera las habitaciones cuyas reservas han terminado.
+ * </p>
+ * <p>
+ * El hotel no escribe mensajes en la consola: publica cada reserva realizada o rechazada, cada
+ * cancelación y cada cambio de estado VIP como un {@link EventoHotel} en su bus de eventos
+ * ({@link #getEventos()}), que los entrega de forma asíncrona a sus suscriptores.
+ * </p>
+ * <p>
+ * Los listados e informes largos pueden leer el hotel a través de una {@link VistaHotel}
+ * ({@link #getVista()}), que muestra un estado coherente en un instante sin bloquear las reservas.
+ * </p>
+ * <p>
+ * Las reservas, los registros de clientes, las consultas y los listados se pueden medir con
+ * {@link #activarMetricas()}. Mientras las métricas están desactivadas no suponen ningún coste
+ * apreciable.
+ * </p>
  */
 public class Hotel {
+    /** Número de filas que se piden en cada página al escribir un listado completo */
+    private static final int TAMANO_PAGINA_LISTADO = 500;
+
+    /** Número máximo de huéspedes de una reserva de grupo */
+    public static final int MAXIMO_HUESPEDES_GRUPO = 1000;
+
+    /** Número de veces que se recalcula una reserva de grupo si otra reserva le quita una habitación */
+    private static final int INTENTOS_RESERVA_GRUPO = 3;
+
+    /** Número máximo de eventos pendientes de leer por el suscriptor más lento */
+    private static final int CAPACIDAD_EVENTOS = 8192;
+
     private final String nombre;
     private final String direccion;
     private final String telefono;
     private final GestorHabitaciones gestorHabitaciones;
     private final GestorClientes gestorClientes;
     private final GestorReservas gestorReservas;
+    private final List<ObservadorHotel> observadores = new CopyOnWriteArrayList<>();
+    private final BusEventos<EventoHotel> eventos = new BusEventos<>(CAPACIDAD_EVENTOS);
+    private final AtomicLong versiones = new AtomicLong();
+    private final RegistroVersionado<Habitacion> registroHabitaciones = new RegistroVersionado<>(versiones);
+    private final RegistroVersionado<Cliente> registroClientes = new RegistroVersionado<>(versiones);
+    private final RegistroVersionado<Reserva> registroReservas = new RegistroVersionado<>(versiones);
+    private final Clock reloj;
+    private volatile MetricasHotel metricas;
 
     /**
      * Constructor de la clase Hotel.
@@ -25,12 +85,106 @@ public class Hotel {
      * @param telefono Teléfono de contacto del hotel.
      */
     public Hotel(String nombre, String direccion, String telefono) {
+        this(nombre, direccion, telefono, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructor de la clase Hotel con un reloj concreto.
+     *
+     * @param nombre Nombre del hotel.
+     * @param direccion Dirección del hotel.
+     * @param telefono Teléfono de contacto del hotel.
+     * @param reloj Reloj con el que se fecha cada reserva y se calcula el periodo VIP.
+     */
+    public Hotel(String nombre, String direccion, String telefono, Clock reloj) {
         this.nombre = nombre;
         this.direccion = direccion;
         this.telefono = telefono;
-        this.gestorHabitaciones = new GestorHabitaciones();
-        this.gestorClientes = new GestorClientes();
-        this.gestorReservas = new GestorReservas(gestorHabitaciones);
+        this.reloj = reloj;
+        this.gestorHabitaciones = new GestorHabitaciones(observadores, registroHabitaciones);
+        this.gestorClientes = new GestorClientes(observadores, eventos, registroClientes, reloj);
+        this.gestorReservas = new GestorReservas(gestorHabitaciones, gestorClientes, observadores, eventos,
+                registroReservas, reloj);
+    }
+
+    /**
+     * Obtiene el nombre del hotel.
+     *
+     * @return El nombre del hotel.
+     */
+    public String getNombre() {
+        return nombre;
+    }
+
+    /**
+     * Activa las métricas del hotel, si no lo estaban ya.
+     *
+     * @return Las métricas del hotel.
+     */
+    public synchronized MetricasHotel activarMetricas() {
+        if (metricas == null) {
+            metricas = new MetricasHotel(nombre,
+                    tipo -> gestorHabitaciones.getOcupacion(tipo, LocalDate.now(reloj)));
+        }
+        return metricas;
+    }
+
+    /**
+     * Desactiva las métricas del hotel. Los valores acumulados hasta ahora se descartan.
+     */
+    public synchronized void desactivarMetricas() {
+        metricas = null;
+    }
+
+    /**
+     * Obtiene las métricas del hotel.
+     *
+     * @return Una opción con las métricas si están activadas, o vacía si no.
+     */
+    public Optional<MetricasHotel> getMetricas() {
+        return Optional.ofNullable(metricas);
+    }
+
+    /**
+     * Obtiene una vista del hotel en este instante, sobre la que hacer listados e informes
+     * coherentes sin bloquear las reservas. Es una operación O(1) que no toma ningún cerrojo.
+     *
+     * @return La vista del estado actual del hotel.
+     */
+    public VistaHotel getVista() {
+        return new VistaHotel(versiones, registroHabitaciones, registroClientes, registroReservas);
+    }
+
+    /**
+     * Obtiene el bus en el que el hotel publica sus eventos de dominio.
+     * <p>
+     * Los suscriptores reciben los eventos en su propio hilo, por lo que pueden escribir en la
+     * consola o en disco sin retrasar las reservas. Quien cree los suscriptores debe cerrar el
+     * bus al terminar para que procesen los eventos pendientes.
+     * </p>
+     *
+     * @return El bus de eventos del hotel.
+     */
+    public BusEventos<EventoHotel> getEventos() {
+        return eventos;
+    }
+
+    /**
+     * Añade un observador que será avisado de los cambios de estado del hotel.
+     *
+     * @param observador El observador a añadir.
+     */
+    public void anadirObservador(ObservadorHotel observador) {
+        observadores.add(observador);
+    }
+
+    /**
+     * Elimina un observador del hotel.
+     *
+     * @param observador El observador a eliminar.
+     */
+    public void eliminarObservador(ObservadorHotel observador) {
+        observadores.remove(observador);
     }
 
     /**
@@ -53,11 +207,52 @@ public class Hotel {
         gestorHabitaciones.registrarHabitaciones(tipos, preciosBase);
     }
 
+    /**
+     * Obtiene el número de habitaciones registradas en el hotel.
+     *
+     * @return El número de habitaciones.
+     */
+    public int getNumHabitaciones() {
+        return gestorHabitaciones.getNumHabitaciones();
+    }
+
     /**
      * Muestra las habitaciones disponibles en el hotel.
      */
     public void listarHabitacionesDisponibles() {
-        gestorHabitaciones.listarHabitacionesDisponibles();
+        try {
+            listarHabitacionesDisponibles(System.out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escribe las habitaciones disponibles en el hotel en un destino.
+     *
+     * @param destino El destino del listado.
+     * @throws IOException Si no se puede escribir en el destino.
+     */
+    public void listarHabitacionesDisponibles(Appendable destino) throws IOException {
+        listar(destino, this::getHabitacionesDisponibles, RenderizadorListados::habitaciones);
+    }
+
+    /**
+     * Obtiene una página de las habitaciones disponibles esta noche, en orden de número.
+     *
+     * @param cursor {@link Pagina#INICIO} o el cursor de la página anterior.
+     * @param tamano El número máximo de habitaciones de la página.
+     * @return La página de habitaciones.
+     */
+    public Pagina<Habitacion> getHabitacionesDisponibles(long cursor, int tamano) {
+        MetricasHotel m = metricas;
+        long inicio = m == null ? 0 : System.nanoTime();
+        Pagina<Habitacion> pagina = gestorHabitaciones.getHabitacionesDisponibles(cursor, comprobarTamano(tamano),
+                LocalDate.now(reloj));
+        if (m != null) {
+            m.registrar(MetricasHotel.Operacion.LISTADO, System.nanoTime() - inicio);
+        }
+        return pagina;
     }
 
     /**
@@ -67,7 +262,43 @@ public class Hotel {
      * @return Una opción que contiene la habitación si existe, o vacía si no.
      */
     public Optional<Habitacion> getHabitacion(int numero) {
-        return gestorHabitaciones.getHabitacion(numero);
+        MetricasHotel m = metricas;
+        long inicio = m == null ? 0 : System.nanoTime();
+        Optional<Habitacion> habitacion = gestorHabitaciones.getHabitacion(numero);
+        if (m != null) {
+            m.registrar(MetricasHotel.Operacion.CONSULTA, System.nanoTime() - inicio);
+        }
+        return habitacion;
+    }
+
+    /**
+     * Cambia las reglas con las que se calcula el precio de las nuevas reservas.
+     * <p>
+     * Las reservas ya realizadas conservan su precio.
+     * </p>
+     *
+     * @param motorPrecios El motor de precios a usar.
+     */
+    public void setMotorPrecios(MotorPrecios motorPrecios) {
+        gestorReservas.setMotorPrecios(Objects.requireNonNull(motorPrecios));
+    }
+
+    /**
+     * Calcula el precio que tendría la reserva de una habitación, sin reservarla.
+     *
+     * @param numeroHabitacion El número de la habitación.
+     * @param fechaEntrada La fecha de entrada.
+     * @param fechaSalida La fecha de salida.
+     * @param vip Indica si el cliente es VIP.
+     * @return Una opción con el precio en céntimos, o vacía si la habitación no existe o las fechas
+     *         no forman una estancia válida.
+     */
+    public OptionalLong cotizar(int numeroHabitacion, LocalDate fechaEntrada, LocalDate fechaSalida, boolean vip) {
+        Optional<Habitacion> habitacion = gestorHabitaciones.getHabitacion(numeroHabitacion);
+        if (habitacion.isEmpty() || !fechaEntrada.isBefore(fechaSalida)) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(gestorReservas.calcularPrecio(habitacion.get(), fechaEntrada, fechaSalida, vip));
     }
 
     /**
@@ -80,37 +311,509 @@ public class Hotel {
      * @return El número de la habitación reservada, o un código de error negativo.
      */
     public int reservarHabitacion(int clienteId, Habitacion.RoomType tipo, LocalDate fechaEntrada, LocalDate fechaSalida) {
+        MetricasHotel m = metricas;
+        long inicio = m == null ? 0 : System.nanoTime();
+        int resultado = reservarPorTipo(clienteId, tipo, fechaEntrada, fechaSalida);
+        if (m != null) {
+            m.registrarReserva(resultado, System.nanoTime() - inicio);
+        }
+        if (resultado < 0 && eventos.hayInteresados()) {
+            eventos.publicar(new EventoHotel.ReservaRechazada(clienteId, tipo, 0, fechaEntrada, fechaSalida,
+                    EventoHotel.MotivoRechazo.deCodigo(resultado)));
+        }
+        return resultado;
+    }
+
+    private int reservarPorTipo(int clienteId, Habitacion.RoomType tipo, LocalDate fechaEntrada, LocalDate fechaSalida) {
         if (gestorHabitaciones.estaVacio()) {
-            System.out.println("No hay habitaciones en el hotel");
             return -4;
         }
 
         Cliente cliente = gestorClientes.getCliente(clienteId);
         if (cliente == null) {
-            System.out.println("No existe el cliente con id " + clienteId);
             return -3;
         }
 
         if (!fechaEntrada.isBefore(fechaSalida)) {
-            System.out.println("La fecha de entrada es posterior a la fecha de salida");
             return -2;
         }
 
         return gestorReservas.realizarReserva(cliente, tipo, fechaEntrada, fechaSalida);
     }
 
+    /**
+     * Realiza una reserva de una habitación concreta para un cliente.
+     *
+     * @param clienteId El ID del cliente que realiza la reserva.
+     * @param numeroHabitacion El número de la habitación que se desea reservar.
+     * @param fechaEntrada La fecha de entrada a la habitación.
+     * @param fechaSalida La fecha de salida de la habitación.
+     * @return El número de la habitación reservada, o un código de error negativo.
+     */
+    public int reservarHabitacionConcreta(int clienteId, int numeroHabitacion, LocalDate fechaEntrada,
+                                          LocalDate fechaSalida) {
+        MetricasHotel m = metricas;
+        long inicio = m == null ? 0 : System.nanoTime();
+        int resultado = reservarPorNumero(clienteId, numeroHabitacion, fechaEntrada, fechaSalida);
+        if (m != null) {
+            m.registrarReserva(resultado, System.nanoTime() - inicio);
+        }
+        if (resultado < 0 && eventos.hayInteresados()) {
+            eventos.publicar(new EventoHotel.ReservaRechazada(clienteId, null, numeroHabitacion, fechaEntrada,
+                    fechaSalida, EventoHotel.MotivoRechazo.deCodigo(resultado)));
+        }
+        return resultado;
+    }
+
+    private int reservarPorNumero(int clienteId, int numeroHabitacion, LocalDate fechaEntrada, LocalDate fechaSalida) {
+        Optional<Habitacion> habitacion = gestorHabitaciones.getHabitacion(numeroHabitacion);
+        if (habitacion.isEmpty()) {
+            return -4;
+        }
+
+        Cliente cliente = gestorClientes.getCliente(clienteId);
+        if (cliente == null) {
+            return -3;
+        }
+
+        if (!fechaEntrada.isBefore(fechaSalida)) {
+            return -2;
+        }
+
+        return gestorReservas.realizarReserva(cliente, habitacion.get(), fechaEntrada, fechaSalida);
+    }
+
+    /**
+     * Reserva para un grupo la combinación de habitaciones libres más barata en la que caben todos
+     * sus huéspedes, según el número máximo de huéspedes de cada tipo de habitación.
+     * <p>
+     * Las habitaciones libres más baratas de cada tipo se buscan recorriendo las habitaciones del
+     * tipo, y con ellas {@link OptimizadorGrupos} calcula la combinación en un tiempo que solo
+     * depende del número de huéspedes. La reserva es atómica: o se reservan todas las habitaciones o ninguna, y los
+     * observadores solo se avisan cuando todas están reservadas. Si una reserva concurrente ocupa
+     * alguna de las habitaciones elegidas, se liberan las ya tomadas y se vuelve a calcular.
+     * </p>
+     *
+     * @param clienteId El ID del cliente que realiza la reserva.
+     * @param numHuespedes El número de huéspedes del grupo.
+     * @param fechaEntrada La fecha de entrada.
+     * @param fechaSalida La fecha de salida.
+     * @return Una opción con las reservas del grupo, o vacía si el cliente no existe, las fechas
+     *         no son válidas o no quedan habitaciones libres para todo el grupo.
+     * @throws IllegalArgumentException Si el número de huéspedes no está entre 1 y
+     *                                  {@link #MAXIMO_HUESPEDES_GRUPO}.
+     */
+    public Optional<ReservaGrupo> reservarGrupo(int clienteId, int numHuespedes, LocalDate fechaEntrada,
+                                                LocalDate fechaSalida) {
+        if (numHuespedes < 1 || numHuespedes > MAXIMO_HUESPEDES_GRUPO) {
+            throw new IllegalArgumentException("El número de huéspedes debe estar entre 1 y "
+                    + MAXIMO_HUESPEDES_GRUPO);
+        }
+        Cliente cliente = gestorClientes.getCliente(clienteId);
+        if (cliente == null || !fechaEntrada.isBefore(fechaSalida)) {
+            return Optional.empty();
+        }
+
+        Habitacion.RoomType[] tipos = Habitacion.RoomType.values();
+        for (int intento = 0; intento < INTENTOS_RESERVA_GRUPO; intento++) {
+            List<List<Habitacion>> libres = new ArrayList<>(tipos.length);
+            long[][] precios = new long[tipos.length][];
+            int[] plazas = new int[tipos.length];
+            for (int t = 0; t < tipos.length; t++) {
+                plazas[t] = tipos[t].getMaxGuests();
+                List<Habitacion> habitaciones = gestorHabitaciones.getHabitacionesLibres(tipos[t],
+                        fechaEntrada, fechaSalida, OptimizadorGrupos.maximoUtil(numHuespedes, plazas[t]));
+                libres.add(habitaciones);
+                precios[t] = new long[habitaciones.size()];
+                for (int i = 0; i < habitaciones.size(); i++) {
+                    precios[t][i] = gestorReservas.calcularPrecio(habitaciones.get(i), fechaEntrada,
+                            fechaSalida, cliente.isVip());
+                }
+            }
+
+            int[] elegidas = OptimizadorGrupos.resolver(precios, plazas, numHuespedes);
+            if (elegidas == null) {
+                return Optional.empty();
+            }
+            List<Habitacion> habitaciones = new ArrayList<>();
+            for (int t = 0; t < tipos.length; t++) {
+                habitaciones.addAll(libres.get(t).subList(0, elegidas[t]));
+            }
+            List<Reserva> reservas = gestorReservas.realizarReservaGrupo(cliente, habitaciones,
+                    fechaEntrada, fechaSalida);
+            if (reservas != null) {
+                return Optional.of(new ReservaGrupo(reservas, numHuespedes));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Busca las habitaciones más baratas de un tipo que estén libres entre dos fechas.
+     * <p>
+     * Como el precio de una estancia crece con el precio base de la habitación, las más baratas
+     * por precio base son también las de menor precio para la estancia.
+     * </p>
+     *
+     * @param tipo El tipo de habitación.
+     * @param fechaEntrada La fecha de entrada.
+     * @param fechaSalida La fecha de salida.
+     * @param maximo El número máximo de habitaciones a devolver.
+     * @return Las habitaciones libres ordenadas de menor a mayor precio base.
+     * @throws IllegalArgumentException Si el máximo no es positivo.
+     */
+    public List<Habitacion> getHabitacionesLibres(Habitacion.RoomType tipo, LocalDate fechaEntrada,
+                                                  LocalDate fechaSalida, int maximo) {
+        if (maximo < 1) {
+            throw new IllegalArgumentException("El número máximo de habitaciones debe ser positivo");
+        }
+        if (!fechaEntrada.isBefore(fechaSalida)) {
+            return new ArrayList<>();
+        }
+        return gestorHabitaciones.getHabitacionesLibres(tipo, fechaEntrada, fechaSalida, maximo);
+    }
+
+    /**
+     * Cuenta las habitaciones de un tipo libres la noche de un día, en O(log días).
+     *
+     * @param tipo El tipo de habitación.
+     * @param dia El día de la noche consultada.
+     * @return El número de habitaciones del tipo sin reserva esa noche.
+     */
+    public int contarHabitacionesLibres(Habitacion.RoomType tipo, LocalDate dia) {
+        return gestorHabitaciones.contarLibres(tipo, dia);
+    }
+
+    /**
+     * Cuenta las habitaciones de un tipo libres cada noche entre dos fechas.
+     *
+     * @param tipo El tipo de habitación.
+     * @param desde El primer día.
+     * @param hasta El día siguiente a la última noche.
+     * @return Para cada noche del rango, en orden, el número de habitaciones libres; vacío si el
+     *         rango está vacío.
+     */
+    public int[] contarHabitacionesLibresPorNoche(Habitacion.RoomType tipo, LocalDate desde, LocalDate hasta) {
+        int noches = (int) Math.max(hasta.toEpochDay() - desde.toEpochDay(), 0);
+        int[] libres = new int[noches];
+        for (int i = 0; i < noches; i++) {
+            libres[i] = gestorHabitaciones.contarLibres(tipo, desde.plusDays(i));
+        }
+        return libres;
+    }
+
+    /**
+     * Cuenta las noches-habitación de un tipo libres entre dos fechas, en O(log días).
+     *
+     * @param tipo El tipo de habitación.
+     * @param desde El primer día.
+     * @param hasta El día siguiente a la última noche.
+     * @return La suma, para cada noche del rango, de las habitaciones libres esa noche.
+     */
+    public long contarNochesLibres(Habitacion.RoomType tipo, LocalDate desde, LocalDate hasta) {
+        return gestorHabitaciones.contarNochesLibres(tipo, desde, hasta);
+    }
+
+    /**
+     * Obtiene el menor número de habitaciones de un tipo libres en una misma noche entre dos
+     * fechas, en O(log días).
+     * <p>
+     * Es una cota superior de las habitaciones que se pueden reservar para toda la estancia: si
+     * es 0, ninguna reserva de esas fechas puede tener éxito.
+     * </p>
+     *
+     * @param tipo El tipo de habitación.
+     * @param desde El primer día.
+     * @param hasta El día siguiente a la última noche.
+     * @return El número de habitaciones libres la noche más ocupada del rango, o el total de
+     *         habitaciones del tipo si el rango está vacío.
+     */
+    public int getMinimoHabitacionesLibres(Habitacion.RoomType tipo, LocalDate desde, LocalDate hasta) {
+        return gestorHabitaciones.getMinimoLibres(tipo, desde, hasta);
+    }
+
+    /**
+     * Obtiene una reserva según su ID.
+     *
+     * @param id El ID de la reserva.
+     * @return Una opción que contiene la reserva si existe y no está cancelada, o vacía si no.
+     */
+    public Optional<Reserva> getReserva(int id) {
+        MetricasHotel m = metricas;
+        long inicio = m == null ? 0 : System.nanoTime();
+        Optional<Reserva> reserva = gestorReservas.getReserva(id);
+        if (m != null) {
+            m.registrar(MetricasHotel.Operacion.CONSULTA, System.nanoTime() - inicio);
+        }
+        return reserva;
+    }
+
+    /**
+     * Cancela una reserva, dejando libres sus fechas en la habitación.
+     *
+     * @param id El ID de la reserva.
+     * @return true si se ha cancelado, false si no existe ninguna reserva con ese ID.
+     */
+    public boolean cancelarReserva(int id) {
+        if (!gestorReservas.cancelarReserva(id, true)) {
+            if (eventos.hayInteresados()) {
+                eventos.publicar(new EventoHotel.CancelacionRechazada(id));
+            }
+            return false;
+        }
+        if (eventos.hayInteresados()) {
+            eventos.publicar(new EventoHotel.ReservaCancelada(id));
+        }
+        return true;
+    }
+
     /**
      * Muestra todas las reservas realizadas en el hotel.
      */
     public void listarReservas() {
-        gestorReservas.listarReservas();
+        try {
+            listarReservas(System.out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escribe todas las reservas realizadas en el hotel en un destino, agrupadas por habitación.
+     *
+     * @param destino El destino del listado.
+     * @throws IOException Si no se puede escribir en el destino.
+     */
+    public void listarReservas(Appendable destino) throws IOException {
+        listar(destino, this::getReservas, RenderizadorListados::reservas);
+    }
+
+    /**
+     * Obtiene una página de las reservas del hotel, ordenadas por habitación y fecha de entrada.
+     *
+     * @param cursor {@link Pagina#INICIO} o el cursor de la página anterior.
+     * @param tamano El número máximo de reservas de la página.
+     * @return La página de reservas.
+     */
+    public Pagina<Reserva> getReservas(long cursor, int tamano) {
+        MetricasHotel m = metricas;
+        long inicio = m == null ? 0 : System.nanoTime();
+        Pagina<Reserva> pagina = gestorReservas.getReservas(cursor, comprobarTamano(tamano));
+        if (m != null) {
+            m.registrar(MetricasHotel.Operacion.LISTADO, System.nanoTime() - inicio);
+        }
+        return pagina;
+    }
+
+    /**
+     * Obtiene todas las reservas de un cliente.
+     *
+     * @param clienteId El ID del cliente.
+     * @return Lista de reservas del cliente ordenadas por fecha de entrada, vacía si no tiene.
+     */
+    public List<Reserva> getReservasCliente(int clienteId) {
+        return gestorReservas.getReservasCliente(clienteId);
+    }
+
+    /**
+     * Obtiene el historial de un cliente: las reservas cuya fecha de entrada ya ha llegado,
+     * incluidas las estancias en curso.
+     *
+     * @param clienteId El ID del cliente.
+     * @return Lista de reservas ordenadas por fecha de entrada, vacía si no tiene.
+     */
+    public List<Reserva> getHistorialCliente(int clienteId) {
+        return gestorReservas.getHistorialCliente(clienteId);
+    }
+
+    /**
+     * Obtiene las próximas estancias de un cliente: las reservas con fecha de entrada posterior a hoy.
+     *
+     * @param clienteId El ID del cliente.
+     * @return Lista de reservas ordenadas por fecha de entrada, vacía si no tiene.
+     */
+    public List<Reserva> getProximasReservasCliente(int clienteId) {
+        return gestorReservas.getProximasReservasCliente(clienteId);
     }
 
     /**
      * Muestra todos los clientes registrados en el hotel.
      */
     public void listarClientes() {
-        gestorClientes.listarClientes();
+        try {
+            listarClientes(System.out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Escribe todos los clientes registrados en el hotel en un destino.
+     *
+     * @param destino El destino del listado.
+     * @throws IOException Si no se puede escribir en el destino.
+     */
+    public void listarClientes(Appendable destino) throws IOException {
+        listar(destino, this::getClientes, RenderizadorListados::clientes);
+    }
+
+    /**
+     * Obtiene una página de los clientes del hotel, en orden de ID.
+     *
+     * @param cursor {@link Pagina#INICIO} o el cursor de la página anterior.
+     * @param tamano El número máximo de clientes de la página.
+     * @return La página de clientes.
+     */
+    public Pagina<Cliente> getClientes(long cursor, int tamano) {
+        MetricasHotel m = metricas;
+        long inicio = m == null ? 0 : System.nanoTime();
+        Pagina<Cliente> pagina = gestorClientes.getClientes(cursor, comprobarTamano(tamano));
+        if (m != null) {
+            m.registrar(MetricasHotel.Operacion.LISTADO, System.nanoTime() - inicio);
+        }
+        return pagina;
+    }
+
+    /**
+     * Escribe un listado completo en un destino, página a página y a través de un único búfer.
+     *
+     * @param destino El destino del listado.
+     * @param consulta La consulta que obtiene cada página.
+     * @param escritura La operación del renderizador que escribe los elementos de una página.
+     * @param <T> El tipo de los elementos del listado.
+     * @throws IOException Si no se puede escribir en el destino.
+     */
+    private <T> void listar(Appendable destino, ConsultaPaginada<T> consulta, EscrituraListado<T> escritura)
+            throws IOException {
+        RenderizadorListados renderizador = new RenderizadorListados(destino);
+        long cursor = Pagina.INICIO;
+        Pagina<T> pagina;
+        do {
+            pagina = consulta.getPagina(cursor, TAMANO_PAGINA_LISTADO);
+            escritura.escribir(renderizador, pagina.getElementos());
+            cursor = pagina.getCursor();
+        } while (pagina.hayMas());
+        renderizador.flush();
+    }
+
+    private static int comprobarTamano(int tamano) {
+        if (tamano < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo");
+        }
+        return tamano;
+    }
+
+    /**
+     * Consulta que devuelve un listado página a página.
+     */
+    @FunctionalInterface
+    private interface ConsultaPaginada<T> {
+        Pagina<T> getPagina(long cursor, int tamano);
+    }
+
+    /**
+     * Operación del renderizador que escribe una página de un listado.
+     */
+    @FunctionalInterface
+    private interface EscrituraListado<T> {
+        void escribir(RenderizadorListados renderizador, List<T> elementos) throws IOException;
+    }
+
+    /**
+     * Obtiene un cliente según su ID.
+     *
+     * @param id El ID del cliente.
+     * @return Una opción que contiene el cliente si existe, o vacía si no.
+     */
+    public Optional<Cliente> getCliente(int id) {
+        MetricasHotel m = metricas;
+        long inicio = m == null ? 0 : System.nanoTime();
+        Cliente cliente = gestorClientes.getCliente(id);
+        if (m != null) {
+            m.registrar(MetricasHotel.Operacion.CONSULTA, System.nanoTime() - inicio);
+        }
+        return Optional.ofNullable(cliente);
+    }
+
+    /**
+     * Obtiene un cliente según su DNI, en O(1).
+     *
+     * @param dni El DNI del cliente, sin distinguir mayúsculas ni espacios alrededor.
+     * @return Una opción que contiene el cliente si existe, o vacía si no.
+     */
+    public Optional<Cliente> getClientePorDni(String dni) {
+        MetricasHotel m = metricas;
+        long inicio = m == null ? 0 : System.nanoTime();
+        Cliente cliente = gestorClientes.buscarPorDni(dni);
+        if (m != null) {
+            m.registrar(MetricasHotel.Operacion.CONSULTA, System.nanoTime() - inicio);
+        }
+        return Optional.ofNullable(cliente);
+    }
+
+    /**
+     * Obtiene un cliente según su email, en O(1).
+     *
+     * @param email El email del cliente, sin distinguir mayúsculas ni espacios alrededor.
+     * @return Una opción que contiene el cliente si existe, o vacía si no.
+     */
+    public Optional<Cliente> getClientePorEmail(String email) {
+        MetricasHotel m = metricas;
+        long inicio = m == null ? 0 : System.nanoTime();
+        Cliente cliente = gestorClientes.buscarPorEmail(email);
+        if (m != null) {
+            m.registrar(MetricasHotel.Operacion.CONSULTA, System.nanoTime() - inicio);
+        }
+        return Optional.ofNullable(cliente);
+    }
+
+    /**
+     * Busca los clientes cuyo nombre contiene palabras que empiezan por las del texto, sin
+     * distinguir mayúsculas ni tildes: "adri gar" encuentra a "Adrián García".
+     *
+     * @param texto El texto buscado.
+     * @param maximo El número máximo de clientes a devolver.
+     * @return Los clientes encontrados, ordenados por ID.
+     * @throws IllegalArgumentException Si el máximo no es positivo.
+     */
+    public List<Cliente> buscarClientes(String texto, int maximo) {
+        return buscarClientes(texto, maximo, false);
+    }
+
+    /**
+     * Busca los clientes cuyo nombre se parece al texto, admitiendo erratas además de mayúsculas y
+     * tildes: "adrain" encuentra a "Adrián". Cada palabra admite un error si tiene de 3 a 5 letras
+     * y dos a partir de 6.
+     *
+     * @param texto El texto buscado.
+     * @param maximo El número máximo de clientes a devolver.
+     * @return Los clientes encontrados, primero los que menos errores necesitan y, a igualdad, por ID.
+     * @throws IllegalArgumentException Si el máximo no es positivo.
+     */
+    public List<Cliente> buscarClientesAproximado(String texto, int maximo) {
+        return buscarClientes(texto, maximo, true);
+    }
+
+    private List<Cliente> buscarClientes(String texto, int maximo, boolean aproximada) {
+        if (maximo < 1) {
+            throw new IllegalArgumentException("El número máximo de clientes debe ser positivo");
+        }
+        MetricasHotel m = metricas;
+        long inicio = m == null ? 0 : System.nanoTime();
+        List<Cliente> clientes = gestorClientes.buscarPorNombre(texto, maximo, aproximada);
+        if (m != null) {
+            m.registrar(MetricasHotel.Operacion.CONSULTA, System.nanoTime() - inicio);
+        }
+        return clientes;
+    }
+
+    /**
+     * Obtiene todos los clientes registrados en el hotel.
+     *
+     * @return Lista de clientes ordenada por ID.
+     */
+    public List<Cliente> getClientes() {
+        return gestorClientes.getClientes();
     }
 
     /**
@@ -120,9 +823,160 @@ public class Hotel {
      * @param email El correo electrónico del cliente.
      * @param dni El DNI del cliente.
      * @param esVip Indica si el cliente es VIP o no.
+     * @throws IllegalArgumentException Si algún dato no es válido o ya hay un cliente con ese DNI o email.
      */
     public void registrarCliente(String nombre, String email, String dni, boolean esVip) {
+        MetricasHotel m = metricas;
+        long inicio = m == null ? 0 : System.nanoTime();
         gestorClientes.registrarCliente(nombre, email, dni, esVip);
+        if (m != null) {
+            m.registrar(MetricasHotel.Operacion.REGISTRO_CLIENTE, System.nanoTime() - inicio);
+        }
+    }
+
+    /**
+     * Retira el estado VIP a los clientes promocionados cuyas reservas recientes ya no superan el
+     * umbral dentro del periodo.
+     * <p>
+     * Los clientes registrados como VIP no se ven afectados. Está pensado para ejecutarse de forma
+     * periódica, por ejemplo una vez al día.
+     * </p>
+     *
+     * @return El número de clientes que han dejado de ser VIP.
+     */
+    public int revisarEstadoVip() {
+        return gestorClientes.revisarEstadoVip();
+    }
+
+    /**
+     * Procesa las entradas y salidas de las reservas desde la última vez hasta hoy, según el reloj
+     * del hotel.
+     * <p>
+     * Las habitaciones cuya última reserva pendiente termina vuelven a estar disponibles sin
+     * consultar su calendario, y los observadores reciben cada entrada y cada salida. El coste es
+     * proporcional al número de entradas y salidas procesadas, no al de reservas del hotel, por lo
+     * que puede invocarse a menudo.
+     * </p>
+     *
+     * @return El número de entradas y salidas procesadas.
+     */
+    public int procesarEstancias() {
+        return gestorReservas.procesarEstancias();
+    }
+
+    /**
+     * Indica si un cliente es VIP por haber superado el umbral de reservas recientes.
+     *
+     * @param clienteId El ID del cliente.
+     * @return true si el cliente ha sido promocionado y sigue siendo VIP, false en otro caso.
+     */
+    public boolean isVipPorReservas(int clienteId) {
+        return gestorClientes.isPromocionado(clienteId);
+    }
+
+    // Reconstrucción del estado a partir de una copia persistente
+
+    /**
+     * Restaura una habitación guardada, sin avisar a los observadores.
+     * <p>
+     * Las habitaciones deben restaurarse en orden de número.
+     * </p>
+     *
+     * @param numero El número de la habitación.
+     * @param tipo El tipo de habitación.
+     * @param precioBase El precio base de la habitación.
+     * @throws IllegalStateException Si el número no es el siguiente número de habitación libre.
+     */
+    public void restaurarHabitacion(int numero, Habitacion.RoomType tipo, double precioBase) {
+        gestorHabitaciones.restaurarHabitacion(numero, tipo, precioBase);
+    }
+
+    /**
+     * Restaura un cliente guardado con su ID original, sin avisar a los observadores.
+     *
+     * @param id El ID del cliente.
+     * @param nombre El nombre del cliente.
+     * @param email El correo electrónico del cliente.
+     * @param dni El DNI del cliente.
+     * @param esVip Indica si el cliente es VIP o no.
+     */
+    public void restaurarCliente(int id, String nombre, String email, String dni, boolean esVip) {
+        gestorClientes.restaurarCliente(id, nombre, email, dni, esVip);
+    }
+
+    /**
+     * Restaura una reserva guardada en su habitación original, sin avisar a los observadores.
+     *
+     * @param id El ID de la reserva.
+     * @param clienteId El ID del cliente que realizó la reserva.
+     * @param numeroHabitacion El número de la habitación reservada.
+     * @param fechaEntrada La fecha de entrada.
+     * @param fechaSalida La fecha de salida.
+     * @param clienteVip Indica si el cliente era VIP al realizar la reserva.
+     * @param fechaReserva El día en que se realizó la reserva.
+     * @param precioCentimos El precio total de la reserva, en céntimos.
+     * @throws IllegalStateException Si el cliente o la habitación no existen o las fechas ya están ocupadas.
+     */
+    public void restaurarReserva(int id, int clienteId, int numeroHabitacion, LocalDate fechaEntrada,
+                                 LocalDate fechaSalida, boolean clienteVip, LocalDate fechaReserva,
+                                 long precioCentimos) {
+        Cliente cliente = gestorClientes.getCliente(clienteId);
+        Habitacion habitacion = gestorHabitaciones.getHabitacion(numeroHabitacion).orElse(null);
+        if (cliente == null || habitacion == null) {
+            throw new IllegalStateException("La reserva #" + id + " hace referencia a un cliente o habitación inexistente");
+        }
+        if (!gestorReservas.restaurarReserva(id, cliente, habitacion, fechaEntrada, fechaSalida,
+                clienteVip, fechaReserva, precioCentimos)) {
+            throw new IllegalStateException("La reserva #" + id + " se solapa con otra reserva de la habitación #"
+                    + numeroHabitacion);
+        }
+    }
+
+    /**
+     * Restaura la cancelación de una reserva, sin avisar a los observadores.
+     *
+     * @param id El ID de la reserva cancelada.
+     * @throws IllegalStateException Si la reserva no existe.
+     */
+    public void restaurarCancelacion(int id) {
+        if (!gestorReservas.cancelarReserva(id, false)) {
+            throw new IllegalStateException("No existe la reserva cancelada #" + id);
+        }
+    }
+
+    /**
+     * Obtiene el último ID de reserva asignado, incluidas las reservas ya canceladas.
+     *
+     * @return El último ID de reserva, o 0 si no se ha realizado ninguna.
+     */
+    public int getUltimoIdReserva() {
+        return gestorReservas.getUltimoId();
+    }
+
+    /**
+     * Restaura el último ID de reserva asignado, para que los IDs de reservas canceladas no se
+     * vuelvan a usar tras reconstruir el hotel.
+     *
+     * @param id El último ID de reserva asignado.
+     */
+    public void restaurarUltimoIdReserva(int id) {
+        gestorReservas.restaurarUltimoId(id);
+    }
+
+    /**
+     * Restaura un cambio del estado VIP de un cliente por sus reservas recientes, sin avisar a los
+     * observadores.
+     *
+     * @param clienteId El ID del cliente.
+     * @param vip true si el cliente fue promocionado, false si dejó de ser VIP.
+     * @throws IllegalStateException Si el cliente no existe.
+     */
+    public void restaurarEstadoVip(int clienteId, boolean vip) {
+        Cliente cliente = gestorClientes.getCliente(clienteId);
+        if (cliente == null) {
+            throw new IllegalStateException("No existe el cliente con id " + clienteId);
+        }
+        gestorClientes.restaurarEstadoVip(cliente, vip);
     }
 
     // Clases internas para gestionar responsabilidades específicas
@@ -131,8 +985,20 @@ public class Hotel {
      * Clase encargada de gestionar las habitaciones del hotel.
      */
     private static class GestorHabitaciones {
-        private final List<Habitacion> habitaciones = new ArrayList<>();
-        private final Map<Integer, List<Reserva>> reservasPorHabitacion = new HashMap<>();
+        private final IndiceHabitaciones indice = new IndiceHabitaciones();
+        private final List<ObservadorHotel> observadores;
+        private final RegistroVersionado<Habitacion> registro;
+
+        /**
+         * Constructor de la clase GestorHabitaciones.
+         *
+         * @param observadores Los observadores del hotel.
+         * @param registro El registro versionado de habitaciones, del que leen las vistas.
+         */
+        public GestorHabitaciones(List<ObservadorHotel> observadores, RegistroVersionado<Habitacion> registro) {
+            this.observadores = observadores;
+            this.registro = registro;
+        }
 
         /**
          * Registra una nueva habitación en el hotel.
@@ -140,10 +1006,31 @@ public class Hotel {
          * @param tipo El tipo de habitación.
          * @param precioBase El precio base de la habitación.
          */
-        public void registrarHabitacion(Habitacion.RoomType tipo, double precioBase) {
-            Habitacion habitacion = new Habitacion(habitaciones.size() + 1, tipo, precioBase);
-            habitaciones.add(habitacion);
-            reservasPorHabitacion.put(habitacion.getNumero(), new ArrayList<>());
+        public void registrarHabitacion(Habitacion.RoomType tipo, double precioBase) {
+            indice.registrar(tipo, precioBase, habitacion -> {
+                observadores.forEach(o -> o.habitacionRegistrada(habitacion));
+                registro.anadir(habitacion);
+            });
+        }
+
+        /**
+         * Restaura una habitación guardada con su número original.
+         *
+         * @param numero El número de la habitación.
+         * @param tipo El tipo de habitación.
+         * @param precioBase El precio base de la habitación.
+         */
+        public void restaurarHabitacion(int numero, Habitacion.RoomType tipo, double precioBase) {
+            registro.anadir(indice.restaurar(numero, tipo, precioBase));
+        }
+
+        /**
+         * Obtiene el número de habitaciones registradas.
+         *
+         * @return El número de habitaciones.
+         */
+        public int getNumHabitaciones() {
+            return indice.tamano();
         }
 
         /**
@@ -159,13 +1046,24 @@ public class Hotel {
         }
 
         /**
-         * Muestra las habitaciones disponibles en el hotel.
+         * Obtiene una página de las habitaciones disponibles esta noche.
+         *
+         * @param cursor El número de la última habitación de la página anterior, o 0.
+         * @param tamano El número máximo de habitaciones de la página.
+         * @param hoy El día actual.
+         * @return La página de habitaciones, cuyo cursor es el número de la última habitación revisada.
          */
-        public void listarHabitacionesDisponibles() {
-            habitaciones.stream()
-                    .filter(Habitacion::isDisponible)
-                    .forEach(habitacion -> System.out.printf("Habitación #%d - Tipo: %s - Precio base: %.2f%n",
-                            habitacion.getNumero(), habitacion.getTipo(), habitacion.getPrecioBase()));
+        public Pagina<Habitacion> getHabitacionesDisponibles(long cursor, int tamano, LocalDate hoy) {
+            int total = indice.tamano();
+            List<Habitacion> pagina = new ArrayList<>(Math.min(tamano, total));
+            int numero = (int) cursor;
+            while (pagina.size() < tamano && numero < total) {
+                Habitacion habitacion = indice.get(++numero);
+                if (habitacion.isDisponible(hoy)) {
+                    pagina.add(habitacion);
+                }
+            }
+            return new Pagina<>(pagina, numero, numero < total);
         }
 
         /**
@@ -175,9 +1073,7 @@ public class Hotel {
          * @return Una opción que contiene la habitación si existe, o vacía si no.
          */
         public Optional<Habitacion> getHabitacion(int numero) {
-            return habitaciones.stream()
-                    .filter(h -> h.getNumero() == numero)
-                    .findFirst();
+            return Optional.ofNullable(indice.get(numero));
         }
 
         /**
@@ -186,49 +1082,150 @@ public class Hotel {
          * @return true si el hotel no tiene habitaciones, false si tiene.
          */
         public boolean estaVacio() {
-            return habitaciones.isEmpty();
+            return indice.tamano() == 0;
+        }
+
+        /**
+         * Reserva una habitación del tipo solicitado que esté libre entre dos fechas.
+         * <p>
+         * Primero se eligen habitaciones del tipo sin reservas pendientes; si no quedan, se consulta el
+         * calendario de cada habitación del tipo en O(log n). La habitación se reclama de forma
+         * atómica, bloqueando solo su calendario.
+         * </p>
+         *
+         * @param tipo El tipo de habitación.
+         * @param fechaEntrada La fecha de entrada.
+         * @param fechaSalida La fecha de salida.
+         * @param fabrica Función que crea la reserva para la habitación elegida.
+         * @return Una opción que contiene la reserva realizada, o vacía si no hay habitaciones libres.
+         */
+        public Optional<Reserva> reservarHabitacionDisponible(Habitacion.RoomType tipo,
+                                                              LocalDate fechaEntrada, LocalDate fechaSalida,
+                                                              Function<Habitacion, Reserva> fabrica) {
+            return Optional.ofNullable(indice.reservarLibre(tipo, fechaEntrada, fechaSalida, fabrica));
         }
 
         /**
-         * Busca una habitación disponible del tipo solicitado.
+         * Busca las habitaciones más baratas de un tipo que estén libres entre dos fechas.
          *
          * @param tipo El tipo de habitación.
-         * @return Una opción que contiene la habitación disponible si existe, o vacía si no.
+         * @param fechaEntrada La fecha de entrada.
+         * @param fechaSalida La fecha de salida.
+         * @param maximo El número máximo de habitaciones a devolver.
+         * @return Las habitaciones libres ordenadas de menor a mayor precio base.
+         */
+        public List<Habitacion> getHabitacionesLibres(Habitacion.RoomType tipo, LocalDate fechaEntrada,
+                                                      LocalDate fechaSalida, int maximo) {
+            return indice.buscarLibres(tipo, fechaEntrada, fechaSalida, maximo);
+        }
+
+        /**
+         * Reserva una habitación concreta.
+         *
+         * @param habitacion La habitación a reservar.
+         * @param reserva La reserva a registrar.
+         * @return true si se ha reservado, false si las fechas ya estaban ocupadas.
+         */
+        public boolean reservarHabitacion(Habitacion habitacion, Reserva reserva) {
+            return indice.reservarEn(habitacion, reserva);
+        }
+
+        /**
+         * Reserva una habitación concreta, creando la reserva solo una vez reclamadas sus fechas.
+         *
+         * @param habitacion La habitación a reservar.
+         * @param fechaEntrada La fecha de entrada.
+         * @param fechaSalida La fecha de salida.
+         * @param fabrica Función que crea la reserva para la habitación.
+         * @return Una opción que contiene la reserva realizada, o vacía si las fechas ya estaban ocupadas.
+         */
+        public Optional<Reserva> reservarHabitacion(Habitacion habitacion, LocalDate fechaEntrada,
+                                                    LocalDate fechaSalida, Function<Habitacion, Reserva> fabrica) {
+            return Optional.ofNullable(indice.reservarEn(habitacion, fechaEntrada, fechaSalida, fabrica));
+        }
+
+        /**
+         * Cancela una reserva de su habitación, dejando libres sus fechas.
+         *
+         * @param reserva La reserva a cancelar.
+         * @param hoy El día actual.
+         * @param antesDeLiberar Acción que recibe la reserva antes de que sus fechas queden libres.
+         * @return true si se ha cancelado, false si la reserva no estaba en su habitación.
          */
-        public Optional<Habitacion> encontrarHabitacionDisponible(Habitacion.RoomType tipo) {
-            return habitaciones.stream()
-                    .filter(h -> h.getTipo() == tipo && h.isDisponible())
-                    .findFirst();
+        public boolean cancelarReserva(Reserva reserva, LocalDate hoy, Consumer<Reserva> antesDeLiberar) {
+            Habitacion habitacion = indice.get(reserva.getHabitacionId());
+            return habitacion != null && indice.cancelarEn(habitacion, reserva, hoy, antesDeLiberar);
         }
 
         /**
-         * Añade una reserva a una habitación.
+         * Libera la habitación de una reserva terminada si no le quedan reservas pendientes, para
+         * que se vuelva a elegir sin consultar su calendario.
          *
-         * @param habitacion La habitación que será reservada.
-         * @param reserva La reserva que se añadirá a la habitación.
+         * @param reserva La reserva terminada.
          */
-        public void agregarReserva(Habitacion habitacion, Reserva reserva) {
-            reservasPorHabitacion.get(habitacion.getNumero()).add(reserva);
-            habitacion.reservar();
+        public void liberarHabitacion(Reserva reserva) {
+            Habitacion habitacion = indice.get(reserva.getHabitacionId());
+            if (habitacion != null) {
+                indice.liberar(habitacion, reserva.getFechaFin());
+            }
         }
 
         /**
          * Obtiene las reservas de una habitación específica.
          *
          * @param numeroHabitacion El número de la habitación.
-         * @return Lista de reservas asociadas a la habitación.
+         * @return Lista de reservas asociadas a la habitación, ordenadas por fecha de entrada.
          */
         public List<Reserva> getReservasHabitacion(int numeroHabitacion) {
-            return reservasPorHabitacion.getOrDefault(numeroHabitacion, new ArrayList<>());
+            return getHabitacion(numeroHabitacion)
+                    .map(Habitacion::getReservas)
+                    .orElseGet(ArrayList::new);
         }
 
         /**
-         * Obtiene todas las habitaciones registradas en el hotel.
+         * Obtiene el porcentaje de habitaciones de un tipo ocupadas la noche de un día.
          *
-         * @return Lista de todas las habitaciones.
+         * @param tipo El tipo de habitación.
+         * @param dia El día de la noche consultada.
+         * @return El porcentaje de ocupación, entre 0 y 100.
+         */
+        public int getOcupacion(Habitacion.RoomType tipo, LocalDate dia) {
+            return indice.porcentajeOcupacion(tipo, dia);
+        }
+
+        /**
+         * Cuenta las habitaciones de un tipo libres la noche de un día.
+         *
+         * @param tipo El tipo de habitación.
+         * @param dia El día de la noche consultada.
+         * @return El número de habitaciones libres.
+         */
+        public int contarLibres(Habitacion.RoomType tipo, LocalDate dia) {
+            return indice.getLibres(tipo, dia);
+        }
+
+        /**
+         * Cuenta las noches-habitación de un tipo libres entre dos fechas.
+         *
+         * @param tipo El tipo de habitación.
+         * @param desde El primer día.
+         * @param hasta El día siguiente a la última noche.
+         * @return La suma de las habitaciones libres de cada noche del rango.
+         */
+        public long contarNochesLibres(Habitacion.RoomType tipo, LocalDate desde, LocalDate hasta) {
+            return indice.getNochesLibres(tipo, desde, hasta);
+        }
+
+        /**
+         * Obtiene el menor número de habitaciones de un tipo libres en una misma noche entre dos fechas.
+         *
+         * @param tipo El tipo de habitación.
+         * @param desde El primer día.
+         * @param hasta El día siguiente a la última noche.
+         * @return El número de habitaciones libres la noche más ocupada del rango.
          */
-        public List<Habitacion> getHabitaciones() {
-            return new ArrayList<>(habitaciones);
+        public int getMinimoLibres(Habitacion.RoomType tipo, LocalDate desde, LocalDate hasta) {
+            return indice.getMinimoLibres(tipo, desde, hasta);
         }
     }
 
@@ -238,19 +1235,73 @@ public class Hotel {
     private static class GestorClientes {
         private static final int VIP_RESERVATION_THRESHOLD = 3;
         private static final int VIP_LOOKBACK_YEARS = 1;
-        private final Map<Integer, Cliente> clientes = new HashMap<>();
+        private final Map<Integer, Cliente> clientes = new ConcurrentHashMap<>();
+        private final IndiceClientes indice = new IndiceClientes();
+        private final AtomicInteger secuenciaClientes = new AtomicInteger();
+        private final Map<Integer, VentanaReservas> ventanas = new ConcurrentHashMap<>();
+        private final Set<Integer> promocionados = ConcurrentHashMap.newKeySet();
+        private final List<ObservadorHotel> observadores;
+        private final BusEventos<EventoHotel> eventos;
+        private final RegistroVersionado<Cliente> registro;
+        private final Clock reloj;
+
+        /**
+         * Constructor de la clase GestorClientes.
+         *
+         * @param observadores Los observadores del hotel.
+         * @param eventos El bus de eventos del hotel.
+         * @param registro El registro versionado de clientes, del que leen las vistas.
+         * @param reloj El reloj con el que se calcula el periodo VIP.
+         */
+        public GestorClientes(List<ObservadorHotel> observadores, BusEventos<EventoHotel> eventos,
+                              RegistroVersionado<Cliente> registro, Clock reloj) {
+            this.observadores = observadores;
+            this.eventos = eventos;
+            this.registro = registro;
+            this.reloj = reloj;
+        }
 
         /**
          * Registra un nuevo cliente en el hotel.
+         * <p>
+         * El DNI y el email se reclaman en los índices antes de avisar a los observadores, así que un
+         * cliente rechazado por duplicado no deja rastro; solo consume su ID.
+         * </p>
          *
          * @param nombre El nombre del cliente.
          * @param email El correo electrónico del cliente.
          * @param dni El DNI del cliente.
          * @param esVip Indica si el cliente es VIP o no.
+         * @throws IllegalArgumentException Si algún dato no es válido o ya hay un cliente con ese DNI o email.
          */
         public void registrarCliente(String nombre, String email, String dni, boolean esVip) {
-            Cliente cliente = new Cliente(clientes.size() + 1, nombre, dni, email, esVip);
+            Cliente cliente = new Cliente(secuenciaClientes.incrementAndGet(), nombre, dni, email, esVip);
+            ResultadoValidacion resultado = indice.registrar(cliente);
+            if (!resultado.esValido()) {
+                throw new IllegalArgumentException(resultado.getMensaje());
+            }
+            cliente.setIndice(indice);
+            observadores.forEach(o -> o.clienteRegistrado(cliente));
             clientes.put(cliente.getId(), cliente);
+            registro.anadir(cliente);
+        }
+
+        /**
+         * Restaura un cliente guardado con su ID original.
+         *
+         * @param id El ID del cliente.
+         * @param nombre El nombre del cliente.
+         * @param email El correo electrónico del cliente.
+         * @param dni El DNI del cliente.
+         * @param esVip Indica si el cliente es VIP o no.
+         */
+        public void restaurarCliente(int id, String nombre, String email, String dni, boolean esVip) {
+            Cliente cliente = new Cliente(id, nombre, dni, email, esVip);
+            indice.restaurar(cliente);
+            cliente.setIndice(indice);
+            clientes.put(id, cliente);
+            registro.anadir(cliente);
+            secuenciaClientes.accumulateAndGet(id, Math::max);
         }
 
         /**
@@ -264,16 +1315,157 @@ public class Hotel {
         }
 
         /**
-         * Muestra todos los clientes registrados en el hotel.
+         * Busca un cliente por su DNI.
+         *
+         * @param dni El DNI del cliente.
+         * @return El cliente con ese DNI, o null si no existe.
+         */
+        public Cliente buscarPorDni(String dni) {
+            return indice.buscarPorDni(dni);
+        }
+
+        /**
+         * Busca un cliente por su email.
+         *
+         * @param email El email del cliente.
+         * @return El cliente con ese email, o null si no existe.
+         */
+        public Cliente buscarPorEmail(String email) {
+            return indice.buscarPorEmail(email);
+        }
+
+        /**
+         * Busca clientes por su nombre.
+         *
+         * @param texto El texto buscado.
+         * @param maximo El número máximo de clientes a devolver.
+         * @param aproximada Si se admiten erratas o solo el principio exacto de cada palabra.
+         * @return Los clientes encontrados, en el orden del índice.
+         */
+        public List<Cliente> buscarPorNombre(String texto, int maximo, boolean aproximada) {
+            List<Integer> ids = aproximada
+                    ? indice.buscarPorNombreAproximado(texto, maximo)
+                    : indice.buscarPorNombre(texto, maximo);
+            List<Cliente> resultado = new ArrayList<>(ids.size());
+            for (int id : ids) {
+                // Un cliente que se está registrando puede estar ya en el índice y aún no en el mapa
+                Cliente cliente = clientes.get(id);
+                if (cliente != null) {
+                    resultado.add(cliente);
+                }
+            }
+            return resultado;
+        }
+
+        /**
+         * Obtiene todos los clientes registrados.
+         *
+         * @return Lista de clientes ordenada por ID.
+         */
+        public List<Cliente> getClientes() {
+            List<Cliente> lista = new ArrayList<>(clientes.values());
+            lista.sort(Comparator.comparingInt(Cliente::getId));
+            return lista;
+        }
+
+        /**
+         * Obtiene una página de los clientes registrados, recorriendo los IDs en orden sin ordenar
+         * ni copiar el resto de clientes.
+         *
+         * @param cursor El ID del último cliente de la página anterior, o 0.
+         * @param tamano El número máximo de clientes de la página.
+         * @return La página de clientes, cuyo cursor es el último ID revisado.
+         */
+        public Pagina<Cliente> getClientes(long cursor, int tamano) {
+            int ultimo = secuenciaClientes.get();
+            List<Cliente> pagina = new ArrayList<>(Math.min(tamano, clientes.size()));
+            int id = (int) cursor;
+            while (pagina.size() < tamano && id < ultimo) {
+                Cliente cliente = clientes.get(++id);
+                if (cliente != null) {
+                    pagina.add(cliente);
+                }
+            }
+            return new Pagina<>(pagina, id, id < ultimo);
+        }
+
+        /**
+         * Anota una reserva realizada por un cliente y lo promociona a VIP si con ella supera el
+         * umbral de reservas recientes.
+         *
+         * @param cliente El cliente que ha reservado.
+         * @param fechaReserva El día en que se realizó la reserva.
+         */
+        public void registrarReserva(Cliente cliente, LocalDate fechaReserva) {
+            VentanaReservas ventana = getVentana(cliente.getId());
+            synchronized (ventana) {
+                ventana.registrar(fechaReserva.toEpochDay());
+                actualizarEstadoVIP(cliente, ventana.contarDesde(inicioPeriodo()));
+            }
+        }
+
+        /**
+         * Anota una reserva restaurada, sin cambiar el estado VIP del cliente.
+         *
+         * @param clienteId El ID del cliente.
+         * @param fechaReserva El día en que se realizó la reserva.
+         */
+        public void restaurarReserva(int clienteId, LocalDate fechaReserva) {
+            VentanaReservas ventana = getVentana(clienteId);
+            synchronized (ventana) {
+                ventana.registrar(fechaReserva.toEpochDay());
+            }
+        }
+
+        /**
+         * Olvida una reserva cancelada en la ventana de reservas recientes del cliente.
+         * <p>
+         * El estado VIP no cambia en el momento: si el cliente deja de superar el umbral, pierde
+         * la promoción en la siguiente {@link #revisarEstadoVip()}.
+         * </p>
+         *
+         * @param clienteId El ID del cliente.
+         * @param fechaReserva El día en que se realizó la reserva cancelada.
+         */
+        public void cancelarReserva(int clienteId, LocalDate fechaReserva) {
+            VentanaReservas ventana = getVentana(clienteId);
+            synchronized (ventana) {
+                ventana.eliminar(fechaReserva.toEpochDay());
+            }
+        }
+
+        /**
+         * Restaura un cambio del estado VIP de un cliente por sus reservas recientes.
+         *
+         * @param cliente El cliente.
+         * @param vip true si el cliente fue promocionado, false si dejó de ser VIP.
+         */
+        public void restaurarEstadoVip(Cliente cliente, boolean vip) {
+            synchronized (getVentana(cliente.getId())) {
+                cliente.setVip(vip);
+                if (vip) {
+                    promocionados.add(cliente.getId());
+                } else {
+                    promocionados.remove(cliente.getId());
+                }
+            }
+        }
+
+        /**
+         * Indica si un cliente es VIP por sus reservas recientes.
+         *
+         * @param clienteId El ID del cliente.
+         * @return true si el cliente ha sido promocionado.
          */
-        public void listarClientes() {
-            clientes.values().forEach(cliente -> System.out.printf(
-                    "Cliente #%d - Nombre: %s - DNI: %s - VIP: %b%n",
-                    cliente.getId(), cliente.getNombre(), cliente.getDni(), cliente.isVip()));
+        public boolean isPromocionado(int clienteId) {
+            return promocionados.contains(clienteId);
         }
 
         /**
          * Actualiza el estado VIP de un cliente si ha superado el umbral de reservas recientes.
+         * <p>
+         * Debe invocarse con la ventana del cliente bloqueada.
+         * </p>
          *
          * @param cliente El cliente a actualizar.
          * @param numReservasRecientes El número de reservas realizadas recientemente.
@@ -281,8 +1473,54 @@ public class Hotel {
         public void actualizarEstadoVIP(Cliente cliente, int numReservasRecientes) {
             if (!cliente.isVip() && numReservasRecientes > VIP_RESERVATION_THRESHOLD) {
                 cliente.setVip(true);
-                System.out.println("El cliente " + cliente.getNombre() + " ha pasado a ser VIP");
+                promocionados.add(cliente.getId());
+                observadores.forEach(o -> o.estadoVipCambiado(cliente));
+                eventos.publicar(new EventoHotel.EstadoVipCambiado(cliente));
+            }
+        }
+
+        /**
+         * Retira el estado VIP a los clientes promocionados que ya no superan el umbral.
+         *
+         * @return El número de clientes que han dejado de ser VIP.
+         */
+        public int revisarEstadoVip() {
+            long desde = inicioPeriodo();
+            int degradados = 0;
+            for (Integer id : promocionados) {
+                Cliente cliente = clientes.get(id);
+                VentanaReservas ventana = getVentana(id);
+                synchronized (ventana) {
+                    if (!promocionados.contains(id) || ventana.contarDesde(desde) > VIP_RESERVATION_THRESHOLD) {
+                        continue;
+                    }
+                    cliente.setVip(false);
+                    promocionados.remove(id);
+                    observadores.forEach(o -> o.estadoVipCambiado(cliente));
+                    eventos.publicar(new EventoHotel.EstadoVipCambiado(cliente));
+                }
+                degradados++;
             }
+            return degradados;
+        }
+
+        /**
+         * Obtiene la ventana de reservas recientes de un cliente, creándola si no existe.
+         *
+         * @param clienteId El ID del cliente.
+         * @return La ventana del cliente.
+         */
+        private VentanaReservas getVentana(int clienteId) {
+            return ventanas.computeIfAbsent(clienteId, id -> new VentanaReservas(VIP_RESERVATION_THRESHOLD + 1));
+        }
+
+        /**
+         * Calcula el primer día que cuenta para el estado VIP.
+         *
+         * @return El día epoch de inicio del periodo.
+         */
+        private long inicioPeriodo() {
+            return LocalDate.now(reloj).minusYears(VIP_LOOKBACK_YEARS).toEpochDay();
         }
     }
 
@@ -291,14 +1529,60 @@ public class Hotel {
      */
     private static class GestorReservas {
         private final GestorHabitaciones gestorHabitaciones;
+        private final GestorClientes gestorClientes;
+        private final AtomicInteger secuenciaReservas = new AtomicInteger();
+        private final Map<Integer, RegistroVersionado.Entrada<Reserva>> reservasPorId = new ConcurrentHashMap<>();
+        private final Map<Integer, ReservasCliente> reservasPorCliente = new ConcurrentHashMap<>();
+        private final List<ObservadorHotel> observadores;
+        private final BusEventos<EventoHotel> eventos;
+        private final RegistroVersionado<Reserva> registro;
+        private final Clock reloj;
+        private final PlanificadorEstancias planificador;
+        private volatile MotorPrecios motorPrecios = MotorPrecios.porDefecto();
 
         /**
          * Constructor de la clase GestorReservas.
          *
          * @param gestorHabitaciones El gestor de habitaciones del hotel.
+         * @param gestorClientes El gestor de clientes del hotel.
+         * @param observadores Los observadores del hotel.
+         * @param eventos El bus de eventos del hotel.
+         * @param registro El registro versionado de reservas, del que leen las vistas.
+         * @param reloj El reloj con el que se fecha cada reserva.
          */
-        public GestorReservas(GestorHabitaciones gestorHabitaciones) {
+        public GestorReservas(GestorHabitaciones gestorHabitaciones, GestorClientes gestorClientes,
+                              List<ObservadorHotel> observadores, BusEventos<EventoHotel> eventos,
+                              RegistroVersionado<Reserva> registro, Clock reloj) {
             this.gestorHabitaciones = gestorHabitaciones;
+            this.gestorClientes = gestorClientes;
+            this.observadores = observadores;
+            this.eventos = eventos;
+            this.registro = registro;
+            this.reloj = reloj;
+            this.planificador = new PlanificadorEstancias(LocalDate.now(reloj));
+        }
+
+        /**
+         * Cambia el motor con el que se calcula el precio de las nuevas reservas.
+         *
+         * @param motorPrecios El motor de precios.
+         */
+        public void setMotorPrecios(MotorPrecios motorPrecios) {
+            this.motorPrecios = motorPrecios;
+        }
+
+        /**
+         * Calcula el precio de una estancia en una habitación.
+         *
+         * @param habitacion La habitación.
+         * @param fechaEntrada La fecha de entrada.
+         * @param fechaSalida La fecha de salida.
+         * @param vip Indica si el cliente es VIP.
+         * @return El precio total de la estancia, en céntimos.
+         */
+        public long calcularPrecio(Habitacion habitacion, LocalDate fechaEntrada, LocalDate fechaSalida, boolean vip) {
+            return motorPrecios.calcular(habitacion.getTipo(), habitacion.getPrecioBaseCentimos(),
+                    fechaEntrada, fechaSalida, vip, gestorHabitaciones::getOcupacion);
         }
 
         /**
@@ -311,43 +1595,333 @@ public class Hotel {
          * @return El número de la habitación reservada, o un código de error negativo.
          */
         public int realizarReserva(Cliente cliente, Habitacion.RoomType tipo, LocalDate fechaEntrada, LocalDate fechaSalida) {
-            Optional<Habitacion> habitacionDisponible = gestorHabitaciones.encontrarHabitacionDisponible(tipo);
-            if (habitacionDisponible.isEmpty()) {
-                System.out.println("No hay habitaciones disponibles del tipo " + tipo);
+            LocalDate hoy = LocalDate.now(reloj);
+            Optional<Reserva> reserva = gestorHabitaciones.reservarHabitacionDisponible(
+                    tipo, fechaEntrada, fechaSalida, habitacion -> crearReserva(cliente, habitacion,
+                            fechaEntrada, fechaSalida, hoy));
+            if (reserva.isEmpty()) {
+                return -1;
+            }
+            return completarReserva(reserva.get(), cliente, hoy);
+        }
+
+        /**
+         * Realiza una reserva de una habitación concreta para un cliente.
+         *
+         * @param cliente El cliente que realiza la reserva.
+         * @param habitacion La habitación a reservar.
+         * @param fechaEntrada La fecha de entrada.
+         * @param fechaSalida La fecha de salida.
+         * @return El número de la habitación reservada, o -1 si las fechas ya están ocupadas.
+         */
+        public int realizarReserva(Cliente cliente, Habitacion habitacion, LocalDate fechaEntrada, LocalDate fechaSalida) {
+            if (!habitacion.estaDisponible(fechaEntrada, fechaSalida)) {
+                return -1;
+            }
+            LocalDate hoy = LocalDate.now(reloj);
+            Optional<Reserva> reserva = gestorHabitaciones.reservarHabitacion(habitacion, fechaEntrada, fechaSalida,
+                    h -> crearReserva(cliente, h, fechaEntrada, fechaSalida, hoy));
+            if (reserva.isEmpty()) {
                 return -1;
             }
+            return completarReserva(reserva.get(), cliente, hoy);
+        }
+
+        /**
+         * Reserva varias habitaciones para un cliente de forma atómica.
+         * <p>
+         * Primero ocupa las fechas en todas las habitaciones, creando cada reserva solo al reclamar su
+         * habitación; si alguna ya está ocupada, libera las anteriores sin avisar a nadie. Solo cuando
+         * todas están ocupadas completa las reservas.
+         * </p>
+         *
+         * @param cliente El cliente que realiza la reserva.
+         * @param habitaciones Las habitaciones a reservar.
+         * @param fechaEntrada La fecha de entrada.
+         * @param fechaSalida La fecha de salida.
+         * @return Las reservas realizadas, o {@code null} si alguna habitación ya estaba ocupada.
+         */
+        public List<Reserva> realizarReservaGrupo(Cliente cliente, List<Habitacion> habitaciones,
+                                                  LocalDate fechaEntrada, LocalDate fechaSalida) {
+            LocalDate hoy = LocalDate.now(reloj);
+            List<Reserva> reservas = new ArrayList<>(habitaciones.size());
+            for (Habitacion habitacion : habitaciones) {
+                Optional<Reserva> reserva = gestorHabitaciones.reservarHabitacion(habitacion, fechaEntrada,
+                        fechaSalida, h -> crearReserva(cliente, h, fechaEntrada, fechaSalida, hoy));
+                if (reserva.isEmpty()) {
+                    for (Reserva tomada : reservas) {
+                        gestorHabitaciones.cancelarReserva(tomada, hoy, r -> { });
+                    }
+                    return null;
+                }
+                reservas.add(reserva.get());
+            }
+            for (Reserva reserva : reservas) {
+                completarReserva(reserva, cliente, hoy);
+            }
+            return reservas;
+        }
 
-            Habitacion habitacion = habitacionDisponible.get();
-            int idReserva = gestorHabitaciones.getReservasHabitacion(habitacion.getNumero()).size() + 1;
-            Reserva reserva = new Reserva(
-                    idReserva,
+        /**
+         * Crea una reserva con el siguiente ID y el precio calculado por el motor de precios.
+         *
+         * @param cliente El cliente que realiza la reserva.
+         * @param habitacion La habitación reservada.
+         * @param fechaEntrada La fecha de entrada.
+         * @param fechaSalida La fecha de salida.
+         * @param hoy El día en que se realiza la reserva.
+         * @return La reserva creada, todavía sin registrar en la habitación.
+         */
+        private Reserva crearReserva(Cliente cliente, Habitacion habitacion, LocalDate fechaEntrada,
+                                     LocalDate fechaSalida, LocalDate hoy) {
+            return new Reserva(
+                    secuenciaReservas.incrementAndGet(),
                     cliente.getId(),
                     habitacion.getNumero(),
                     fechaEntrada,
                     fechaSalida,
                     habitacion,
-                    cliente
+                    cliente.isVip(),
+                    hoy,
+                    calcularPrecio(habitacion, fechaEntrada, fechaSalida, cliente.isVip())
             );
+        }
+
+        /**
+         * Avisa a los observadores de una reserva ya registrada en su habitación, la añade a los
+         * índices, al planificador de estancias y a la ventana VIP del cliente y publica su evento.
+         *
+         * @param reserva La reserva realizada.
+         * @param cliente El cliente que la ha realizado.
+         * @param hoy El día en que se ha realizado.
+         * @return El número de la habitación reservada.
+         */
+        private int completarReserva(Reserva reserva, Cliente cliente, LocalDate hoy) {
+            observadores.forEach(o -> o.reservaRealizada(reserva));
+            indexar(reserva);
+            planificador.programar(reserva, true);
+            if (eventos.hayInteresados()) {
+                eventos.publicar(new EventoHotel.ReservaRealizada(reserva));
+            }
+            gestorClientes.registrarReserva(cliente, hoy);
+            return reserva.getHabitacionId();
+        }
+
+        /**
+         * Restaura una reserva guardada en su habitación original.
+         *
+         * @param id El ID de la reserva.
+         * @param cliente El cliente que realizó la reserva.
+         * @param habitacion La habitación reservada.
+         * @param fechaEntrada La fecha de entrada.
+         * @param fechaSalida La fecha de salida.
+         * @param clienteVip Indica si el cliente era VIP al realizar la reserva.
+         * @param fechaReserva El día en que se realizó la reserva.
+         * @param precioCentimos El precio total de la reserva, en céntimos.
+         * @return true si se ha restaurado, false si las fechas ya estaban ocupadas.
+         */
+        public boolean restaurarReserva(int id, Cliente cliente, Habitacion habitacion, LocalDate fechaEntrada,
+                                        LocalDate fechaSalida, boolean clienteVip, LocalDate fechaReserva,
+                                        long precioCentimos) {
+            Reserva reserva = new Reserva(id, cliente.getId(), habitacion.getNumero(),
+                    fechaEntrada, fechaSalida, habitacion, clienteVip, fechaReserva, precioCentimos);
+            if (!gestorHabitaciones.reservarHabitacion(habitacion, reserva)) {
+                return false;
+            }
+            secuenciaReservas.accumulateAndGet(id, Math::max);
+            indexar(reserva);
+            if (!planificador.programar(reserva, false)) {
+                gestorHabitaciones.liberarHabitacion(reserva);
+            }
+            gestorClientes.restaurarReserva(cliente.getId(), fechaReserva);
+            return true;
+        }
+
+        /**
+         * Procesa las entradas y salidas de las reservas hasta hoy.
+         * <p>
+         * Cada salida devuelve la habitación a las habitaciones sin reservas pendientes si no le
+         * queda ninguna otra. Los eventos de reservas canceladas se descartan.
+         * </p>
+         *
+         * @return El número de entradas y salidas procesadas.
+         */
+        public int procesarEstancias() {
+            return planificador.avanzarHasta(LocalDate.now(reloj), reserva -> {
+                if (!estaVigente(reserva)) {
+                    return false;
+                }
+                observadores.forEach(o -> o.entradaRealizada(reserva));
+                return true;
+            }, reserva -> {
+                if (!estaVigente(reserva)) {
+                    return false;
+                }
+                gestorHabitaciones.liberarHabitacion(reserva);
+                observadores.forEach(o -> o.salidaRealizada(reserva));
+                return true;
+            });
+        }
+
+        /**
+         * Añade una reserva al índice por ID, al índice de reservas de su cliente y al registro
+         * versionado.
+         *
+         * @param reserva La reserva a indexar.
+         */
+        private void indexar(Reserva reserva) {
+            reservasPorCliente.computeIfAbsent(reserva.getClienteId(), id -> new ReservasCliente()).anadir(reserva);
+            reservasPorId.put(reserva.getId(), registro.anadir(reserva));
+        }
+
+        /**
+         * Indica si una reserva sigue vigente, es decir, si no se ha cancelado.
+         *
+         * @param reserva La reserva.
+         * @return {@code true} si la reserva está en el índice por ID.
+         */
+        private boolean estaVigente(Reserva reserva) {
+            RegistroVersionado.Entrada<Reserva> entrada = reservasPorId.get(reserva.getId());
+            return entrada != null && entrada.getValor() == reserva;
+        }
 
-            gestorHabitaciones.agregarReserva(habitacion, reserva);
-            System.out.println("Reserva realizada con éxito");
-            return habitacion.getNumero();
+        /**
+         * Obtiene una reserva por su ID.
+         *
+         * @param id El ID de la reserva.
+         * @return Una opción que contiene la reserva, o vacía si no existe.
+         */
+        public Optional<Reserva> getReserva(int id) {
+            RegistroVersionado.Entrada<Reserva> entrada = reservasPorId.get(id);
+            return entrada == null ? Optional.empty() : Optional.of(entrada.getValor());
         }
 
         /**
-         * Muestra todas las reservas del hotel.
+         * Cancela una reserva y la retira de todos los índices: el índice por ID, el calendario de
+         * su habitación, las reservas de su cliente y la ventana VIP del cliente.
+         * <p>
+         * Cada paso es O(1) u O(log n) sobre un índice que solo bloquea la habitación o el cliente
+         * afectados. Retirar la reserva del índice por ID es lo primero, de modo que dos
+         * cancelaciones simultáneas de la misma reserva no pueden tener éxito las dos. La reserva
+         * se retira del registro versionado y se avisa a los observadores antes de liberar las
+         * fechas en la habitación: así una reserva posterior de esas fechas nunca aparece en una
+         * vista junto a la cancelada, siempre se notifica después de la cancelación, y el diario
+         * se puede reproducir en orden.
+         * </p>
+         *
+         * @param id El ID de la reserva.
+         * @param notificar Indica si se avisa a los observadores.
+         * @return true si se ha cancelado, false si no existe ninguna reserva con ese ID.
          */
-        public void listarReservas() {
-            gestorHabitaciones.getHabitaciones().forEach(habitacion -> {
-                List<Reserva> reservas = gestorHabitaciones.getReservasHabitacion(habitacion.getNumero());
-                if (!reservas.isEmpty()) {
-                    System.out.println("Habitación #" + habitacion.getNumero());
-                    reservas.forEach(reserva -> System.out.printf(
-                            "Reserva #%d - Cliente: %d - Fecha de entrada: %s - Fecha de salida: %s%n",
-                            reserva.getId(), reserva.getClienteId(),
-                            reserva.getFechaInicio(), reserva.getFechaFin()));
+        public boolean cancelarReserva(int id, boolean notificar) {
+            RegistroVersionado.Entrada<Reserva> entrada = reservasPorId.remove(id);
+            if (entrada == null) {
+                return false;
+            }
+            Reserva reserva = entrada.getValor();
+            gestorHabitaciones.cancelarReserva(reserva, LocalDate.now(reloj), cancelada -> {
+                // Se retira de las vistas antes de que otra reserva pueda ocupar sus fechas
+                registro.retirar(entrada);
+                if (notificar) {
+                    observadores.forEach(o -> o.reservaCancelada(cancelada));
                 }
             });
+            ReservasCliente reservasCliente = reservasPorCliente.get(reserva.getClienteId());
+            if (reservasCliente != null) {
+                reservasCliente.eliminar(reserva);
+            }
+            gestorClientes.cancelarReserva(reserva.getClienteId(), reserva.getFechaReserva());
+            return true;
+        }
+
+        /**
+         * Obtiene el último ID de reserva asignado.
+         *
+         * @return El último ID de reserva.
+         */
+        public int getUltimoId() {
+            return secuenciaReservas.get();
+        }
+
+        /**
+         * Restaura el último ID de reserva asignado, si es mayor que el actual.
+         *
+         * @param id El último ID de reserva asignado.
+         */
+        public void restaurarUltimoId(int id) {
+            secuenciaReservas.accumulateAndGet(id, Math::max);
+        }
+
+        /**
+         * Obtiene todas las reservas de un cliente.
+         *
+         * @param clienteId El ID del cliente.
+         * @return Lista de reservas ordenadas por fecha de entrada.
+         */
+        public List<Reserva> getReservasCliente(int clienteId) {
+            ReservasCliente reservas = reservasPorCliente.get(clienteId);
+            return reservas == null ? new ArrayList<>() : reservas.getReservas();
+        }
+
+        /**
+         * Obtiene las reservas de un cliente cuya fecha de entrada es hoy o anterior.
+         *
+         * @param clienteId El ID del cliente.
+         * @return Lista de reservas ordenadas por fecha de entrada.
+         */
+        public List<Reserva> getHistorialCliente(int clienteId) {
+            ReservasCliente reservas = reservasPorCliente.get(clienteId);
+            return reservas == null ? new ArrayList<>()
+                    : reservas.getReservasAntesDe(LocalDate.now(reloj).plusDays(1));
+        }
+
+        /**
+         * Obtiene las reservas de un cliente cuya fecha de entrada es posterior a hoy.
+         *
+         * @param clienteId El ID del cliente.
+         * @return Lista de reservas ordenadas por fecha de entrada.
+         */
+        public List<Reserva> getProximasReservasCliente(int clienteId) {
+            ReservasCliente reservas = reservasPorCliente.get(clienteId);
+            return reservas == null ? new ArrayList<>()
+                    : reservas.getReservasDesde(LocalDate.now(reloj).plusDays(1));
+        }
+
+        /**
+         * Obtiene una página de las reservas del hotel, ordenadas por habitación y fecha de entrada.
+         * <p>
+         * El cursor combina el número de habitación (32 bits altos) y el día epoch de entrada
+         * (32 bits bajos) de la última reserva devuelta. Cada habitación se consulta en su
+         * calendario a partir de esa fecha, sin copiar sus reservas anteriores ni las habitaciones.
+         * </p>
+         *
+         * @param cursor {@link Pagina#INICIO} o el cursor de la página anterior.
+         * @param tamano El número máximo de reservas de la página.
+         * @return La página de reservas.
+         */
+        public Pagina<Reserva> getReservas(long cursor, int tamano) {
+            int numero = (int) (cursor >>> 32);
+            LocalDate despuesDe = numero == 0 ? null : LocalDate.ofEpochDay((int) cursor);
+            if (numero == 0) {
+                numero = 1;
+            }
+            int total = gestorHabitaciones.getNumHabitaciones();
+            List<Reserva> pagina = new ArrayList<>(Math.min(tamano, reservasPorId.size()));
+            while (pagina.size() < tamano && numero <= total) {
+                Habitacion habitacion = gestorHabitaciones.getHabitacion(numero).orElseThrow();
+                pagina.addAll(habitacion.getReservasDespuesDe(despuesDe, tamano - pagina.size()));
+                if (pagina.size() < tamano) {
+                    numero++;
+                    despuesDe = null;
+                }
+            }
+            if (pagina.isEmpty()) {
+                return new Pagina<>(pagina, cursor, false);
+            }
+            Reserva ultima = pagina.get(pagina.size() - 1);
+            long siguiente = (long) ultima.getHabitacionId() << 32
+                    | (ultima.getFechaInicio().toEpochDay() & 0xFFFFFFFFL);
+            return new Pagina<>(pagina, siguiente, pagina.size() == tamano);
         }
     }
 }
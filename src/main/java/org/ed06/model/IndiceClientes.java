@@ -0,0 +1,165 @@
+package org.ed06.model;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índices de los clientes de un hotel: únicos por DNI y por email, y de búsqueda por nombre.
+ *
+ * <p>Cada índice es un {@link ConcurrentHashMap} de la clave normalizada al cliente: el DNI en
+ * mayúsculas y el email en minúsculas, sin espacios alrededor. Buscar un cliente es O(1). Las
+ * claves se reclaman con {@link Map#putIfAbsent}, así que de dos registros simultáneos con el
+ * mismo DNI o el mismo email solo uno tiene éxito; si un registro consigue el DNI pero no el
+ * email, devuelve el DNI antes de rechazarse.</p>
+ *
+ * <p>Los cambios de DNI o email de un cliente reclaman primero la clave nueva y después liberan
+ * la anterior, de modo que durante un instante el cliente se encuentra por las dos.</p>
+ *
+ * <p>Los nombres se indexan en un {@link IndiceNombres} para buscarlos por prefijo o con erratas.</p>
+ */
+final class IndiceClientes {
+
+    /** Clientes indexados por DNI normalizado */
+    private final Map<String, Cliente> porDni = new ConcurrentHashMap<>();
+
+    /** Clientes indexados por email normalizado */
+    private final Map<String, Cliente> porEmail = new ConcurrentHashMap<>();
+
+    /** Nombres de los clientes, para buscarlos por texto */
+    private final IndiceNombres nombres = new IndiceNombres();
+
+    /**
+     * Añade un cliente nuevo a los índices si su DNI y su email no están en uso.
+     *
+     * @param cliente El cliente.
+     * @return {@link ResultadoValidacion#VALIDO}, {@link ResultadoValidacion#DNI_DUPLICADO} o
+     *         {@link ResultadoValidacion#EMAIL_DUPLICADO}; si no es válido, el cliente no queda indexado.
+     */
+    ResultadoValidacion registrar(Cliente cliente) {
+        String dni = normalizarDni(cliente.getDni());
+        if (porDni.putIfAbsent(dni, cliente) != null) {
+            return ResultadoValidacion.DNI_DUPLICADO;
+        }
+        if (porEmail.putIfAbsent(normalizarEmail(cliente.getEmail()), cliente) != null) {
+            porDni.remove(dni, cliente);
+            return ResultadoValidacion.EMAIL_DUPLICADO;
+        }
+        nombres.indexar(cliente.getId(), cliente.getNombre());
+        return ResultadoValidacion.VALIDO;
+    }
+
+    /**
+     * Añade a los índices un cliente guardado.
+     * <p>
+     * Los datos guardados antes de que el DNI y el email fueran únicos pueden repetirlos; en ese
+     * caso la clave sigue apuntando al primer cliente que la usó.
+     * </p>
+     *
+     * @param cliente El cliente.
+     */
+    void restaurar(Cliente cliente) {
+        porDni.putIfAbsent(normalizarDni(cliente.getDni()), cliente);
+        porEmail.putIfAbsent(normalizarEmail(cliente.getEmail()), cliente);
+        nombres.indexar(cliente.getId(), cliente.getNombre());
+    }
+
+    /**
+     * Cambia el nombre de un cliente en el índice de nombres.
+     *
+     * @param cliente El cliente.
+     * @param nuevo El nuevo nombre.
+     */
+    void cambiarNombre(Cliente cliente, String nuevo) {
+        nombres.indexar(cliente.getId(), nuevo);
+    }
+
+    /**
+     * Cambia el DNI de un cliente en el índice si el nuevo no lo usa otro cliente.
+     *
+     * @param cliente El cliente.
+     * @param anterior El DNI actual del cliente.
+     * @param nuevo El nuevo DNI.
+     * @return {@link ResultadoValidacion#VALIDO} o {@link ResultadoValidacion#DNI_DUPLICADO}.
+     */
+    ResultadoValidacion cambiarDni(Cliente cliente, String anterior, String nuevo) {
+        return cambiar(porDni, cliente, normalizarDni(anterior), normalizarDni(nuevo))
+                ? ResultadoValidacion.VALIDO : ResultadoValidacion.DNI_DUPLICADO;
+    }
+
+    /**
+     * Cambia el email de un cliente en el índice si el nuevo no lo usa otro cliente.
+     *
+     * @param cliente El cliente.
+     * @param anterior El email actual del cliente.
+     * @param nuevo El nuevo email.
+     * @return {@link ResultadoValidacion#VALIDO} o {@link ResultadoValidacion#EMAIL_DUPLICADO}.
+     */
+    ResultadoValidacion cambiarEmail(Cliente cliente, String anterior, String nuevo) {
+        return cambiar(porEmail, cliente, normalizarEmail(anterior), normalizarEmail(nuevo))
+                ? ResultadoValidacion.VALIDO : ResultadoValidacion.EMAIL_DUPLICADO;
+    }
+
+    /**
+     * Busca un cliente por su DNI.
+     *
+     * @param dni El DNI, sin distinguir mayúsculas ni espacios alrededor.
+     * @return El cliente, o null si ninguno tiene ese DNI.
+     */
+    Cliente buscarPorDni(String dni) {
+        return dni == null ? null : porDni.get(normalizarDni(dni));
+    }
+
+    /**
+     * Busca un cliente por su email.
+     *
+     * @param email El email, sin distinguir mayúsculas ni espacios alrededor.
+     * @return El cliente, o null si ninguno tiene ese email.
+     */
+    Cliente buscarPorEmail(String email) {
+        return email == null ? null : porEmail.get(normalizarEmail(email));
+    }
+
+    /**
+     * Busca los clientes cuyo nombre contiene palabras que empiezan por las de un texto.
+     *
+     * @param texto El texto buscado, sin distinguir mayúsculas ni tildes.
+     * @param maximo El número máximo de IDs a devolver.
+     * @return Los IDs de los clientes encontrados, de menor a mayor.
+     */
+    List<Integer> buscarPorNombre(String texto, int maximo) {
+        return nombres.buscarPorPrefijo(texto, maximo);
+    }
+
+    /**
+     * Busca los clientes cuyo nombre se parece a un texto, admitiendo erratas.
+     *
+     * @param texto El texto buscado, sin distinguir mayúsculas ni tildes.
+     * @param maximo El número máximo de IDs a devolver.
+     * @return Los IDs de los clientes encontrados, de más a menos parecido.
+     */
+    List<Integer> buscarPorNombreAproximado(String texto, int maximo) {
+        return nombres.buscarAproximado(texto, maximo);
+    }
+
+    private static boolean cambiar(Map<String, Cliente> indice, Cliente cliente, String anterior, String nuevo) {
+        if (nuevo.equals(anterior)) {
+            return true;
+        }
+        Cliente actual = indice.putIfAbsent(nuevo, cliente);
+        if (actual != null && actual != cliente) {
+            return false;
+        }
+        indice.remove(anterior, cliente);
+        return true;
+    }
+
+    private static String normalizarDni(String dni) {
+        return dni.strip().toUpperCase(Locale.ROOT);
+    }
+
+    private static String normalizarEmail(String email) {
+        return email.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,433 @@
+package org.ed06.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Índice de las habitaciones de un hotel por número y por tipo.
+ *
+ * <p>Las habitaciones se guardan en una tabla indexada por su número, de modo que obtener la
+ * habitación #N es O(1). Además, para cada {@link Habitacion.RoomType} se mantiene la tabla de
+ * habitaciones de ese tipo y un {@link BitSet} con las que no tienen ninguna reserva pendiente:
+ * esas habitaciones están libres para cualquier rango de fechas futuro y se pueden elegir sin
+ * consultar su calendario. Solo cuando no queda ninguna se recorren las habitaciones del tipo
+ * pedido. Una habitación vuelve al {@link BitSet} cuando se cancela o termina su última reserva
+ * pendiente.</p>
+ *
+ * <p>Para cada tipo se cuenta también cuántas habitaciones hay reservadas cada noche con una
+ * {@link OcupacionDiaria}. Con esos contadores se responde en O(log días) cuántas habitaciones
+ * quedan libres una noche o en un rango de fechas, y se descarta sin buscar habitación una
+ * reserva para la que alguna noche ya no queda ninguna libre. Los contadores se actualizan
+ * después de reclamar una habitación y antes de liberarla, así que nunca cuentan más reservas de
+ * las que hay: como mucho, durante un instante, dan por libre una habitación que no lo está, y
+ * entonces la búsqueda en los calendarios decide.</p>
+ *
+ * <p>El índice admite accesos concurrentes. Los registros de habitaciones se serializan sobre el
+ * propio índice, pero las lecturas no toman ningún cerrojo: las tablas publican cada habitación
+ * antes de incrementar su tamaño volátil. Las reservas se reparten en cerrojos independientes:
+ * uno por tipo para el {@link BitSet} y uno por habitación para su calendario, de forma que dos
+ * reservas de habitaciones distintas nunca compiten entre sí.</p>
+ */
+class IndiceHabitaciones {
+
+    /** Habitaciones indexadas por número (la habitación #N ocupa la posición N - 1) */
+    private final TablaHabitaciones porNumero = new TablaHabitaciones();
+
+    /** Habitaciones de cada tipo, en orden de registro */
+    private final Map<Habitacion.RoomType, TablaHabitaciones> porTipo = new EnumMap<>(Habitacion.RoomType.class);
+
+    /** Números de las habitaciones de cada tipo que no tienen ninguna reserva pendiente */
+    private final Map<Habitacion.RoomType, BitSet> sinReservas = new EnumMap<>(Habitacion.RoomType.class);
+
+    /** Número de habitaciones de cada tipo reservadas cada noche */
+    private final Map<Habitacion.RoomType, OcupacionDiaria> ocupacion = new EnumMap<>(Habitacion.RoomType.class);
+
+    /**
+     * Crea un índice vacío con una entrada para cada tipo de habitación.
+     */
+    IndiceHabitaciones() {
+        for (Habitacion.RoomType tipo : Habitacion.RoomType.values()) {
+            porTipo.put(tipo, new TablaHabitaciones());
+            sinReservas.put(tipo, new BitSet());
+            ocupacion.put(tipo, new OcupacionDiaria());
+        }
+    }
+
+    /**
+     * Crea y añade al índice una habitación con el siguiente número libre.
+     *
+     * @param tipo El tipo de habitación.
+     * @param precioBase El precio base de la habitación.
+     * @param antesDePublicar Acción que recibe la habitación antes de que sea visible en el índice.
+     * @return La habitación creada.
+     */
+    synchronized Habitacion registrar(Habitacion.RoomType tipo, double precioBase,
+                                      Consumer<Habitacion> antesDePublicar) {
+        Habitacion habitacion = new Habitacion(porNumero.tamano() + 1, tipo, precioBase);
+        antesDePublicar.accept(habitacion);
+        porNumero.anadir(habitacion);
+        porTipo.get(tipo).anadir(habitacion);
+        BitSet libres = sinReservas.get(tipo);
+        synchronized (libres) {
+            libres.set(habitacion.getNumero());
+        }
+        return habitacion;
+    }
+
+    /**
+     * Añade al índice una habitación con un número concreto, al reconstruir un hotel guardado.
+     *
+     * @param numero El número de la habitación, que debe ser el siguiente número libre.
+     * @param tipo El tipo de habitación.
+     * @param precioBase El precio base de la habitación.
+     * @return La habitación creada.
+     * @throws IllegalStateException Si el número no es el siguiente número libre.
+     */
+    synchronized Habitacion restaurar(int numero, Habitacion.RoomType tipo, double precioBase) {
+        if (numero != porNumero.tamano() + 1) {
+            throw new IllegalStateException("Se esperaba la habitación #" + (porNumero.tamano() + 1)
+                    + " y se ha recibido la #" + numero);
+        }
+        return registrar(tipo, precioBase, habitacion -> { });
+    }
+
+    /**
+     * Obtiene una habitación por su número.
+     *
+     * @param numero El número de la habitación.
+     * @return La habitación, o null si no existe.
+     */
+    Habitacion get(int numero) {
+        return porNumero.get(numero - 1);
+    }
+
+    /**
+     * Obtiene el número de habitaciones registradas.
+     *
+     * @return El número de habitaciones.
+     */
+    int tamano() {
+        return porNumero.tamano();
+    }
+
+    /**
+     * Reserva la primera habitación del tipo pedido que esté libre entre dos fechas.
+     * <p>
+     * Si alguna noche de la estancia no queda ninguna habitación libre del tipo, se devuelve null
+     * sin buscar. Cada candidata se reclama de forma atómica sobre su calendario; si otro hilo la
+     * ha ocupado entre la comprobación y la reserva, se sigue buscando con la siguiente. La
+     * fábrica solo se invoca una vez reclamadas las fechas, así que los intentos fallidos no
+     * consumen IDs de reserva ni calculan precios.
+     * </p>
+     *
+     * @param tipo El tipo de habitación.
+     * @param fechaEntrada La fecha de entrada.
+     * @param fechaSalida La fecha de salida.
+     * @param fabrica Función que crea la reserva para la habitación elegida, con el calendario de
+     *                la habitación bloqueado.
+     * @return La reserva realizada, o null si no hay ninguna habitación libre.
+     */
+    Reserva reservarLibre(Habitacion.RoomType tipo, LocalDate fechaEntrada, LocalDate fechaSalida,
+                          Function<Habitacion, Reserva> fabrica) {
+        if (getMinimoLibres(tipo, fechaEntrada, fechaSalida) == 0) {
+            return null;
+        }
+        Habitacion nueva = tomarSinReservas(tipo);
+        if (nueva != null) {
+            Reserva reserva = nueva.reservar(fechaEntrada, fechaSalida, fabrica);
+            if (reserva != null) {
+                contarReserva(reserva);
+                return reserva;
+            }
+        }
+        TablaHabitaciones habitaciones = porTipo.get(tipo);
+        int tamano = habitaciones.tamano();
+        for (int i = 0; i < tamano; i++) {
+            Habitacion habitacion = habitaciones.get(i);
+            if (habitacion.estaDisponible(fechaEntrada, fechaSalida)) {
+                Reserva reserva = habitacion.reservar(fechaEntrada, fechaSalida, fabrica);
+                if (reserva != null) {
+                    marcarReservada(habitacion);
+                    contarReserva(reserva);
+                    return reserva;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Busca las habitaciones más baratas de un tipo que estén libres entre dos fechas.
+     * <p>
+     * Se consulta el calendario de cada habitación del tipo en O(log n) y se conservan solo las
+     * {@code maximo} de menor precio base en un montículo, sin ordenar todas las libres. Nunca se
+     * buscan más habitaciones de las que quedan libres la noche más ocupada de la estancia.
+     * </p>
+     *
+     * @param tipo El tipo de habitación.
+     * @param fechaEntrada La fecha de entrada.
+     * @param fechaSalida La fecha de salida.
+     * @param maximo El número máximo de habitaciones a devolver.
+     * @return Las habitaciones libres ordenadas por precio base y, a igual precio, por número.
+     */
+    List<Habitacion> buscarLibres(Habitacion.RoomType tipo, LocalDate fechaEntrada, LocalDate fechaSalida,
+                                  int maximo) {
+        maximo = Math.min(maximo, getMinimoLibres(tipo, fechaEntrada, fechaSalida));
+        if (maximo == 0) {
+            return new ArrayList<>();
+        }
+        Comparator<Habitacion> porPrecio = Comparator.comparingLong(Habitacion::getPrecioBaseCentimos)
+                .thenComparingInt(Habitacion::getNumero);
+        PriorityQueue<Habitacion> masBaratas = new PriorityQueue<>(maximo, porPrecio.reversed());
+        TablaHabitaciones habitaciones = porTipo.get(tipo);
+        int tamano = habitaciones.tamano();
+        for (int i = 0; i < tamano; i++) {
+            Habitacion habitacion = habitaciones.get(i);
+            if (masBaratas.size() == maximo && porPrecio.compare(habitacion, masBaratas.peek()) >= 0) {
+                continue;
+            }
+            if (habitacion.estaDisponible(fechaEntrada, fechaSalida)) {
+                masBaratas.add(habitacion);
+                if (masBaratas.size() > maximo) {
+                    masBaratas.poll();
+                }
+            }
+        }
+        List<Habitacion> resultado = new ArrayList<>(masBaratas);
+        resultado.sort(porPrecio);
+        return resultado;
+    }
+
+    /**
+     * Calcula el porcentaje de habitaciones de un tipo ocupadas la noche de un día.
+     *
+     * @param tipo El tipo de habitación.
+     * @param dia El día de la noche consultada.
+     * @return El porcentaje de ocupación redondeado hacia abajo, o 0 si no hay habitaciones del tipo.
+     */
+    int porcentajeOcupacion(Habitacion.RoomType tipo, LocalDate dia) {
+        int tamano = porTipo.get(tipo).tamano();
+        if (tamano == 0) {
+            return 0;
+        }
+        return Math.min(ocupacion.get(tipo).getReservadas(dia), tamano) * 100 / tamano;
+    }
+
+    /**
+     * Cuenta las habitaciones de un tipo libres la noche de un día.
+     *
+     * @param tipo El tipo de habitación.
+     * @param dia El día de la noche consultada.
+     * @return El número de habitaciones libres.
+     */
+    int getLibres(Habitacion.RoomType tipo, LocalDate dia) {
+        return Math.max(porTipo.get(tipo).tamano() - ocupacion.get(tipo).getReservadas(dia), 0);
+    }
+
+    /**
+     * Obtiene el menor número de habitaciones de un tipo libres en una misma noche entre dos
+     * fechas. Es una cota superior de las habitaciones que se pueden reservar para toda la estancia.
+     *
+     * @param tipo El tipo de habitación.
+     * @param desde El primer día.
+     * @param hasta El día siguiente a la última noche.
+     * @return El número de habitaciones libres la noche más ocupada del rango.
+     */
+    int getMinimoLibres(Habitacion.RoomType tipo, LocalDate desde, LocalDate hasta) {
+        return Math.max(porTipo.get(tipo).tamano() - ocupacion.get(tipo).getMaximoReservadas(desde, hasta), 0);
+    }
+
+    /**
+     * Cuenta las noches-habitación de un tipo libres entre dos fechas.
+     *
+     * @param tipo El tipo de habitación.
+     * @param desde El primer día.
+     * @param hasta El día siguiente a la última noche.
+     * @return La suma, para cada noche del rango, de las habitaciones libres esa noche.
+     */
+    long getNochesLibres(Habitacion.RoomType tipo, LocalDate desde, LocalDate hasta) {
+        long noches = Math.max(hasta.toEpochDay() - desde.toEpochDay(), 0);
+        return Math.max(porTipo.get(tipo).tamano() * noches - ocupacion.get(tipo).getNochesReservadas(desde, hasta), 0);
+    }
+
+    /**
+     * Reserva una habitación concreta, elegida por el cliente o al reconstruir un hotel guardado.
+     *
+     * @param habitacion La habitación a reservar.
+     * @param reserva La reserva a registrar.
+     * @return true si se ha reservado, false si las fechas ya estaban ocupadas.
+     */
+    boolean reservarEn(Habitacion habitacion, Reserva reserva) {
+        if (!habitacion.reservar(reserva)) {
+            return false;
+        }
+        marcarReservada(habitacion);
+        contarReserva(reserva);
+        return true;
+    }
+
+    /**
+     * Reserva una habitación concreta creando la reserva solo si sus fechas están libres.
+     * <p>
+     * Como en {@link #reservarLibre}, la fábrica se invoca con las fechas ya reclamadas, así que un
+     * intento fallido no consume un ID de reserva ni calcula el precio.
+     * </p>
+     *
+     * @param habitacion La habitación a reservar.
+     * @param fechaEntrada La fecha de entrada.
+     * @param fechaSalida La fecha de salida.
+     * @param fabrica Función que crea la reserva para la habitación, con su calendario bloqueado.
+     * @return La reserva realizada, o null si las fechas ya estaban ocupadas.
+     */
+    Reserva reservarEn(Habitacion habitacion, LocalDate fechaEntrada, LocalDate fechaSalida,
+                       Function<Habitacion, Reserva> fabrica) {
+        Reserva reserva = habitacion.reservar(fechaEntrada, fechaSalida, fabrica);
+        if (reserva == null) {
+            return null;
+        }
+        marcarReservada(habitacion);
+        contarReserva(reserva);
+        return reserva;
+    }
+
+    /**
+     * Cancela una reserva de una habitación y, si la habitación se queda sin reservas pendientes,
+     * la devuelve al {@link BitSet} de su tipo.
+     *
+     * @param habitacion La habitación de la reserva.
+     * @param reserva La reserva a cancelar.
+     * @param hoy El día actual.
+     * @param antesDeLiberar Acción que recibe la reserva antes de que sus fechas queden libres.
+     * @return true si se ha cancelado, false si la reserva no estaba en la habitación.
+     */
+    boolean cancelarEn(Habitacion habitacion, Reserva reserva, LocalDate hoy, Consumer<Reserva> antesDeLiberar) {
+        antesDeLiberar.accept(reserva);
+        // Se descuenta antes de liberar las fechas para no contar nunca más reservas de las que hay
+        OcupacionDiaria noches = ocupacion.get(habitacion.getTipo());
+        noches.cancelar(reserva.getFechaInicio(), reserva.getFechaFin());
+        if (!habitacion.cancelar(reserva)) {
+            noches.reservar(reserva.getFechaInicio(), reserva.getFechaFin());
+            return false;
+        }
+        liberar(habitacion, hoy);
+        return true;
+    }
+
+    /**
+     * Devuelve una habitación al {@link BitSet} de su tipo si no tiene reservas pendientes a
+     * partir de un día.
+     * <p>
+     * Si otro hilo reserva la habitación justo después de la comprobación, el bit queda marcado
+     * aunque tenga una reserva; {@link #reservarLibre} lo tolera, porque siempre reclama la
+     * habitación sobre su calendario y, si falla, sigue buscando.
+     * </p>
+     *
+     * @param habitacion La habitación.
+     * @param dia El día a partir del cual debe estar libre.
+     * @return true si la habitación está en el {@link BitSet}, false si tiene reservas pendientes.
+     */
+    boolean liberar(Habitacion habitacion, LocalDate dia) {
+        if (!habitacion.estaLibreDesde(dia)) {
+            return false;
+        }
+        BitSet libres = sinReservas.get(habitacion.getTipo());
+        synchronized (libres) {
+            libres.set(habitacion.getNumero());
+        }
+        return true;
+    }
+
+    /**
+     * Extrae del {@link BitSet} del tipo una habitación sin reservas pendientes, si la hay.
+     *
+     * @param tipo El tipo de habitación.
+     * @return La habitación extraída, o null si todas las habitaciones del tipo tienen reservas pendientes.
+     */
+    private Habitacion tomarSinReservas(Habitacion.RoomType tipo) {
+        BitSet libres = sinReservas.get(tipo);
+        synchronized (libres) {
+            int numero = libres.nextSetBit(0);
+            if (numero < 0) {
+                return null;
+            }
+            libres.clear(numero);
+            return get(numero);
+        }
+    }
+
+    /**
+     * Cuenta una reserva ya registrada en el calendario de su habitación en las noches de su tipo.
+     *
+     * @param reserva La reserva.
+     */
+    private void contarReserva(Reserva reserva) {
+        ocupacion.get(reserva.getTipoHabitacion()).reservar(reserva.getFechaInicio(), reserva.getFechaFin());
+    }
+
+    /**
+     * Actualiza el índice después de que una habitación haya recibido una reserva.
+     *
+     * @param habitacion La habitación reservada.
+     */
+    private void marcarReservada(Habitacion habitacion) {
+        BitSet libres = sinReservas.get(habitacion.getTipo());
+        synchronized (libres) {
+            libres.clear(habitacion.getNumero());
+        }
+    }
+
+    /**
+     * Tabla de habitaciones de solo inserción que admite lecturas concurrentes sin cerrojos.
+     * <p>
+     * Las inserciones deben estar serializadas por quien la usa. El array se sustituye por uno
+     * mayor cuando se llena y el tamaño se publica siempre después del array y del elemento.
+     * </p>
+     */
+    private static class TablaHabitaciones {
+        private volatile Habitacion[] elementos = new Habitacion[16];
+        private volatile int tamano;
+
+        /**
+         * Añade una habitación al final de la tabla.
+         *
+         * @param habitacion La habitación a añadir.
+         */
+        void anadir(Habitacion habitacion) {
+            Habitacion[] actual = elementos;
+            if (tamano == actual.length) {
+                actual = Arrays.copyOf(actual, actual.length * 2);
+            }
+            actual[tamano] = habitacion;
+            elementos = actual;
+            tamano++;
+        }
+
+        /**
+         * Obtiene la habitación de una posición.
+         *
+         * @param posicion La posición en la tabla.
+         * @return La habitación, o null si la posición está fuera de la tabla.
+         */
+        Habitacion get(int posicion) {
+            return posicion >= 0 && posicion < tamano ? elementos[posicion] : null;
+        }
+
+        /**
+         * Obtiene el número de habitaciones de la tabla.
+         *
+         * @return El número de habitaciones.
+         */
+        int tamano() {
+            return tamano;
+        }
+    }
+}
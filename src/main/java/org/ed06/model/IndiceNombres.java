@@ -0,0 +1,511 @@
+package org.ed06.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice de búsqueda de clientes por nombre.
+ *
+ * <p>Los nombres se normalizan antes de indexarlos: se pasan a minúsculas, se les quitan las tildes
+ * y diéresis ("Adrián" se indexa como "adrian") y se dividen en palabras. Las palabras distintas se
+ * guardan en un trie, y cada palabra tiene la lista ordenada de IDs de los clientes cuyo nombre la
+ * contiene. Cada nodo del trie sabe además cuántos clientes cuelgan de él, lo que permite empezar
+ * siempre por la palabra de la consulta más selectiva sin recorrer las demás.</p>
+ *
+ * <p>Se admiten dos tipos de consulta, en las que cada palabra buscada debe coincidir con alguna
+ * palabra del nombre:</p>
+ * <ul>
+ *     <li>Por prefijo: cada palabra buscada es el principio de una palabra del nombre.</li>
+ *     <li>Aproximada: cada palabra buscada se parece al principio de una palabra del nombre con
+ *     hasta {@link #erroresPermitidos(int)} errores (letras cambiadas, sobrantes o que faltan). El
+ *     trie se recorre calculando la distancia de edición fila a fila y se abandona cada rama en
+ *     cuanto supera el máximo, así que solo se visitan las palabras parecidas.</li>
+ * </ul>
+ *
+ * <p>Los candidatos salen de la palabra buscada más selectiva, primero los que coinciden con menos
+ * errores y, con los mismos errores, mezclando en orden las listas de IDs. Así la consulta termina
+ * en cuanto ningún candidato pendiente puede entrar entre los resultados pedidos, sin recorrer
+ * todos los clientes que coinciden.</p>
+ *
+ * <p>Las consultas se ejecutan a la vez entre sí; los cambios de nombre se serializan con un
+ * cerrojo de escritura que solo dura la actualización de unas pocas listas.</p>
+ */
+final class IndiceNombres {
+
+    /** Errores máximos que admite la búsqueda aproximada en una palabra */
+    private static final int MAXIMO_ERRORES = 2;
+
+    private final Nodo raiz = new Nodo();
+
+    /** Palabras normalizadas del nombre de cada cliente indexado, por ID */
+    private String[][] palabras = new String[16][];
+
+    private final ReadWriteLock cerrojo = new ReentrantReadWriteLock();
+
+    /**
+     * Indexa el nombre de un cliente, sustituyendo el que tuviera.
+     *
+     * @param id El ID del cliente.
+     * @param nombre El nombre del cliente.
+     */
+    void indexar(int id, String nombre) {
+        String[] nuevas = normalizar(nombre);
+        cerrojo.writeLock().lock();
+        try {
+            if (id >= palabras.length) {
+                palabras = Arrays.copyOf(palabras, Math.max(id + 1, palabras.length * 2));
+            }
+            String[] anteriores = palabras[id];
+            if (anteriores != null) {
+                for (String palabra : anteriores) {
+                    raiz.eliminar(palabra, 0, id);
+                }
+            }
+            // Se guardan las palabras del trie para no repetir la misma cadena en cada cliente
+            for (int i = 0; i < nuevas.length; i++) {
+                nuevas[i] = raiz.anadir(nuevas[i], 0, id);
+            }
+            palabras[id] = nuevas;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca los clientes cuyo nombre contiene palabras que empiezan por las de un texto.
+     *
+     * @param texto El texto buscado.
+     * @param maximo El número máximo de IDs a devolver.
+     * @return Los IDs de los clientes encontrados, de menor a mayor.
+     */
+    List<Integer> buscarPorPrefijo(String texto, int maximo) {
+        return buscar(normalizar(texto), maximo, false);
+    }
+
+    /**
+     * Busca los clientes cuyo nombre contiene palabras parecidas a las de un texto, admitiendo
+     * erratas.
+     *
+     * @param texto El texto buscado.
+     * @param maximo El número máximo de IDs a devolver.
+     * @return Los IDs de los clientes encontrados, primero los que menos errores necesitan y, a
+     *         igual número de errores, de menor a mayor.
+     */
+    List<Integer> buscarAproximado(String texto, int maximo) {
+        return buscar(normalizar(texto), maximo, true);
+    }
+
+    /**
+     * Obtiene el número de errores que se admiten en una palabra buscada de forma aproximada: ninguno
+     * hasta 2 letras, 1 hasta 5 letras y 2 a partir de 6.
+     *
+     * @param longitud La longitud de la palabra buscada.
+     * @return El número de errores admitidos.
+     */
+    static int erroresPermitidos(int longitud) {
+        return longitud <= 2 ? 0 : longitud <= 5 ? 1 : MAXIMO_ERRORES;
+    }
+
+    /**
+     * Normaliza un nombre y lo divide en palabras.
+     *
+     * @param nombre El nombre.
+     * @return Las palabras del nombre en minúsculas y sin tildes, en orden y sin repetir.
+     */
+    static String[] normalizar(String nombre) {
+        String sinTildes = Normalizer.normalize(nombre, Normalizer.Form.NFD);
+        Set<String> resultado = new LinkedHashSet<>();
+        StringBuilder palabra = new StringBuilder();
+        for (int i = 0; i <= sinTildes.length(); i++) {
+            char c = i < sinTildes.length() ? sinTildes.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                palabra.append(Character.toLowerCase(c));
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && !palabra.isEmpty()) {
+                resultado.add(palabra.toString());
+                palabra.setLength(0);
+            }
+        }
+        return resultado.toArray(new String[0]);
+    }
+
+    private List<Integer> buscar(String[] consulta, int maximo, boolean aproximada) {
+        if (consulta.length == 0) {
+            return new ArrayList<>();
+        }
+        cerrojo.readLock().lock();
+        try {
+            // Se empieza por la palabra buscada que menos clientes encuentra
+            List<List<Nodo>> guias = null;
+            int guia = -1;
+            long candidatos = Long.MAX_VALUE;
+            int[] erroresMinimos = new int[consulta.length];
+            for (int i = 0; i < consulta.length; i++) {
+                List<List<Nodo>> porErrores = coincidencias(consulta[i], aproximada);
+                long total = 0;
+                erroresMinimos[i] = -1;
+                for (int errores = 0; errores < porErrores.size(); errores++) {
+                    for (Nodo nodo : porErrores.get(errores)) {
+                        total += nodo.clientes;
+                    }
+                    if (erroresMinimos[i] < 0 && total > 0) {
+                        erroresMinimos[i] = errores;
+                    }
+                }
+                if (total == 0) {
+                    return new ArrayList<>();
+                }
+                if (total < candidatos) {
+                    guias = porErrores;
+                    guia = i;
+                    candidatos = total;
+                }
+            }
+            // Errores que suman como mínimo las demás palabras en cualquier candidato
+            int erroresResto = 0;
+            for (int i = 0; i < consulta.length; i++) {
+                erroresResto += i == guia ? 0 : erroresMinimos[i];
+            }
+            return mejores(consulta, guia, guias, erroresResto, (int) Math.min(maximo, candidatos), aproximada);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene los nodos del trie cuyo prefijo coincide con una palabra buscada.
+     *
+     * @param palabra La palabra buscada.
+     * @param aproximada Si se admiten errores o solo el prefijo exacto.
+     * @return Para cada número de errores, desde 0, los nodos que coinciden con esos errores.
+     */
+    private List<List<Nodo>> coincidencias(String palabra, boolean aproximada) {
+        int errores = aproximada ? erroresPermitidos(palabra.length()) : 0;
+        List<List<Nodo>> resultado = new ArrayList<>();
+        for (int d = 0; d <= errores; d++) {
+            resultado.add(new ArrayList<>());
+        }
+        if (errores == 0) {
+            Nodo nodo = raiz.buscar(palabra);
+            if (nodo != null) {
+                resultado.get(0).add(nodo);
+            }
+            return resultado;
+        }
+        int[] fila = new int[palabra.length() + 1];
+        for (int j = 0; j < fila.length; j++) {
+            fila[j] = j;
+        }
+        for (Map.Entry<Character, Nodo> hijo : raiz.hijos.entrySet()) {
+            recorrer(hijo.getValue(), hijo.getKey(), palabra, fila, errores, resultado);
+        }
+        return resultado;
+    }
+
+    /**
+     * Recorre el trie calculando la distancia de edición entre la palabra buscada y cada prefijo.
+     * Cuando un prefijo está a una distancia admitida, todas las palabras que cuelgan de él
+     * coinciden; se sigue bajando solo por si un prefijo más largo necesita menos errores.
+     */
+    private void recorrer(Nodo nodo, char letra, String palabra, int[] anterior, int errores,
+                          List<List<Nodo>> resultado) {
+        int[] fila = new int[anterior.length];
+        fila[0] = anterior[0] + 1;
+        int minimo = fila[0];
+        for (int j = 1; j < fila.length; j++) {
+            int sustitucion = anterior[j - 1] + (palabra.charAt(j - 1) == letra ? 0 : 1);
+            fila[j] = Math.min(sustitucion, Math.min(anterior[j], fila[j - 1]) + 1);
+            minimo = Math.min(minimo, fila[j]);
+        }
+        if (minimo > errores) {
+            return;
+        }
+        int distancia = fila[palabra.length()];
+        if (distancia <= errores) {
+            resultado.get(distancia).add(nodo);
+            if (distancia == 0) {
+                return;
+            }
+            errores = distancia - 1;
+        }
+        for (Map.Entry<Character, Nodo> hijo : nodo.hijos.entrySet()) {
+            recorrer(hijo.getValue(), hijo.getKey(), palabra, fila, errores, resultado);
+        }
+    }
+
+    /**
+     * Elige los mejores clientes entre los que encuentra la palabra guía.
+     *
+     * @param consulta Las palabras buscadas.
+     * @param guia La posición de la palabra guía.
+     * @param porErrores Los nodos que coinciden con la palabra guía, por número de errores.
+     * @param erroresResto Los errores que suman como mínimo las demás palabras buscadas.
+     * @param maximo El número máximo de IDs a devolver, como mucho el de candidatos.
+     * @param aproximada Si se admiten errores en las demás palabras.
+     * @return Los IDs, primero los de menos errores en total y, a igualdad, de menor a mayor.
+     */
+    private List<Integer> mejores(String[] consulta, int guia, List<List<Nodo>> porErrores, int erroresResto,
+                                  int maximo, boolean aproximada) {
+        // Montículo con el peor resultado arriba: {errores, id}
+        PriorityQueue<int[]> mejores = new PriorityQueue<>(maximo + 1,
+                (a, b) -> a[0] != b[0] ? Integer.compare(b[0], a[0]) : Integer.compare(b[1], a[1]));
+        Set<Integer> vistos = porErrores.size() > 1 ? new HashSet<>() : null;
+        for (int errores = 0; errores < porErrores.size(); errores++) {
+            MezclaIds mezcla = new MezclaIds(porErrores.get(errores));
+            for (int id = mezcla.siguiente(); id >= 0; id = mezcla.siguiente()) {
+                if (mejores.size() == maximo) {
+                    // Los candidatos pendientes tienen al menos estos errores y un ID mayor
+                    int[] peor = mejores.peek();
+                    int minimo = errores + erroresResto;
+                    if (peor[0] < minimo || peor[0] == minimo && peor[1] < id) {
+                        break;
+                    }
+                }
+                if (vistos != null && !vistos.add(id)) {
+                    continue;
+                }
+                int resto = distancia(palabras[id], consulta, guia, aproximada);
+                if (resto < 0) {
+                    continue;
+                }
+                mejores.add(new int[] {errores + resto, id});
+                if (mejores.size() > maximo) {
+                    mejores.poll();
+                }
+            }
+        }
+        Integer[] resultado = new Integer[mejores.size()];
+        for (int i = resultado.length - 1; i >= 0; i--) {
+            resultado[i] = mejores.poll()[1];
+        }
+        return Arrays.asList(resultado);
+    }
+
+    /**
+     * Calcula los errores con los que las palabras buscadas, salvo la guía, coinciden con palabras
+     * de un nombre.
+     *
+     * @param nombre Las palabras del nombre.
+     * @param consulta Las palabras buscadas.
+     * @param guia La posición de la palabra buscada que ya se ha comprobado.
+     * @param aproximada Si se admiten errores o solo prefijos exactos.
+     * @return La suma de los errores, o -1 si alguna palabra buscada no coincide con ninguna.
+     */
+    private static int distancia(String[] nombre, String[] consulta, int guia, boolean aproximada) {
+        if (nombre == null) {
+            return -1;
+        }
+        int total = 0;
+        for (int i = 0; i < consulta.length; i++) {
+            if (i == guia) {
+                continue;
+            }
+            int errores = aproximada ? erroresPermitidos(consulta[i].length()) : 0;
+            int minimo = Integer.MAX_VALUE;
+            for (String palabra : nombre) {
+                minimo = Math.min(minimo, distanciaPrefijo(consulta[i], palabra, errores));
+            }
+            if (minimo > errores) {
+                return -1;
+            }
+            total += minimo;
+        }
+        return total;
+    }
+
+    /**
+     * Calcula la menor distancia de edición entre una palabra buscada y algún prefijo de otra.
+     *
+     * @param buscada La palabra buscada.
+     * @param palabra La palabra del nombre.
+     * @param errores El máximo de errores admitido.
+     * @return La distancia, o un valor mayor que {@code errores} si se supera.
+     */
+    private static int distanciaPrefijo(String buscada, String palabra, int errores) {
+        if (errores == 0) {
+            return palabra.startsWith(buscada) ? 0 : 1;
+        }
+        int[] fila = new int[buscada.length() + 1];
+        for (int j = 0; j < fila.length; j++) {
+            fila[j] = j;
+        }
+        int mejor = fila[buscada.length()];
+        for (int i = 0; i < palabra.length() && mejor > 0; i++) {
+            int diagonal = fila[0];
+            fila[0] = i + 1;
+            int minimo = fila[0];
+            for (int j = 1; j < fila.length; j++) {
+                int arriba = fila[j];
+                fila[j] = Math.min(diagonal + (buscada.charAt(j - 1) == palabra.charAt(i) ? 0 : 1),
+                        Math.min(arriba, fila[j - 1]) + 1);
+                diagonal = arriba;
+                minimo = Math.min(minimo, fila[j]);
+            }
+            mejor = Math.min(mejor, fila[buscada.length()]);
+            if (minimo > errores) {
+                break;
+            }
+        }
+        return mejor;
+    }
+
+    /**
+     * Nodo del trie de palabras.
+     */
+    private static final class Nodo {
+        private final TreeMap<Character, Nodo> hijos = new TreeMap<>();
+
+        /** IDs ordenados de los clientes cuyo nombre contiene la palabra que termina en el nodo */
+        private int[] ids = new int[0];
+        private int tamano;
+
+        /** Número de entradas de {@link #ids} en el nodo y todos sus descendientes */
+        private long clientes;
+
+        /** Menor ID del nodo y de todos sus descendientes */
+        private int minimo = Integer.MAX_VALUE;
+
+        /** La palabra que termina en el nodo, si algún cliente la tiene */
+        private String palabra;
+
+        Nodo buscar(String palabra) {
+            Nodo nodo = this;
+            for (int i = 0; i < palabra.length() && nodo != null; i++) {
+                nodo = nodo.hijos.get(palabra.charAt(i));
+            }
+            return nodo;
+        }
+
+        String anadir(String palabra, int posicion, int id) {
+            clientes++;
+            minimo = Math.min(minimo, id);
+            if (posicion < palabra.length()) {
+                return hijos.computeIfAbsent(palabra.charAt(posicion), c -> new Nodo()).anadir(palabra, posicion + 1, id);
+            }
+            if (this.palabra == null) {
+                this.palabra = palabra;
+            }
+            // Los IDs nuevos suelen ser los mayores: el caso habitual añade al final sin desplazar
+            int hueco = tamano > 0 && ids[tamano - 1] > id ? -Arrays.binarySearch(ids, 0, tamano, id) - 1 : tamano;
+            if (tamano == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(4, tamano * 2));
+            }
+            System.arraycopy(ids, hueco, ids, hueco + 1, tamano - hueco);
+            ids[hueco] = id;
+            tamano++;
+            return this.palabra;
+        }
+
+        void eliminar(String palabra, int posicion, int id) {
+            clientes--;
+            if (posicion < palabra.length()) {
+                char letra = palabra.charAt(posicion);
+                Nodo hijo = hijos.get(letra);
+                hijo.eliminar(palabra, posicion + 1, id);
+                if (hijo.clientes == 0) {
+                    hijos.remove(letra);
+                }
+            } else {
+                int hueco = Arrays.binarySearch(ids, 0, tamano, id);
+                System.arraycopy(ids, hueco + 1, ids, hueco, tamano - hueco - 1);
+                if (--tamano == 0) {
+                    this.palabra = null;
+                }
+            }
+            if (minimo == id) {
+                minimo = tamano > 0 ? ids[0] : Integer.MAX_VALUE;
+                for (Nodo hijo : hijos.values()) {
+                    minimo = Math.min(minimo, hijo.minimo);
+                }
+            }
+        }
+    }
+
+    /**
+     * Mezcla las listas ordenadas de IDs de varios nodos y de todos sus descendientes, y devuelve
+     * los IDs de menor a mayor y sin repetir.
+     * <p>
+     * Los subárboles se abren a medida que se necesitan: el montículo guarda cada subárbol sin
+     * abrir con su menor ID y solo lo abre, añadiendo su lista y sus hijos, cuando ese ID es el
+     * siguiente. Obtener los primeros IDs no recorre las palabras cuyos IDs son todos mayores.
+     * </p>
+     */
+    private static final class MezclaIds {
+
+        /** Subárboles sin abrir y listas de IDs en curso, ordenados por su siguiente ID */
+        private final PriorityQueue<Cursor> siguientes = new PriorityQueue<>();
+        private int ultimo = -1;
+
+        MezclaIds(List<Nodo> nodos) {
+            for (Nodo nodo : nodos) {
+                siguientes.add(new Cursor(nodo, false));
+            }
+        }
+
+        /**
+         * Obtiene el siguiente ID.
+         *
+         * @return El siguiente ID, o -1 si no quedan.
+         */
+        int siguiente() {
+            while (!siguientes.isEmpty()) {
+                Cursor cursor = siguientes.poll();
+                if (!cursor.lista) {
+                    if (cursor.nodo.tamano > 0) {
+                        siguientes.add(new Cursor(cursor.nodo, true));
+                    }
+                    for (Nodo hijo : cursor.nodo.hijos.values()) {
+                        // Las cadenas de letras sin palabras tienen el mismo mínimo: se saltan sin pasar por el montículo
+                        while (hijo.tamano == 0 && hijo.hijos.size() == 1) {
+                            hijo = hijo.hijos.firstEntry().getValue();
+                        }
+                        siguientes.add(new Cursor(hijo, false));
+                    }
+                    continue;
+                }
+                int id = cursor.clave;
+                if (++cursor.posicion < cursor.nodo.tamano) {
+                    cursor.clave = cursor.nodo.ids[cursor.posicion];
+                    siguientes.add(cursor);
+                }
+                if (id != ultimo) {
+                    ultimo = id;
+                    return id;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Subárbol sin abrir o posición en la lista de IDs de un nodo.
+         */
+        private static final class Cursor implements Comparable<Cursor> {
+            private final Nodo nodo;
+            private final boolean lista;
+            private int posicion;
+
+            /** El siguiente ID de la lista, o el menor ID del subárbol si no está abierto */
+            private int clave;
+
+            Cursor(Nodo nodo, boolean lista) {
+                this.nodo = nodo;
+                this.lista = lista;
+                this.clave = lista ? nodo.ids[0] : nodo.minimo;
+            }
+
+            @Override
+            public int compareTo(Cursor otro) {
+                return Integer.compare(clave, otro.clave);
+            }
+        }
+    }
+}
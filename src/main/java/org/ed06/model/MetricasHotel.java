@@ -0,0 +1,297 @@
+package org.ed06.model;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * Contadores y latencias de las operaciones de un {@link Hotel}.
+ *
+ * <p>Se activan con {@link Hotel#activarMetricas()}. Mientras están desactivadas, cada operación
+ * del hotel solo comprueba un campo volátil. Activadas, cada operación lee el reloj dos veces y
+ * actualiza un {@link LongAdder} y una cubeta de un {@link HistogramaConcurrente}, sin cerrojos y
+ * sin reservar memoria, por lo que el camino de las reservas no genera basura.</p>
+ *
+ * <p>La ocupación de cada tipo de habitación se calcula al consultarla, no al reservar.</p>
+ */
+public class MetricasHotel implements MetricasHotelMXBean {
+
+    /**
+     * Operaciones del hotel cuya latencia se mide.
+     */
+    public enum Operacion {
+        /** Reserva de una habitación, con éxito o no */
+        RESERVA("reserva"),
+
+        /** Registro de un cliente */
+        REGISTRO_CLIENTE("registro-cliente"),
+
+        /** Consulta de una habitación, un cliente o una reserva por su identificador */
+        CONSULTA("consulta"),
+
+        /** Obtención de una página de un listado */
+        LISTADO("listado");
+
+        private final String nombre;
+
+        Operacion(String nombre) {
+            this.nombre = nombre;
+        }
+
+        /**
+         * Obtiene el nombre de la operación en los volcados.
+         *
+         * @return El nombre de la operación.
+         */
+        public String getNombre() {
+            return nombre;
+        }
+    }
+
+    private static final Operacion[] OPERACIONES = Operacion.values();
+    private static final Habitacion.RoomType[] TIPOS = Habitacion.RoomType.values();
+
+    /** Número de códigos de error de las reservas, de -1 a -4 */
+    private static final int CODIGOS_ERROR = 4;
+
+    private final String nombreHotel;
+    private final ToIntFunction<Habitacion.RoomType> ocupacion;
+    private final LongAdder[] operaciones = new LongAdder[OPERACIONES.length];
+    private final HistogramaConcurrente[] latencias = new HistogramaConcurrente[OPERACIONES.length];
+    private final LongAdder reservasRealizadas = new LongAdder();
+    private final LongAdder[] reservasRechazadas = new LongAdder[CODIGOS_ERROR];
+
+    /**
+     * Crea las métricas de un hotel.
+     *
+     * @param nombreHotel El nombre del hotel, para el nombre del MBean.
+     * @param ocupacion Función que calcula el porcentaje de ocupación de esta noche de un tipo.
+     */
+    MetricasHotel(String nombreHotel, ToIntFunction<Habitacion.RoomType> ocupacion) {
+        this.nombreHotel = nombreHotel;
+        this.ocupacion = ocupacion;
+        for (int i = 0; i < OPERACIONES.length; i++) {
+            operaciones[i] = new LongAdder();
+            latencias[i] = new HistogramaConcurrente();
+        }
+        for (int i = 0; i < CODIGOS_ERROR; i++) {
+            reservasRechazadas[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registra una operación terminada.
+     *
+     * @param operacion La operación.
+     * @param nanos La duración de la operación, en nanosegundos.
+     */
+    void registrar(Operacion operacion, long nanos) {
+        operaciones[operacion.ordinal()].increment();
+        latencias[operacion.ordinal()].registrar(nanos);
+    }
+
+    /**
+     * Registra una reserva terminada, con éxito o no.
+     *
+     * @param resultado El número de la habitación reservada o el código de error negativo.
+     * @param nanos La duración de la reserva, en nanosegundos.
+     */
+    void registrarReserva(int resultado, long nanos) {
+        if (resultado > 0) {
+            reservasRealizadas.increment();
+        } else if (resultado >= -CODIGOS_ERROR) {
+            reservasRechazadas[-resultado - 1].increment();
+        }
+        registrar(Operacion.RESERVA, nanos);
+    }
+
+    /**
+     * Obtiene el número de operaciones de un tipo registradas.
+     *
+     * @param operacion La operación.
+     * @return El número de operaciones.
+     */
+    public long getTotal(Operacion operacion) {
+        return operaciones[operacion.ordinal()].sum();
+    }
+
+    /**
+     * Obtiene un percentil de la latencia de una operación.
+     *
+     * @param operacion La operación.
+     * @param percentil El percentil, entre 0 y 100.
+     * @return La latencia en microsegundos.
+     */
+    public double getLatenciaMicros(Operacion operacion, double percentil) {
+        return latencias[operacion.ordinal()].percentil(percentil) / 1e3;
+    }
+
+    @Override
+    public long getReservasRealizadas() {
+        return reservasRealizadas.sum();
+    }
+
+    @Override
+    public long getReservasSinDisponibilidad() {
+        return reservasRechazadas[0].sum();
+    }
+
+    @Override
+    public long getReservasFechasInvalidas() {
+        return reservasRechazadas[1].sum();
+    }
+
+    @Override
+    public long getReservasClienteInexistente() {
+        return reservasRechazadas[2].sum();
+    }
+
+    @Override
+    public long getReservasSinHabitaciones() {
+        return reservasRechazadas[3].sum();
+    }
+
+    @Override
+    public long getClientesRegistrados() {
+        return getTotal(Operacion.REGISTRO_CLIENTE);
+    }
+
+    @Override
+    public long getConsultas() {
+        return getTotal(Operacion.CONSULTA);
+    }
+
+    @Override
+    public long getPaginasListadas() {
+        return getTotal(Operacion.LISTADO);
+    }
+
+    @Override
+    public double getLatenciaReservaP50Micros() {
+        return getLatenciaMicros(Operacion.RESERVA, 50);
+    }
+
+    @Override
+    public double getLatenciaReservaP99Micros() {
+        return getLatenciaMicros(Operacion.RESERVA, 99);
+    }
+
+    @Override
+    public double getLatenciaReservaP999Micros() {
+        return getLatenciaMicros(Operacion.RESERVA, 99.9);
+    }
+
+    @Override
+    public Map<String, Double> getLatenciasP99Micros() {
+        Map<String, Double> resultado = new LinkedHashMap<>();
+        for (Operacion operacion : OPERACIONES) {
+            resultado.put(operacion.nombre, getLatenciaMicros(operacion, 99));
+        }
+        return resultado;
+    }
+
+    @Override
+    public Map<String, Integer> getOcupacionPorTipo() {
+        Map<String, Integer> resultado = new LinkedHashMap<>();
+        for (Habitacion.RoomType tipo : TIPOS) {
+            resultado.put(tipo.name(), ocupacion.applyAsInt(tipo));
+        }
+        return resultado;
+    }
+
+    @Override
+    public String volcar() {
+        StringBuilder volcado = new StringBuilder();
+        try {
+            volcar(volcado);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return volcado.toString();
+    }
+
+    /**
+     * Escribe un volcado de texto con todas las métricas en un destino.
+     *
+     * @param destino El destino del volcado.
+     * @throws IOException Si no se puede escribir en el destino.
+     */
+    public void volcar(Appendable destino) throws IOException {
+        String salto = System.lineSeparator();
+        destino.append("Métricas del hotel ").append(nombreHotel).append(salto);
+        destino.append(String.format("Reservas: %d realizadas, %d sin disponibilidad, %d con fechas no válidas, "
+                        + "%d de clientes inexistentes, %d sin habitaciones%n",
+                getReservasRealizadas(), getReservasSinDisponibilidad(), getReservasFechasInvalidas(),
+                getReservasClienteInexistente(), getReservasSinHabitaciones()));
+        destino.append(String.format("%-17s %10s %10s %10s %10s %10s %10s%n",
+                "Operación", "Total", "Media (µs)", "p50 (µs)", "p99 (µs)", "p99.9 (µs)", "Máx (µs)"));
+        for (Operacion operacion : OPERACIONES) {
+            HistogramaConcurrente histograma = latencias[operacion.ordinal()];
+            destino.append(String.format("%-17s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    operacion.nombre, getTotal(operacion), histograma.getMedia() / 1e3,
+                    histograma.percentil(50) / 1e3, histograma.percentil(99) / 1e3,
+                    histograma.percentil(99.9) / 1e3, histograma.getMaximo() / 1e3));
+        }
+        destino.append("Ocupación de esta noche:");
+        for (Map.Entry<String, Integer> tipo : getOcupacionPorTipo().entrySet()) {
+            destino.append(' ').append(tipo.getKey()).append(' ').append(String.valueOf(tipo.getValue())).append('%');
+        }
+        destino.append(salto);
+    }
+
+    @Override
+    public void reiniciar() {
+        for (int i = 0; i < OPERACIONES.length; i++) {
+            operaciones[i].reset();
+            latencias[i].reiniciar();
+        }
+        reservasRealizadas.reset();
+        for (LongAdder rechazadas : reservasRechazadas) {
+            rechazadas.reset();
+        }
+    }
+
+    /**
+     * Registra estas métricas en el servidor de MBeans de la plataforma, con el nombre
+     * {@code org.ed06:type=Hotel,name="<nombre del hotel>"}.
+     *
+     * @return El nombre con el que se han registrado.
+     * @throws IllegalStateException Si no se pueden registrar, por ejemplo porque ya hay otro hotel
+     *                               registrado con el mismo nombre.
+     */
+    public ObjectName registrarMBean() {
+        try {
+            ObjectName nombre = nombreMBean();
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, nombre);
+            return nombre;
+        } catch (JMException e) {
+            throw new IllegalStateException("No se han podido registrar las métricas en JMX", e);
+        }
+    }
+
+    /**
+     * Retira estas métricas del servidor de MBeans de la plataforma, si estaban registradas.
+     */
+    public void eliminarMBean() {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nombre = nombreMBean();
+            if (servidor.isRegistered(nombre)) {
+                servidor.unregisterMBean(nombre);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("No se han podido retirar las métricas de JMX", e);
+        }
+    }
+
+    private ObjectName nombreMBean() throws JMException {
+        return new ObjectName("org.ed06:type=Hotel,name=" + ObjectName.quote(nombreHotel));
+    }
+}
@@ -0,0 +1,116 @@
+package org.ed06.model;
+
+import java.util.Map;
+
+/**
+ * Vista JMX de las métricas de un {@link Hotel}.
+ *
+ * <p>Se registra con {@link MetricasHotel#registrarMBean()} y se puede consultar con JConsole o
+ * cualquier cliente JMX. Las latencias se expresan en microsegundos.</p>
+ */
+public interface MetricasHotelMXBean {
+
+    /**
+     * Obtiene el número de reservas realizadas.
+     *
+     * @return El número de reservas.
+     */
+    long getReservasRealizadas();
+
+    /**
+     * Obtiene el número de reservas rechazadas por no quedar habitaciones libres (código -1).
+     *
+     * @return El número de reservas rechazadas.
+     */
+    long getReservasSinDisponibilidad();
+
+    /**
+     * Obtiene el número de reservas rechazadas por tener fechas no válidas (código -2).
+     *
+     * @return El número de reservas rechazadas.
+     */
+    long getReservasFechasInvalidas();
+
+    /**
+     * Obtiene el número de reservas rechazadas por no existir el cliente (código -3).
+     *
+     * @return El número de reservas rechazadas.
+     */
+    long getReservasClienteInexistente();
+
+    /**
+     * Obtiene el número de reservas rechazadas por no tener habitaciones el hotel o no existir la
+     * habitación pedida (código -4).
+     *
+     * @return El número de reservas rechazadas.
+     */
+    long getReservasSinHabitaciones();
+
+    /**
+     * Obtiene el número de clientes registrados.
+     *
+     * @return El número de clientes.
+     */
+    long getClientesRegistrados();
+
+    /**
+     * Obtiene el número de consultas de una habitación, un cliente o una reserva.
+     *
+     * @return El número de consultas.
+     */
+    long getConsultas();
+
+    /**
+     * Obtiene el número de páginas de listados obtenidas.
+     *
+     * @return El número de páginas.
+     */
+    long getPaginasListadas();
+
+    /**
+     * Obtiene la mediana de la latencia de las reservas.
+     *
+     * @return La mediana en microsegundos.
+     */
+    double getLatenciaReservaP50Micros();
+
+    /**
+     * Obtiene el percentil 99 de la latencia de las reservas.
+     *
+     * @return El percentil en microsegundos.
+     */
+    double getLatenciaReservaP99Micros();
+
+    /**
+     * Obtiene el percentil 99,9 de la latencia de las reservas.
+     *
+     * @return El percentil en microsegundos.
+     */
+    double getLatenciaReservaP999Micros();
+
+    /**
+     * Obtiene el percentil 99 de la latencia de cada operación medida.
+     *
+     * @return El percentil en microsegundos, por nombre de operación.
+     */
+    Map<String, Double> getLatenciasP99Micros();
+
+    /**
+     * Obtiene el porcentaje de habitaciones de cada tipo ocupadas esta noche.
+     *
+     * @return El porcentaje de ocupación, por tipo de habitación.
+     */
+    Map<String, Integer> getOcupacionPorTipo();
+
+    /**
+     * Genera un volcado de texto con todas las métricas.
+     *
+     * @return El volcado.
+     */
+    String volcar();
+
+    /**
+     * Pone a cero los contadores y los histogramas.
+     */
+    void reiniciar();
+}
@@ -0,0 +1,69 @@
+package org.ed06.model;
+
+/**
+ * Observador de los cambios de estado de un {@link Hotel}.
+ *
+ * <p>El hotel avisa a sus observadores de forma síncrona, desde el hilo que realiza la operación,
+ * por lo que las implementaciones deben ser rápidas y seguras ante accesos concurrentes. Cada
+ * aviso se produce antes de que el cambio pueda ser visto por otra operación que dependa de él:
+ * una habitación o un cliente se notifican antes de que se pueda reservar sobre ellos.</p>
+ */
+public interface ObservadorHotel {
+
+    /**
+     * Se invoca al registrar una habitación.
+     *
+     * @param habitacion La habitación registrada.
+     */
+    default void habitacionRegistrada(Habitacion habitacion) {
+    }
+
+    /**
+     * Se invoca al registrar un cliente.
+     *
+     * @param cliente El cliente registrado.
+     */
+    default void clienteRegistrado(Cliente cliente) {
+    }
+
+    /**
+     * Se invoca al realizar una reserva.
+     *
+     * @param reserva La reserva realizada.
+     */
+    default void reservaRealizada(Reserva reserva) {
+    }
+
+    /**
+     * Se invoca al cancelar una reserva, justo antes de liberar sus fechas en la habitación.
+     *
+     * @param reserva La reserva cancelada.
+     */
+    default void reservaCancelada(Reserva reserva) {
+    }
+
+    /**
+     * Se invoca cuando llega el día de entrada de una reserva, al procesar las estancias.
+     *
+     * @param reserva La reserva cuyo cliente entra.
+     */
+    default void entradaRealizada(Reserva reserva) {
+    }
+
+    /**
+     * Se invoca cuando llega el día de salida de una reserva, al procesar las estancias, después
+     * de liberar su habitación.
+     *
+     * @param reserva La reserva cuyo cliente sale.
+     */
+    default void salidaRealizada(Reserva reserva) {
+    }
+
+    /**
+     * Se invoca cuando un cliente pasa a ser VIP por sus reservas recientes o deja de serlo.
+     *
+     * @param cliente El cliente, ya con su nuevo estado VIP.
+     */
+    default void estadoVipCambiado(Cliente cliente) {
+    }
+}
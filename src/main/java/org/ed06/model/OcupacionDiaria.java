@@ -0,0 +1,183 @@
+package org.ed06.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Número de habitaciones de un tipo reservadas cada noche.
+ *
+ * <p>Los contadores se guardan en un árbol de segmentos disperso sobre los días epoch: cada nodo
+ * cubre un rango de días y guarda cuánto se ha sumado a todo su rango, la suma de noches
+ * reservadas y el máximo de reservas de una noche dentro del rango. Una reserva suma uno a las
+ * noches {@code [fechaEntrada, fechaSalida)} tocando solo O(log días) nodos, y las consultas del
+ * número de reservas de una noche, de la suma de noches de un rango o del máximo de un rango son
+ * también O(log días), sin recorrer ninguna reserva. Los nodos solo se crean para los rangos que
+ * alguna vez han tenido reservas.</p>
+ *
+ * <p>Se cubren los días entre los años -900 y 4840, aproximadamente; las noches fuera de ese
+ * rango no se cuentan.</p>
+ *
+ * <p>Todas las operaciones se sincronizan sobre el propio objeto.</p>
+ */
+class OcupacionDiaria {
+
+    /** Primer día epoch cubierto */
+    private static final long DIA_MINIMO = -(1L << 20);
+
+    /** Número de días cubiertos, potencia de dos */
+    private static final long DIAS = 1L << 21;
+
+    /** Nodo vacío: sus contadores son siempre cero */
+    private static final int NINGUNO = 0;
+
+    private static final int RAIZ = 1;
+
+    private int[] izquierdo = new int[64];
+    private int[] derecho = new int[64];
+    private int[] pendiente = new int[64];
+    private int[] maximo = new int[64];
+    private long[] suma = new long[64];
+    private int nodos = 2;
+
+    /**
+     * Cuenta una reserva en las noches de su estancia.
+     *
+     * @param fechaEntrada La fecha de entrada.
+     * @param fechaSalida La fecha de salida, cuya noche no se cuenta.
+     */
+    synchronized void reservar(LocalDate fechaEntrada, LocalDate fechaSalida) {
+        sumar(fechaEntrada, fechaSalida, 1);
+    }
+
+    /**
+     * Descuenta una reserva de las noches de su estancia.
+     *
+     * @param fechaEntrada La fecha de entrada.
+     * @param fechaSalida La fecha de salida, cuya noche no se cuenta.
+     */
+    synchronized void cancelar(LocalDate fechaEntrada, LocalDate fechaSalida) {
+        sumar(fechaEntrada, fechaSalida, -1);
+    }
+
+    /**
+     * Obtiene el número de reservas de la noche de un día.
+     *
+     * @param dia El día.
+     * @return El número de habitaciones reservadas esa noche.
+     */
+    synchronized int getReservadas(LocalDate dia) {
+        long posicion = posicion(dia);
+        return posicion < 0 || posicion >= DIAS ? 0 : maximo(RAIZ, 0, DIAS, posicion, posicion + 1);
+    }
+
+    /**
+     * Obtiene el mayor número de reservas de una noche entre dos fechas.
+     *
+     * @param desde El primer día.
+     * @param hasta El día siguiente a la última noche.
+     * @return El máximo de habitaciones reservadas en una misma noche, o 0 si el rango está vacío.
+     */
+    synchronized int getMaximoReservadas(LocalDate desde, LocalDate hasta) {
+        long inicio = Math.max(posicion(desde), 0);
+        long fin = Math.min(posicion(hasta), DIAS);
+        return inicio < fin ? maximo(RAIZ, 0, DIAS, inicio, fin) : 0;
+    }
+
+    /**
+     * Obtiene la suma de las noches reservadas entre dos fechas.
+     *
+     * @param desde El primer día.
+     * @param hasta El día siguiente a la última noche.
+     * @return El número de noches-habitación reservadas, o 0 si el rango está vacío.
+     */
+    synchronized long getNochesReservadas(LocalDate desde, LocalDate hasta) {
+        long inicio = Math.max(posicion(desde), 0);
+        long fin = Math.min(posicion(hasta), DIAS);
+        return inicio < fin ? suma(RAIZ, 0, DIAS, inicio, fin) : 0;
+    }
+
+    private void sumar(LocalDate fechaEntrada, LocalDate fechaSalida, int cantidad) {
+        long inicio = Math.max(posicion(fechaEntrada), 0);
+        long fin = Math.min(posicion(fechaSalida), DIAS);
+        if (inicio < fin) {
+            sumar(RAIZ, 0, DIAS, inicio, fin, cantidad);
+        }
+    }
+
+    private static long posicion(LocalDate dia) {
+        return dia.toEpochDay() - DIA_MINIMO;
+    }
+
+    /**
+     * Suma una cantidad a las noches {@code [inicio, fin)} dentro del rango {@code [desde, hasta)}
+     * del nodo.
+     */
+    private void sumar(int nodo, long desde, long hasta, long inicio, long fin, int cantidad) {
+        if (inicio <= desde && hasta <= fin) {
+            pendiente[nodo] += cantidad;
+            maximo[nodo] += cantidad;
+            suma[nodo] += cantidad * (hasta - desde);
+            return;
+        }
+        long medio = (desde + hasta) >>> 1;
+        if (inicio < medio) {
+            if (izquierdo[nodo] == NINGUNO) {
+                // El nuevo nodo puede sustituir los arrays: se crea antes de indexarlos
+                int hijo = nuevoNodo();
+                izquierdo[nodo] = hijo;
+            }
+            sumar(izquierdo[nodo], desde, medio, inicio, fin, cantidad);
+        }
+        if (fin > medio) {
+            if (derecho[nodo] == NINGUNO) {
+                int hijo = nuevoNodo();
+                derecho[nodo] = hijo;
+            }
+            sumar(derecho[nodo], medio, hasta, inicio, fin, cantidad);
+        }
+        maximo[nodo] = pendiente[nodo] + Math.max(maximo[izquierdo[nodo]], maximo[derecho[nodo]]);
+        suma[nodo] = pendiente[nodo] * (hasta - desde) + suma[izquierdo[nodo]] + suma[derecho[nodo]];
+    }
+
+    private int maximo(int nodo, long desde, long hasta, long inicio, long fin) {
+        if (nodo == NINGUNO || inicio <= desde && hasta <= fin) {
+            return maximo[nodo];
+        }
+        long medio = (desde + hasta) >>> 1;
+        int resultado = Integer.MIN_VALUE;
+        if (inicio < medio) {
+            resultado = maximo(izquierdo[nodo], desde, medio, inicio, fin);
+        }
+        if (fin > medio) {
+            resultado = Math.max(resultado, maximo(derecho[nodo], medio, hasta, inicio, fin));
+        }
+        return pendiente[nodo] + resultado;
+    }
+
+    private long suma(int nodo, long desde, long hasta, long inicio, long fin) {
+        if (nodo == NINGUNO || inicio <= desde && hasta <= fin) {
+            return suma[nodo];
+        }
+        long medio = (desde + hasta) >>> 1;
+        long resultado = (long) pendiente[nodo] * (Math.min(hasta, fin) - Math.max(desde, inicio));
+        if (inicio < medio) {
+            resultado += suma(izquierdo[nodo], desde, medio, inicio, fin);
+        }
+        if (fin > medio) {
+            resultado += suma(derecho[nodo], medio, hasta, inicio, fin);
+        }
+        return resultado;
+    }
+
+    private int nuevoNodo() {
+        if (nodos == izquierdo.length) {
+            int capacidad = nodos * 2;
+            izquierdo = Arrays.copyOf(izquierdo, capacidad);
+            derecho = Arrays.copyOf(derecho, capacidad);
+            pendiente = Arrays.copyOf(pendiente, capacidad);
+            maximo = Arrays.copyOf(maximo, capacidad);
+            suma = Arrays.copyOf(suma, capacidad);
+        }
+        return nodos++;
+    }
+}
@@ -0,0 +1,93 @@
+package org.ed06.model;
+
+import java.util.Arrays;
+
+/**
+ * Calcula la combinación más barata de habitaciones que aloja a un grupo de huéspedes.
+ *
+ * <p>Resuelve una mochila por grupos con programación dinámica: para cada tipo de habitación se
+ * elige cuántas habitaciones libres se toman, siempre las más baratas de ese tipo, y
+ * {@code coste[g]} guarda el menor precio que aloja al menos {@code g} huéspedes con los tipos
+ * considerados hasta el momento. Como nunca hacen falta más de {@code ceil(huespedes / plazas)}
+ * habitaciones de un tipo, el coste es {@code O(huespedes^2)} con independencia del número de
+ * habitaciones del hotel. Entre combinaciones del mismo precio se prefiere la de menos habitaciones.</p>
+ */
+final class OptimizadorGrupos {
+    private static final long SIN_SOLUCION = Long.MAX_VALUE;
+
+    private OptimizadorGrupos() {
+    }
+
+    /**
+     * Obtiene el número máximo de habitaciones de un tipo que puede necesitar un grupo.
+     *
+     * @param huespedes El número de huéspedes del grupo.
+     * @param plazas El número de huéspedes por habitación del tipo.
+     * @return El número de habitaciones que aloja a todo el grupo.
+     */
+    static int maximoUtil(int huespedes, int plazas) {
+        return (huespedes + plazas - 1) / plazas;
+    }
+
+    /**
+     * Calcula cuántas habitaciones de cada tipo hay que tomar.
+     *
+     * @param precios Para cada tipo, los precios de sus habitaciones libres ordenados de menor a
+     *                mayor; basta con las {@link #maximoUtil(int, int)} más baratas.
+     * @param plazas Para cada tipo, el número de huéspedes por habitación.
+     * @param huespedes El número de huéspedes del grupo, positivo.
+     * @return Para cada tipo, el número de habitaciones (las más baratas) a tomar, o {@code null}
+     *         si las habitaciones libres no alcanzan para todo el grupo.
+     */
+    static int[] resolver(long[][] precios, int[] plazas, int huespedes) {
+        int tipos = precios.length;
+        long[] coste = new long[huespedes + 1];
+        int[] habitaciones = new int[huespedes + 1];
+        Arrays.fill(coste, SIN_SOLUCION);
+        coste[0] = 0;
+        int[][] elegidas = new int[tipos][huespedes + 1];
+
+        for (int t = 0; t < tipos; t++) {
+            int disponibles = Math.min(precios[t].length, maximoUtil(huespedes, plazas[t]));
+            long[] acumulado = new long[disponibles + 1];
+            for (int n = 1; n <= disponibles; n++) {
+                acumulado[n] = acumulado[n - 1] + precios[t][n - 1];
+            }
+            long[] nuevoCoste = coste.clone();
+            int[] nuevasHabitaciones = habitaciones.clone();
+            for (int g = 1; g <= huespedes; g++) {
+                for (int n = 1; n <= disponibles; n++) {
+                    long anterior = coste[Math.max(0, g - n * plazas[t])];
+                    if (anterior == SIN_SOLUCION) {
+                        continue;
+                    }
+                    long candidato = anterior + acumulado[n];
+                    int numHabitaciones = habitaciones[Math.max(0, g - n * plazas[t])] + n;
+                    if (candidato < nuevoCoste[g]
+                            || candidato == nuevoCoste[g] && numHabitaciones < nuevasHabitaciones[g]) {
+                        nuevoCoste[g] = candidato;
+                        nuevasHabitaciones[g] = numHabitaciones;
+                        elegidas[t][g] = n;
+                    }
+                    if (n * plazas[t] >= g) {
+                        // Más habitaciones de este tipo solo añaden coste
+                        break;
+                    }
+                }
+            }
+            coste = nuevoCoste;
+            habitaciones = nuevasHabitaciones;
+        }
+
+        if (coste[huespedes] == SIN_SOLUCION) {
+            return null;
+        }
+        int[] resultado = new int[tipos];
+        int restantes = huespedes;
+        for (int t = tipos - 1; t >= 0; t--) {
+            resultado[t] = elegidas[t][restantes];
+            restantes = Math.max(0, restantes - resultado[t] * plazas[t]);
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,63 @@
+package org.ed06.model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de resultados de un listado del hotel.
+ *
+ * <p>Los listados se recorren con un cursor: la primera página se pide con {@link #INICIO} y cada
+ * página siguiente con el cursor de la anterior. El cursor indica el último elemento devuelto, de
+ * modo que los elementos añadidos entre dos peticiones no desplazan ni repiten resultados.</p>
+ *
+ * @param <T> El tipo de los elementos de la página.
+ */
+public class Pagina<T> {
+    /** Cursor con el que se pide la primera página */
+    public static final long INICIO = 0;
+
+    private final List<T> elementos;
+    private final long cursor;
+    private final boolean hayMas;
+
+    /**
+     * Constructor de la clase Pagina.
+     *
+     * @param elementos Los elementos de la página.
+     * @param cursor El cursor con el que se pide la página siguiente.
+     * @param hayMas Indica si puede haber más elementos después de esta página.
+     */
+    Pagina(List<T> elementos, long cursor, boolean hayMas) {
+        this.elementos = Collections.unmodifiableList(elementos);
+        this.cursor = cursor;
+        this.hayMas = hayMas;
+    }
+
+    /**
+     * Obtiene los elementos de la página.
+     *
+     * @return Lista no modificable con los elementos, en el orden del listado.
+     */
+    public List<T> getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Obtiene el cursor con el que se pide la página siguiente.
+     *
+     * @return El cursor de la página siguiente.
+     */
+    public long getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Indica si puede haber elementos después de esta página.
+     *
+     * @return true si hay que pedir la página siguiente para terminar el listado, que puede
+     *         resultar vacía.
+     */
+    public boolean hayMas() {
+        return hayMas;
+    }
+}
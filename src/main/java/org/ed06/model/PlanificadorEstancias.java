@@ -0,0 +1,197 @@
+package org.ed06.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Planificador de las entradas y salidas de las reservas del hotel.
+ *
+ * <p>Los eventos se guardan en una rueda de tiempo con una cubeta por día: la cubeta del día
+ * {@code d} es la {@code d % DIAS_RUEDA} y solo contiene eventos de los próximos
+ * {@link #DIAS_RUEDA} días. Los eventos más lejanos esperan en un {@link TreeMap} por día y pasan
+ * a la rueda cuando su día entra en ese horizonte, una sola vez cada uno. Procesar un día cuesta
+ * por tanto lo mismo que el número de entradas y salidas de ese día, sin recorrer las reservas.</p>
+ *
+ * <p>Las reservas canceladas no se retiran del planificador: quien procesa los eventos descarta
+ * los de reservas que ya no existen cuando llega su día.</p>
+ *
+ * <p>La programación y la extracción de eventos se sincronizan sobre el propio planificador, pero
+ * los eventos se procesan fuera del cerrojo.</p>
+ */
+class PlanificadorEstancias {
+    /** Número de días cubiertos por la rueda; debe ser una potencia de dos */
+    static final int DIAS_RUEDA = 64;
+
+    private final List<List<Evento>> cubetas = new ArrayList<>(DIAS_RUEDA);
+
+    /** Eventos posteriores al horizonte de la rueda, por día epoch */
+    private final TreeMap<Long, List<Evento>> lejanos = new TreeMap<>();
+
+    /** Primer día epoch que todavía no se ha procesado */
+    private long diaPendiente;
+
+    /** Número de eventos guardados en la rueda, sin contar los lejanos */
+    private int enRueda;
+
+    /**
+     * Crea un planificador vacío.
+     *
+     * @param primerDia El primer día que se procesará.
+     */
+    PlanificadorEstancias(LocalDate primerDia) {
+        for (int i = 0; i < DIAS_RUEDA; i++) {
+            cubetas.add(new ArrayList<>());
+        }
+        this.diaPendiente = primerDia.toEpochDay();
+    }
+
+    /**
+     * Programa la entrada y la salida de una reserva.
+     * <p>
+     * Los eventos de días ya procesados se procesan con el siguiente día pendiente si
+     * {@code atrasados} es true, y se descartan en caso contrario.
+     * </p>
+     *
+     * @param reserva La reserva.
+     * @param atrasados Indica si se conservan los eventos de días ya procesados.
+     * @return true si la salida de la reserva ha quedado programada, false si ya había pasado y
+     *         se ha descartado.
+     */
+    synchronized boolean programar(Reserva reserva, boolean atrasados) {
+        long entrada = reserva.getFechaInicio().toEpochDay();
+        long salida = reserva.getFechaFin().toEpochDay();
+        if (atrasados || entrada >= diaPendiente) {
+            anadir(new Evento(reserva, true), Math.max(entrada, diaPendiente));
+        }
+        if (!atrasados && salida < diaPendiente) {
+            return false;
+        }
+        anadir(new Evento(reserva, false), Math.max(salida, diaPendiente));
+        return true;
+    }
+
+    /**
+     * Procesa los eventos de todos los días pendientes hasta un día, incluido.
+     * <p>
+     * Los eventos se procesan día a día y, dentro de cada día, primero las salidas y después las
+     * entradas, como en la recepción de un hotel.
+     * </p>
+     *
+     * @param hasta El último día que se procesa.
+     * @param entrada Acción que procesa una entrada; devuelve false si la descarta.
+     * @param salida Acción que procesa una salida; devuelve false si la descarta.
+     * @return El número de eventos procesados sin descartar.
+     */
+    int avanzarHasta(LocalDate hasta, Predicate<Reserva> entrada, Predicate<Reserva> salida) {
+        List<Evento> vencidos = extraerHasta(hasta.toEpochDay());
+        int procesados = 0;
+        int inicioDia = 0;
+        while (inicioDia < vencidos.size()) {
+            long dia = vencidos.get(inicioDia).dia;
+            int finDia = inicioDia;
+            while (finDia < vencidos.size() && vencidos.get(finDia).dia == dia) {
+                finDia++;
+            }
+            for (int i = inicioDia; i < finDia; i++) {
+                Evento evento = vencidos.get(i);
+                if (!evento.entrada && salida.test(evento.reserva)) {
+                    procesados++;
+                }
+            }
+            for (int i = inicioDia; i < finDia; i++) {
+                Evento evento = vencidos.get(i);
+                if (evento.entrada && entrada.test(evento.reserva)) {
+                    procesados++;
+                }
+            }
+            inicioDia = finDia;
+        }
+        return procesados;
+    }
+
+    /**
+     * Extrae de la rueda los eventos de los días pendientes hasta un día, incluido.
+     * <p>
+     * Si la rueda queda vacía, se salta directamente al siguiente día con eventos lejanos, de modo
+     * que un salto de muchos días no recorre cubetas vacías.
+     * </p>
+     *
+     * @param hasta El último día epoch que se extrae.
+     * @return Los eventos extraídos, ordenados por día.
+     */
+    private synchronized List<Evento> extraerHasta(long hasta) {
+        List<Evento> vencidos = new ArrayList<>();
+        while (diaPendiente <= hasta) {
+            if (enRueda == 0) {
+                Long siguiente = lejanos.isEmpty() ? null : lejanos.firstKey();
+                if (siguiente == null || siguiente > hasta) {
+                    diaPendiente = hasta + 1;
+                    recargar();
+                    break;
+                }
+                diaPendiente = siguiente;
+                recargar();
+            }
+            List<Evento> cubeta = cubetas.get(indice(diaPendiente));
+            for (Evento evento : cubeta) {
+                // Los eventos atrasados se procesan con el día pendiente
+                evento.dia = diaPendiente;
+            }
+            vencidos.addAll(cubeta);
+            enRueda -= cubeta.size();
+            cubeta.clear();
+            diaPendiente++;
+            recargar();
+        }
+        return vencidos;
+    }
+
+    /**
+     * Pasa a la rueda los eventos lejanos cuyo día ha entrado en su horizonte.
+     */
+    private void recargar() {
+        while (!lejanos.isEmpty() && lejanos.firstKey() < diaPendiente + DIAS_RUEDA) {
+            Map.Entry<Long, List<Evento>> entrada = lejanos.pollFirstEntry();
+            cubetas.get(indice(entrada.getKey())).addAll(entrada.getValue());
+            enRueda += entrada.getValue().size();
+        }
+    }
+
+    /**
+     * Guarda un evento en la cubeta de su día o, si queda fuera del horizonte, entre los lejanos.
+     *
+     * @param evento El evento.
+     * @param dia El día epoch en que se procesa, no anterior al día pendiente.
+     */
+    private void anadir(Evento evento, long dia) {
+        evento.dia = dia;
+        if (dia < diaPendiente + DIAS_RUEDA) {
+            cubetas.get(indice(dia)).add(evento);
+            enRueda++;
+        } else {
+            lejanos.computeIfAbsent(dia, d -> new ArrayList<>()).add(evento);
+        }
+    }
+
+    private static int indice(long dia) {
+        return (int) (dia & (DIAS_RUEDA - 1));
+    }
+
+    /**
+     * Entrada o salida de una reserva.
+     */
+    private static class Evento {
+        private final Reserva reserva;
+        private final boolean entrada;
+        private long dia;
+
+        Evento(Reserva reserva, boolean entrada) {
+            this.reserva = reserva;
+            this.entrada = entrada;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package org.ed06.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registro de solo inserción con control de versiones (MVCC) para leer el estado del hotel en un
+ * instante sin cerrojos.
+ *
+ * <p>Cada entrada guarda la versión en la que se añadió y la versión en la que se retiró, tomadas
+ * de un contador global compartido por todos los registros del hotel. Una lectura en la versión
+ * {@code v} ve las entradas añadidas en una versión menor o igual que {@code v} y no retiradas en
+ * ninguna de ellas, de modo que varias lecturas con la misma versión ven exactamente lo mismo
+ * aunque sigan llegando cambios.</p>
+ *
+ * <p>Las entradas se guardan en segmentos de {@link #TAMANO_SEGMENTO} posiciones enlazados. Añadir
+ * solo reserva una posición del último segmento con una operación atómica, por lo que los
+ * escritores no se bloquean entre sí ni esperan a los lectores. Los segmentos llenos no cambian
+ * nunca: cuando se acumulan entradas retiradas, {@link #retirar(Entrada)} copia las vigentes a
+ * segmentos nuevos y deja de enlazar los antiguos. Las lecturas abiertas antes conservan la
+ * cabeza antigua y, cuando ya ninguna la usa, el recolector de basura libera esas versiones.</p>
+ *
+ * <p>Un escritor reserva la posición y después sella la versión, así que una lectura puede
+ * encontrar una entrada sin sellar. En lugar de esperar, la lectura la sella ella misma con una
+ * versión nueva, posterior a la suya, y el escritor acepta ese sello: ninguna de las dos partes
+ * espera nunca a la otra.</p>
+ *
+ * @param <T> El tipo de los valores del registro.
+ */
+class RegistroVersionado<T> {
+    /** Número de posiciones de cada segmento */
+    static final int TAMANO_SEGMENTO = 1024;
+
+    /** Número mínimo de entradas retiradas antes de compactar */
+    private static final int MINIMO_RETIRADAS = 1024;
+
+    /** Versión de una entrada que se está añadiendo y aún no tiene versión */
+    private static final long ALTA_PENDIENTE = 0;
+
+    /** Versión de retirada de una entrada vigente */
+    private static final long VIGENTE = Long.MAX_VALUE;
+
+    /** Versión de retirada de una entrada que se está retirando */
+    private static final long BAJA_PENDIENTE = -1;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<Entrada> ALTA =
+            AtomicLongFieldUpdater.newUpdater(Entrada.class, "alta");
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<Entrada> BAJA =
+            AtomicLongFieldUpdater.newUpdater(Entrada.class, "baja");
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<RegistroVersionado, Segmento> COLA =
+            AtomicReferenceFieldUpdater.newUpdater(RegistroVersionado.class, Segmento.class, "cola");
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Segmento, Segmento> SIGUIENTE =
+            AtomicReferenceFieldUpdater.newUpdater(Segmento.class, Segmento.class, "siguiente");
+
+    private final AtomicLong versiones;
+    private volatile Segmento<T> cabeza = new Segmento<>(false);
+    private volatile Segmento<T> cola = cabeza;
+
+    private final AtomicLong entradas = new AtomicLong();
+    private final AtomicLong retiradas = new AtomicLong();
+    private final ReentrantLock compactacion = new ReentrantLock();
+
+    /**
+     * Crea un registro vacío.
+     *
+     * @param versiones El contador de versiones del hotel, que empieza en 0.
+     */
+    RegistroVersionado(AtomicLong versiones) {
+        this.versiones = versiones;
+    }
+
+    /**
+     * Añade un valor en una versión nueva.
+     *
+     * @param valor El valor a añadir.
+     * @return La entrada del valor, necesaria para retirarlo.
+     */
+    Entrada<T> anadir(T valor) {
+        Entrada<T> entrada = new Entrada<>(valor);
+        while (true) {
+            Segmento<T> segmento = cola;
+            int posicion = segmento.ocupadas.getAndIncrement();
+            if (posicion < TAMANO_SEGMENTO) {
+                segmento.entradas.set(posicion, entrada);
+                break;
+            }
+            // El segmento está lleno: se enlaza uno nuevo si nadie lo ha hecho y se avanza la cola
+            if (segmento.siguiente == null) {
+                SIGUIENTE.compareAndSet(segmento, null, new Segmento<T>(false));
+            }
+            COLA.compareAndSet(this, segmento, segmento.siguiente);
+        }
+        entradas.incrementAndGet();
+        ALTA.compareAndSet(entrada, ALTA_PENDIENTE, versiones.incrementAndGet());
+        return entrada;
+    }
+
+    /**
+     * Retira una entrada en una versión nueva. Cada entrada debe retirarse una sola vez.
+     *
+     * @param entrada La entrada a retirar.
+     */
+    void retirar(Entrada<T> entrada) {
+        BAJA.set(entrada, BAJA_PENDIENTE);
+        BAJA.compareAndSet(entrada, BAJA_PENDIENTE, versiones.incrementAndGet());
+        long total = retiradas.incrementAndGet();
+        if (total >= MINIMO_RETIRADAS && total * 2 > entradas.get() && compactacion.tryLock()) {
+            try {
+                compactar();
+            } finally {
+                compactacion.unlock();
+            }
+        }
+    }
+
+    /**
+     * Obtiene el primer segmento del registro, a partir del cual lee una vista.
+     * <p>
+     * Debe obtenerse antes que la versión de la lectura: así una compactación posterior nunca
+     * quita entradas que la lectura aún deba ver.
+     * </p>
+     *
+     * @return El primer segmento.
+     */
+    Segmento<T> getCabeza() {
+        return cabeza;
+    }
+
+    /**
+     * Obtiene los valores visibles en una versión.
+     *
+     * @param desde El primer segmento de la lectura.
+     * @param version La versión de la lectura.
+     * @return Los valores en el orden en que se añadieron.
+     */
+    List<T> listar(Segmento<T> desde, long version) {
+        List<T> resultado = new ArrayList<>();
+        for (Segmento<T> segmento = desde; segmento != null; segmento = segmento.siguiente) {
+            int ocupadas = segmento.getOcupadas();
+            for (int i = 0; i < ocupadas; i++) {
+                Entrada<T> entrada = segmento.entradas.get(i);
+                if (entrada != null && esVisible(entrada, version)) {
+                    resultado.add(entrada.valor);
+                }
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Obtiene una página de los valores visibles en una versión.
+     *
+     * @param desde El primer segmento de la lectura.
+     * @param version La versión de la lectura.
+     * @param cursor {@link Pagina#INICIO} o el cursor de la página anterior, que cuenta las
+     *               posiciones ya recorridas desde el primer segmento.
+     * @param tamano El número máximo de valores de la página.
+     * @return La página de valores.
+     */
+    Pagina<T> pagina(Segmento<T> desde, long version, long cursor, int tamano) {
+        List<T> elementos = new ArrayList<>(Math.min(tamano, TAMANO_SEGMENTO));
+        Segmento<T> segmento = desde;
+        long inicioSegmento = 0;
+        while (segmento != null && inicioSegmento + segmento.getOcupadas() <= cursor) {
+            inicioSegmento += segmento.getOcupadas();
+            segmento = segmento.siguiente;
+        }
+        long posicion = cursor;
+        while (segmento != null && elementos.size() < tamano) {
+            int ocupadas = segmento.getOcupadas();
+            for (int i = (int) (posicion - inicioSegmento); i < ocupadas && elementos.size() < tamano; i++) {
+                Entrada<T> entrada = segmento.entradas.get(i);
+                if (entrada != null && esVisible(entrada, version)) {
+                    elementos.add(entrada.valor);
+                }
+                posicion++;
+            }
+            if (posicion - inicioSegmento == ocupadas) {
+                inicioSegmento += ocupadas;
+                segmento = segmento.siguiente;
+            }
+        }
+        return new Pagina<>(elementos, posicion, segmento != null);
+    }
+
+    /**
+     * Indica si una entrada es visible en una versión, sellando en lugar del escritor las versiones que
+     * aún estén pendientes.
+     *
+     * @param entrada La entrada.
+     * @param version La versión de la lectura.
+     * @return {@code true} si la entrada se añadió en esa versión o antes y no se había retirado.
+     */
+    private boolean esVisible(Entrada<T> entrada, long version) {
+        long alta = entrada.alta;
+        if (alta == ALTA_PENDIENTE) {
+            ALTA.compareAndSet(entrada, ALTA_PENDIENTE, versiones.incrementAndGet());
+            alta = entrada.alta;
+        }
+        if (alta > version) {
+            return false;
+        }
+        long baja = entrada.baja;
+        if (baja == BAJA_PENDIENTE) {
+            BAJA.compareAndSet(entrada, BAJA_PENDIENTE, versiones.incrementAndGet());
+            baja = entrada.baja;
+        }
+        return baja > version;
+    }
+
+    /**
+     * Copia las entradas aún necesarias de los segmentos llenos a segmentos nuevos y los pone en
+     * lugar de los antiguos. Solo la ejecuta un hilo a la vez.
+     * <p>
+     * Se descartan las entradas retiradas en una versión menor o igual que la actual: ninguna
+     * lectura que empiece con la nueva cabeza puede verlas, porque su versión será mayor o igual.
+     * </p>
+     */
+    private void compactar() {
+        long limite = versiones.get();
+        Segmento<T> primero = null;
+        Segmento<T> ultimo = null;
+        long descartadas = 0;
+        Segmento<T> segmento = cabeza;
+        while (segmento.estaCompleto()) {
+            int ocupadas = segmento.getOcupadas();
+            for (int i = 0; i < ocupadas; i++) {
+                Entrada<T> entrada = segmento.entradas.get(i);
+                long baja = entrada.baja;
+                if (baja != BAJA_PENDIENTE && baja <= limite) {
+                    descartadas++;
+                    continue;
+                }
+                if (ultimo == null || ultimo.getOcupadas() == TAMANO_SEGMENTO) {
+                    Segmento<T> nuevo = new Segmento<>(true);
+                    if (ultimo == null) {
+                        primero = nuevo;
+                    } else {
+                        ultimo.siguiente = nuevo;
+                    }
+                    ultimo = nuevo;
+                }
+                ultimo.entradas.set(ultimo.ocupadas.getAndIncrement(), entrada);
+            }
+            segmento = segmento.siguiente;
+        }
+        if (descartadas == 0) {
+            return;
+        }
+        if (ultimo == null) {
+            primero = segmento;
+        } else {
+            ultimo.siguiente = segmento;
+        }
+        cabeza = primero;
+        entradas.addAndGet(-descartadas);
+        retiradas.addAndGet(-descartadas);
+    }
+
+    /**
+     * Valor del registro con sus versiones de alta y de retirada.
+     *
+     * @param <T> El tipo del valor.
+     */
+    static final class Entrada<T> {
+        private final T valor;
+        private volatile long alta = ALTA_PENDIENTE;
+        private volatile long baja = VIGENTE;
+
+        private Entrada(T valor) {
+            this.valor = valor;
+        }
+
+        /**
+         * Obtiene el valor de la entrada.
+         *
+         * @return El valor.
+         */
+        T getValor() {
+            return valor;
+        }
+    }
+
+    /**
+     * Segmento de entradas. Solo se escriben sus posiciones libres; las ocupadas no cambian.
+     *
+     * @param <T> El tipo de los valores.
+     */
+    static final class Segmento<T> {
+        private final AtomicReferenceArray<Entrada<T>> entradas = new AtomicReferenceArray<>(TAMANO_SEGMENTO);
+        private final AtomicInteger ocupadas = new AtomicInteger();
+        private volatile Segmento<T> siguiente;
+
+        /** Indica si el segmento es fruto de una compactación y no admite más entradas */
+        private final boolean compactado;
+
+        private Segmento(boolean compactado) {
+            this.compactado = compactado;
+        }
+
+        private int getOcupadas() {
+            return Math.min(ocupadas.get(), TAMANO_SEGMENTO);
+        }
+
+        /**
+         * Indica si el segmento ya no puede cambiar: tiene un siguiente y, si no es compactado,
+         * está lleno y con todas sus entradas escritas.
+         *
+         * @return {@code true} si el segmento ya no puede cambiar.
+         */
+        private boolean estaCompleto() {
+            if (siguiente == null) {
+                return false;
+            }
+            if (compactado) {
+                return true;
+            }
+            if (ocupadas.get() < TAMANO_SEGMENTO) {
+                return false;
+            }
+            for (int i = TAMANO_SEGMENTO - 1; i >= 0; i--) {
+                if (entradas.get(i) == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.ed06.model;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.text.DecimalFormatSymbols;
+import java.util.List;
+
+/**
+ * Escribe los listados del hotel en cualquier {@link Appendable}.
+ *
+ * <p>Las líneas se componen a mano en un único {@link StringBuilder}, sin pasar por
+ * {@code String.format}, y se entregan al destino en bloques cuando el búfer se llena o al
+ * llamar a {@link #flush()}. Así un listado de miles de filas se escribe con unas pocas llamadas
+ * al destino en lugar de una por fila.</p>
+ *
+ * <p>No es seguro ante accesos concurrentes: cada listado usa su propio renderizador.</p>
+ */
+public class RenderizadorListados implements Flushable {
+    /** Tamaño del búfer por defecto, en caracteres */
+    public static final int CAPACIDAD_POR_DEFECTO = 16 * 1024;
+
+    private final Appendable destino;
+    private final int capacidad;
+    private final StringBuilder bufer;
+    private final char separadorDecimal = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+
+    /** Número de la habitación de la última reserva escrita, para agrupar las reservas */
+    private int ultimaHabitacion;
+
+    /**
+     * Crea un renderizador con el tamaño de búfer por defecto.
+     *
+     * @param destino El destino en el que se escriben los listados.
+     */
+    public RenderizadorListados(Appendable destino) {
+        this(destino, CAPACIDAD_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un renderizador.
+     *
+     * @param destino El destino en el que se escriben los listados.
+     * @param capacidad Número de caracteres que se acumulan antes de escribir en el destino.
+     */
+    public RenderizadorListados(Appendable destino, int capacidad) {
+        if (capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad del búfer debe ser positiva");
+        }
+        this.destino = destino;
+        this.capacidad = capacidad;
+        this.bufer = new StringBuilder(capacidad + 128);
+    }
+
+    /**
+     * Escribe una línea por cada habitación.
+     *
+     * @param habitaciones Las habitaciones a escribir.
+     * @throws IOException Si no se puede escribir en el destino.
+     */
+    public void habitaciones(List<Habitacion> habitaciones) throws IOException {
+        for (Habitacion habitacion : habitaciones) {
+            bufer.append("Habitación #").append(habitacion.getNumero())
+                    .append(" - Tipo: ").append(habitacion.getTipo())
+                    .append(" - Precio base: ");
+            anadirImporte(habitacion.getPrecioBaseCentimos());
+            bufer.append(System.lineSeparator());
+            vaciarSiLleno();
+        }
+    }
+
+    /**
+     * Escribe una línea por cada reserva, precedidas del número de su habitación cada vez que
+     * esta cambia.
+     *
+     * @param reservas Las reservas a escribir, agrupadas por habitación.
+     * @throws IOException Si no se puede escribir en el destino.
+     */
+    public void reservas(List<Reserva> reservas) throws IOException {
+        for (Reserva reserva : reservas) {
+            if (reserva.getHabitacionId() != ultimaHabitacion) {
+                ultimaHabitacion = reserva.getHabitacionId();
+                bufer.append("Habitación #").append(ultimaHabitacion).append(System.lineSeparator());
+            }
+            bufer.append("Reserva #").append(reserva.getId())
+                    .append(" - Cliente: ").append(reserva.getClienteId())
+                    .append(" - Fecha de entrada: ").append(reserva.getFechaInicio())
+                    .append(" - Fecha de salida: ").append(reserva.getFechaFin())
+                    .append(System.lineSeparator());
+            vaciarSiLleno();
+        }
+    }
+
+    /**
+     * Escribe una línea por cada cliente.
+     *
+     * @param clientes Los clientes a escribir.
+     * @throws IOException Si no se puede escribir en el destino.
+     */
+    public void clientes(List<Cliente> clientes) throws IOException {
+        for (Cliente cliente : clientes) {
+            bufer.append("Cliente #").append(cliente.getId())
+                    .append(" - Nombre: ").append(cliente.getNombre())
+                    .append(" - DNI: ").append(cliente.getDni())
+                    .append(" - VIP: ").append(cliente.isVip())
+                    .append(System.lineSeparator());
+            vaciarSiLleno();
+        }
+    }
+
+    /**
+     * Escribe en el destino lo acumulado en el búfer y, si el destino lo admite, lo vacía también.
+     *
+     * @throws IOException Si no se puede escribir en el destino.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (!bufer.isEmpty()) {
+            destino.append(bufer);
+            bufer.setLength(0);
+        }
+        if (destino instanceof Flushable vaciable) {
+            vaciable.flush();
+        }
+    }
+
+    private void vaciarSiLleno() throws IOException {
+        if (bufer.length() >= capacidad) {
+            destino.append(bufer);
+            bufer.setLength(0);
+        }
+    }
+
+    /**
+     * Añade al búfer un importe en céntimos con dos decimales y el separador decimal del idioma
+     * por defecto, igual que {@code %.2f}.
+     *
+     * @param centimos El importe en céntimos.
+     */
+    private void anadirImporte(long centimos) {
+        if (centimos < 0) {
+            bufer.append('-');
+            centimos = -centimos;
+        }
+        long decimales = centimos % 100;
+        bufer.append(centimos / 100).append(separadorDecimal);
+        if (decimales < 10) {
+            bufer.append('0');
+        }
+        bufer.append(decimales);
+    }
+}
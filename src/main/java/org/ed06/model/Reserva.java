@@ -1,28 +1,29 @@
 package org.ed06.model;
 
+import org.ed06.tarifas.MotorPrecios;
+
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
 
 /**
  * Clase que representa una reserva en el hotel.
  * <p>
  * Una reserva está asociada a un cliente, una habitación y tiene un precio calculado en función de la duración de la estancia y posibles descuentos.
+ * El precio se calcula con un {@link MotorPrecios} al realizar la reserva y se guarda en céntimos.
  * </p>
  */
 public class Reserva {
-    private static final double DESCUENTO_VIP = 0.9; // 10% de descuento para clientes VIP
-    private static final double DESCUENTO_ESTANCIA_LARGA = 0.95; // 5% de descuento para estancias largas
-    private static final int DIAS_ESTANCIA_LARGA = 7; // Número de días mínimo para una estancia larga
-
     private final int id;
     private final int clienteId;
     private final int habitacionId;
+    private final Habitacion.RoomType tipoHabitacion;
+    private final boolean clienteVip;
     private final LocalDate fechaInicio;
     private final LocalDate fechaFin;
-    private final double precioTotal;
+    private final LocalDate fechaReserva;
+    private final long precioTotalCentimos;
 
     /**
-     * Constructor de la clase Reserva.
+     * Constructor de la clase Reserva, con el precio calculado por el motor de precios por defecto.
      *
      * @param id El ID de la reserva.
      * @param clienteId El ID del cliente que realiza la reserva.
@@ -34,58 +35,39 @@ public class Reserva {
      */
     public Reserva(int id, int clienteId, int habitacionId, LocalDate fechaInicio, LocalDate fechaFin,
                    Habitacion habitacion, Cliente cliente) {
-        this.id = id;
-        this.clienteId = clienteId;
-        this.habitacionId = habitacionId;
-        this.fechaInicio = fechaInicio;
-        this.fechaFin = fechaFin;
-        this.precioTotal = calcularPrecioFinal(habitacion, cliente, fechaInicio, fechaFin);
+        this(id, clienteId, habitacionId, fechaInicio, fechaFin, habitacion, cliente.isVip(), LocalDate.now(),
+                MotorPrecios.porDefecto().calcular(habitacion.getTipo(), habitacion.getPrecioBaseCentimos(),
+                        fechaInicio, fechaFin, cliente.isVip(), (tipo, dia) -> 0));
     }
 
     /**
-     * Calcula el precio final de la reserva.
+     * Constructor de la clase Reserva con un precio ya calculado.
      * <p>
-     * El precio final depende de la duración de la estancia y los descuentos aplicables (VIP y estancia larga).
+     * Se usa al realizar una reserva con el precio calculado por el hotel y al restaurar reservas
+     * guardadas, cuyo precio y estado VIP del cliente pueden no coincidir con los actuales.
      * </p>
      *
-     * @param habitacion La habitación asociada a la reserva.
-     * @param cliente El cliente que realiza la reserva.
+     * @param id El ID de la reserva.
+     * @param clienteId El ID del cliente que realiza la reserva.
+     * @param habitacionId El ID de la habitación reservada.
      * @param fechaInicio La fecha de inicio de la reserva.
      * @param fechaFin La fecha de fin de la reserva.
-     * @return El precio total de la reserva con los descuentos aplicados.
-     */
-    private double calcularPrecioFinal(Habitacion habitacion, Cliente cliente,
-                                       LocalDate fechaInicio, LocalDate fechaFin) {
-        long dias = ChronoUnit.DAYS.between(fechaInicio, fechaFin);
-        double precioBase = habitacion.getPrecioBase() * dias;
-        return aplicarDescuentos(precioBase, cliente, dias);
-    }
-
-    /**
-     * Aplica los descuentos correspondientes sobre el precio base.
-     * <p>
-     * Se aplican dos tipos de descuento: uno por ser cliente VIP y otro por una estancia larga.
-     * </p>
-     *
-     * @param precioBase El precio base de la reserva (sin descuentos).
-     * @param cliente El cliente que realiza la reserva.
-     * @param dias La cantidad de días de la estancia.
-     * @return El precio final con los descuentos aplicados.
+     * @param habitacion La habitación asociada a la reserva.
+     * @param clienteVip Indica si el cliente era VIP al realizar la reserva.
+     * @param fechaReserva El día en que se realizó la reserva.
+     * @param precioTotalCentimos El precio total de la reserva, en céntimos.
      */
-    private double aplicarDescuentos(double precioBase, Cliente cliente, long dias) {
-        double precioFinal = precioBase;
-
-        // Descuento por ser VIP
-        if (cliente.isVip()) {
-            precioFinal *= DESCUENTO_VIP;
-        }
-
-        // Descuento por estancia larga
-        if (dias >= DIAS_ESTANCIA_LARGA) {
-            precioFinal *= DESCUENTO_ESTANCIA_LARGA;
-        }
-
-        return precioFinal;
+    public Reserva(int id, int clienteId, int habitacionId, LocalDate fechaInicio, LocalDate fechaFin,
+                   Habitacion habitacion, boolean clienteVip, LocalDate fechaReserva, long precioTotalCentimos) {
+        this.id = id;
+        this.clienteId = clienteId;
+        this.habitacionId = habitacionId;
+        this.tipoHabitacion = habitacion.getTipo();
+        this.clienteVip = clienteVip;
+        this.fechaInicio = fechaInicio;
+        this.fechaFin = fechaFin;
+        this.fechaReserva = fechaReserva;
+        this.precioTotalCentimos = precioTotalCentimos;
     }
 
     // Getters
@@ -117,6 +99,24 @@ public class Reserva {
         return habitacionId;
     }
 
+    /**
+     * Obtiene el tipo de la habitación reservada.
+     *
+     * @return El tipo de la habitación.
+     */
+    public Habitacion.RoomType getTipoHabitacion() {
+        return tipoHabitacion;
+    }
+
+    /**
+     * Indica si el cliente era VIP cuando se realizó la reserva.
+     *
+     * @return true si el cliente era VIP al reservar, false en caso contrario.
+     */
+    public boolean isClienteVip() {
+        return clienteVip;
+    }
+
     /**
      * Obtiene la fecha de inicio de la reserva.
      *
@@ -135,13 +135,31 @@ public class Reserva {
         return fechaFin;
     }
 
+    /**
+     * Obtiene el día en que se realizó la reserva.
+     *
+     * @return La fecha en que se realizó la reserva.
+     */
+    public LocalDate getFechaReserva() {
+        return fechaReserva;
+    }
+
     /**
      * Obtiene el precio total de la reserva.
      *
      * @return El precio total de la reserva con descuentos aplicados.
      */
     public double getPrecioTotal() {
-        return precioTotal;
+        return precioTotalCentimos / 100.0;
+    }
+
+    /**
+     * Obtiene el precio total de la reserva en céntimos.
+     *
+     * @return El precio total de la reserva con descuentos aplicados, en céntimos.
+     */
+    public long getPrecioTotalCentimos() {
+        return precioTotalCentimos;
     }
 
     /**
@@ -152,6 +170,6 @@ public class Reserva {
     @Override
     public String toString() {
         return String.format("Reserva #%d - Cliente: %d - Habitación: %d - Fechas: %s a %s - Precio: %.2f",
-                id, clienteId, habitacionId, fechaInicio, fechaFin, precioTotal);
+                id, clienteId, habitacionId, fechaInicio, fechaFin, getPrecioTotal());
     }
 }
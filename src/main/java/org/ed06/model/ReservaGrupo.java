@@ -0,0 +1,78 @@
+package org.ed06.model;
+
+import java.util.List;
+
+/**
+ * Conjunto de reservas realizadas de una vez para alojar a un grupo de huéspedes.
+ */
+public class ReservaGrupo {
+    private final List<Reserva> reservas;
+    private final int numHuespedes;
+    private final int plazas;
+    private final long precioTotalCentimos;
+
+    /**
+     * Constructor de la clase ReservaGrupo.
+     *
+     * @param reservas Las reservas del grupo, una por habitación.
+     * @param numHuespedes El número de huéspedes del grupo.
+     */
+    ReservaGrupo(List<Reserva> reservas, int numHuespedes) {
+        this.reservas = List.copyOf(reservas);
+        this.numHuespedes = numHuespedes;
+        int totalPlazas = 0;
+        long total = 0;
+        for (Reserva reserva : reservas) {
+            totalPlazas += reserva.getTipoHabitacion().getMaxGuests();
+            total += reserva.getPrecioTotalCentimos();
+        }
+        this.plazas = totalPlazas;
+        this.precioTotalCentimos = total;
+    }
+
+    /**
+     * Obtiene las reservas del grupo.
+     *
+     * @return Lista inmutable con una reserva por habitación.
+     */
+    public List<Reserva> getReservas() {
+        return reservas;
+    }
+
+    /**
+     * Obtiene el número de huéspedes del grupo.
+     *
+     * @return El número de huéspedes.
+     */
+    public int getNumHuespedes() {
+        return numHuespedes;
+    }
+
+    /**
+     * Obtiene el número total de huéspedes que caben en las habitaciones reservadas, que puede
+     * superar al del grupo.
+     *
+     * @return El número de plazas.
+     */
+    public int getPlazas() {
+        return plazas;
+    }
+
+    /**
+     * Obtiene el precio total de todas las reservas del grupo.
+     *
+     * @return El precio total en céntimos.
+     */
+    public long getPrecioTotalCentimos() {
+        return precioTotalCentimos;
+    }
+
+    /**
+     * Obtiene el precio total de todas las reservas del grupo.
+     *
+     * @return El precio total en euros.
+     */
+    public double getPrecioTotal() {
+        return precioTotalCentimos / 100.0;
+    }
+}
@@ -0,0 +1,81 @@
+package org.ed06.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Índice con las reservas de un único cliente.
+ *
+ * <p>Las reservas se guardan en un {@link TreeMap} ordenado por fecha de inicio y, para las que
+ * empiezan el mismo día en habitaciones distintas, por ID. Así las consultas del historial y de
+ * las próximas estancias de un cliente dependen solo del número de reservas de ese cliente y no
+ * del tamaño del hotel.</p>
+ *
+ * <p>Todas las operaciones se sincronizan sobre el propio índice.</p>
+ */
+class ReservasCliente {
+
+    /** Reservas del cliente indexadas por {@code [día epoch de inicio:32][id:32]} */
+    private final TreeMap<Long, Reserva> reservas = new TreeMap<>();
+
+    /**
+     * Añade una reserva del cliente.
+     *
+     * @param reserva La reserva a añadir.
+     */
+    synchronized void anadir(Reserva reserva) {
+        reservas.put(clave(reserva.getFechaInicio(), reserva.getId()), reserva);
+    }
+
+    /**
+     * Retira una reserva del cliente.
+     *
+     * @param reserva La reserva a retirar.
+     */
+    synchronized void eliminar(Reserva reserva) {
+        reservas.remove(clave(reserva.getFechaInicio(), reserva.getId()));
+    }
+
+    /**
+     * Obtiene todas las reservas del cliente.
+     *
+     * @return Una copia de las reservas ordenadas por fecha de inicio.
+     */
+    synchronized List<Reserva> getReservas() {
+        return new ArrayList<>(reservas.values());
+    }
+
+    /**
+     * Obtiene las reservas del cliente que empiezan antes de un día.
+     *
+     * @param dia El primer día que ya no se incluye.
+     * @return Una copia de las reservas ordenadas por fecha de inicio.
+     */
+    synchronized List<Reserva> getReservasAntesDe(LocalDate dia) {
+        return new ArrayList<>(reservas.headMap(clave(dia, 0), false).values());
+    }
+
+    /**
+     * Obtiene las reservas del cliente que empiezan a partir de un día.
+     *
+     * @param dia El primer día que se incluye.
+     * @return Una copia de las reservas ordenadas por fecha de inicio.
+     */
+    synchronized List<Reserva> getReservasDesde(LocalDate dia) {
+        return new ArrayList<>(reservas.tailMap(clave(dia, 0), true).values());
+    }
+
+    /**
+     * Calcula la clave de una reserva en el índice. Los IDs son positivos, por lo que la clave
+     * con ID 0 es la menor de su día.
+     *
+     * @param fechaInicio La fecha de inicio de la reserva.
+     * @param id El ID de la reserva.
+     * @return La clave de la reserva.
+     */
+    private static long clave(LocalDate fechaInicio, int id) {
+        return fechaInicio.toEpochDay() << 32 | (id & 0xFFFFFFFFL);
+    }
+}
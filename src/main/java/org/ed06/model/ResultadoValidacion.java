@@ -0,0 +1,66 @@
+package org.ed06.model;
+
+/**
+ * Resultado de validar un dato de un cliente.
+ *
+ * <p>Permite comprobar datos sin lanzar excepciones, por ejemplo al importar clientes de forma
+ * masiva, donde construir la traza de una excepción por cada fila rechazada sería muy costoso.</p>
+ */
+public enum ResultadoValidacion {
+    /** El dato es válido */
+    VALIDO(null),
+
+    /** El nombre es nulo o tiene menos de 3 caracteres */
+    NOMBRE_INVALIDO("El nombre debe tener al menos 3 caracteres"),
+
+    /** El nombre tiene más de {@link ValidadorCliente#LONGITUD_MAXIMA_NOMBRE} caracteres */
+    NOMBRE_DEMASIADO_LARGO("El nombre no puede tener más de " + ValidadorCliente.LONGITUD_MAXIMA_NOMBRE + " caracteres"),
+
+    /** El DNI no tiene 8 dígitos seguidos de una letra mayúscula */
+    DNI_FORMATO_INVALIDO("El DNI debe tener 8 números seguidos de una letra mayúscula"),
+
+    /** La letra del DNI no corresponde con su número */
+    DNI_LETRA_INCORRECTA("La letra del DNI no corresponde con su número"),
+
+    /** El email no tiene un formato válido */
+    EMAIL_INVALIDO("El email debe tener un formato válido (ejemplo@dominio.com)"),
+
+    /** El email tiene más de {@link ValidadorCliente#LONGITUD_MAXIMA_EMAIL} caracteres */
+    EMAIL_DEMASIADO_LARGO("El email no puede tener más de " + ValidadorCliente.LONGITUD_MAXIMA_EMAIL + " caracteres"),
+
+    /** Otro cliente del hotel ya tiene el DNI */
+    DNI_DUPLICADO("Ya existe un cliente con ese DNI"),
+
+    /** Otro cliente del hotel ya tiene el email */
+    EMAIL_DUPLICADO("Ya existe un cliente con ese email");
+
+    /** Mensaje que describe el error, o null si el dato es válido */
+    private final String mensaje;
+
+    /**
+     * Constructor que asigna el mensaje de error a cada resultado.
+     *
+     * @param mensaje Mensaje que describe el error.
+     */
+    ResultadoValidacion(String mensaje) {
+        this.mensaje = mensaje;
+    }
+
+    /**
+     * Indica si el dato validado es correcto.
+     *
+     * @return {@code true} si el dato es válido, {@code false} en caso contrario.
+     */
+    public boolean esValido() {
+        return this == VALIDO;
+    }
+
+    /**
+     * Obtiene el mensaje que describe el error.
+     *
+     * @return El mensaje de error, o null si el dato es válido.
+     */
+    public String getMensaje() {
+        return mensaje;
+    }
+}
@@ -0,0 +1,164 @@
+package org.ed06.model;
+
+/**
+ * Validación de los datos de un cliente.
+ *
+ * <p>Las comprobaciones recorren los caracteres de cada dato una sola vez, sin compilar
+ * expresiones regulares ni reservar memoria, y devuelven un {@link ResultadoValidacion} en lugar
+ * de lanzar excepciones. {@link Cliente} las usa para validar sus setters y las importaciones
+ * masivas pueden usarlas directamente para rechazar filas sin coste adicional.</p>
+ */
+public final class ValidadorCliente {
+
+    /** Letras de control del DNI, indexadas por el resto de dividir el número entre 23 */
+    private static final String LETRAS_DNI = "TRWAGMYFPDXBNJZSQVHLCKE";
+
+    /** Número de dígitos de un DNI */
+    private static final int DIGITOS_DNI = 8;
+
+    /** Longitud mínima del nombre, sin contar los espacios de los extremos */
+    private static final int LONGITUD_MINIMA_NOMBRE = 3;
+
+    /**
+     * Longitud máxima del nombre. Con ella el nombre ocupa siempre menos de 64 KiB en UTF-8, que es
+     * lo que admiten el diario y las instantáneas para cada texto.
+     */
+    public static final int LONGITUD_MAXIMA_NOMBRE = 200;
+
+    /** Longitud máxima del email, la que admite una dirección de correo */
+    public static final int LONGITUD_MAXIMA_EMAIL = 254;
+
+    private ValidadorCliente() {
+    }
+
+    /**
+     * Valida todos los datos de un cliente y devuelve el primer error encontrado.
+     *
+     * @param nombre Nombre del cliente.
+     * @param dni DNI del cliente.
+     * @param email Email del cliente.
+     * @return {@link ResultadoValidacion#VALIDO} o el primer error encontrado.
+     */
+    public static ResultadoValidacion validar(String nombre, String dni, String email) {
+        ResultadoValidacion resultado = validarNombre(nombre);
+        if (resultado.esValido()) {
+            resultado = validarDni(dni);
+        }
+        if (resultado.esValido()) {
+            resultado = validarEmail(email);
+        }
+        return resultado;
+    }
+
+    /**
+     * Valida que el nombre tenga al menos 3 caracteres sin contar los espacios de los extremos y
+     * no más de {@link #LONGITUD_MAXIMA_NOMBRE}.
+     *
+     * @param nombre Nombre a validar.
+     * @return {@link ResultadoValidacion#VALIDO}, {@link ResultadoValidacion#NOMBRE_INVALIDO} o
+     *         {@link ResultadoValidacion#NOMBRE_DEMASIADO_LARGO}.
+     */
+    public static ResultadoValidacion validarNombre(String nombre) {
+        if (nombre == null) {
+            return ResultadoValidacion.NOMBRE_INVALIDO;
+        }
+        if (nombre.length() > LONGITUD_MAXIMA_NOMBRE) {
+            return ResultadoValidacion.NOMBRE_DEMASIADO_LARGO;
+        }
+        int inicio = 0;
+        int fin = nombre.length();
+        while (inicio < fin && nombre.charAt(inicio) <= ' ') {
+            inicio++;
+        }
+        while (fin > inicio && nombre.charAt(fin - 1) <= ' ') {
+            fin--;
+        }
+        return fin - inicio >= LONGITUD_MINIMA_NOMBRE ? ResultadoValidacion.VALIDO : ResultadoValidacion.NOMBRE_INVALIDO;
+    }
+
+    /**
+     * Valida que el DNI tenga 8 dígitos seguidos de la letra de control que les corresponde.
+     *
+     * @param dni DNI a validar.
+     * @return {@link ResultadoValidacion#VALIDO}, {@link ResultadoValidacion#DNI_FORMATO_INVALIDO}
+     *         o {@link ResultadoValidacion#DNI_LETRA_INCORRECTA}.
+     */
+    public static ResultadoValidacion validarDni(String dni) {
+        if (dni == null || dni.length() != DIGITOS_DNI + 1) {
+            return ResultadoValidacion.DNI_FORMATO_INVALIDO;
+        }
+        int numero = 0;
+        for (int i = 0; i < DIGITOS_DNI; i++) {
+            char c = dni.charAt(i);
+            if (c < '0' || c > '9') {
+                return ResultadoValidacion.DNI_FORMATO_INVALIDO;
+            }
+            numero = numero * 10 + (c - '0');
+        }
+        char letra = dni.charAt(DIGITOS_DNI);
+        if (letra < 'A' || letra > 'Z') {
+            return ResultadoValidacion.DNI_FORMATO_INVALIDO;
+        }
+        return LETRAS_DNI.charAt(numero % LETRAS_DNI.length()) == letra
+                ? ResultadoValidacion.VALIDO : ResultadoValidacion.DNI_LETRA_INCORRECTA;
+    }
+
+    /**
+     * Valida que el email tenga el formato {@code usuario@dominio.tld}.
+     * <p>
+     * Acepta lo mismo que la expresión {@code ^[A-Za-z0-9+_.-]+@[a-zA-Z0-9.-]+\.[a-zA-Z]{2,}$}:
+     * el usuario admite letras, dígitos y {@code + _ . -}; el dominio, letras, dígitos, puntos y
+     * guiones, y debe terminar en un punto seguido de al menos dos letras.
+     * </p>
+     *
+     * @param email Email a validar.
+     * @return {@link ResultadoValidacion#VALIDO}, {@link ResultadoValidacion#EMAIL_INVALIDO} o
+     *         {@link ResultadoValidacion#EMAIL_DEMASIADO_LARGO}.
+     */
+    public static ResultadoValidacion validarEmail(String email) {
+        if (email == null) {
+            return ResultadoValidacion.EMAIL_INVALIDO;
+        }
+        if (email.length() > LONGITUD_MAXIMA_EMAIL) {
+            return ResultadoValidacion.EMAIL_DEMASIADO_LARGO;
+        }
+        int longitud = email.length();
+        int arroba = -1;
+        int ultimoPunto = -1;
+        for (int i = 0; i < longitud; i++) {
+            char c = email.charAt(i);
+            if (c == '@') {
+                if (arroba >= 0) {
+                    return ResultadoValidacion.EMAIL_INVALIDO;
+                }
+                arroba = i;
+            } else if (arroba < 0) {
+                if (!esAlfanumerico(c) && c != '+' && c != '_' && c != '.' && c != '-') {
+                    return ResultadoValidacion.EMAIL_INVALIDO;
+                }
+            } else if (c == '.') {
+                ultimoPunto = i;
+            } else if (!esAlfanumerico(c) && c != '-') {
+                return ResultadoValidacion.EMAIL_INVALIDO;
+            }
+        }
+        // Hace falta usuario, al menos un carácter de dominio antes del último punto y dos letras tras él
+        if (arroba < 1 || ultimoPunto < arroba + 2 || longitud - ultimoPunto - 1 < 2) {
+            return ResultadoValidacion.EMAIL_INVALIDO;
+        }
+        for (int i = ultimoPunto + 1; i < longitud; i++) {
+            if (!esLetra(email.charAt(i))) {
+                return ResultadoValidacion.EMAIL_INVALIDO;
+            }
+        }
+        return ResultadoValidacion.VALIDO;
+    }
+
+    private static boolean esLetra(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean esAlfanumerico(char c) {
+        return esLetra(c) || (c >= '0' && c <= '9');
+    }
+}
@@ -0,0 +1,70 @@
+package org.ed06.model;
+
+import java.util.Iterator;
+import java.util.TreeMap;
+
+/**
+ * Días en los que un cliente realizó sus reservas vigentes más recientes.
+ *
+ * <p>Se guarda, ordenado por día epoch, cuántas reservas vigentes realizó el cliente cada día.
+ * Registrar o cancelar una reserva es O(log n) y siempre suma o resta exactamente esa reserva,
+ * de modo que cancelar una nunca hace olvidar las demás. Para decidir una promoción basta con
+ * recorrer desde el día más reciente hasta reunir {@code limite} reservas, sin contar todas las
+ * del cliente.</p>
+ *
+ * <p>Los días anteriores al periodo consultado se descartan al contar, porque el periodo solo
+ * avanza y ya no pueden volver a contar.</p>
+ *
+ * <p>La clase no es segura ante accesos concurrentes: quien la usa sincroniza sobre ella.</p>
+ */
+class VentanaReservas {
+    private final TreeMap<Long, Integer> reservasPorDia = new TreeMap<>();
+    private final int limite;
+
+    /**
+     * Crea una ventana vacía.
+     *
+     * @param limite Número de reservas recientes a partir del cual se deja de contar.
+     */
+    VentanaReservas(int limite) {
+        this.limite = limite;
+    }
+
+    /**
+     * Registra una reserva realizada en un día.
+     *
+     * @param dia El día epoch en que se realizó la reserva.
+     */
+    void registrar(long dia) {
+        reservasPorDia.merge(dia, 1, Integer::sum);
+    }
+
+    /**
+     * Olvida una reserva realizada en un día, al cancelarla.
+     * <p>
+     * Si no queda ninguna reserva de ese día, por ejemplo porque ya se descartó por antigua, no se
+     * hace nada.
+     * </p>
+     *
+     * @param dia El día epoch en que se realizó la reserva.
+     */
+    void eliminar(long dia) {
+        reservasPorDia.computeIfPresent(dia, (d, n) -> n == 1 ? null : n - 1);
+    }
+
+    /**
+     * Cuenta las reservas vigentes realizadas a partir de un día y descarta las anteriores.
+     *
+     * @param desde El primer día epoch que cuenta.
+     * @return El número de reservas recientes, como máximo el límite de la ventana.
+     */
+    int contarDesde(long desde) {
+        reservasPorDia.headMap(desde).clear();
+        int n = 0;
+        Iterator<Integer> recientes = reservasPorDia.descendingMap().values().iterator();
+        while (n < limite && recientes.hasNext()) {
+            n += recientes.next();
+        }
+        return Math.min(n, limite);
+    }
+}
@@ -0,0 +1,122 @@
+package org.ed06.model;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vista inmutable del hotel en un instante, obtenida con {@link Hotel#getVista()}.
+ *
+ * <p>Todas las consultas de una misma vista responden según la misma versión del hotel, aunque
+ * mientras tanto se sigan registrando habitaciones y clientes o realizando y cancelando reservas:
+ * un listado o un informe largo ve un estado coherente sin tomar ningún cerrojo ni retrasar a
+ * quien reserva. Obtener una vista es O(1), y mientras alguien la conserve se conservan las
+ * versiones que necesita; al descartarla, el recolector de basura las libera.</p>
+ *
+ * <p>La vista fija qué habitaciones, clientes y reservas existen. Los datos modificables de un
+ * cliente, como su nombre o su estado VIP, se leen en su estado actual.</p>
+ */
+public class VistaHotel {
+    private final long version;
+    private final RegistroVersionado<Habitacion> registroHabitaciones;
+    private final RegistroVersionado<Cliente> registroClientes;
+    private final RegistroVersionado<Reserva> registroReservas;
+    private final RegistroVersionado.Segmento<Habitacion> habitaciones;
+    private final RegistroVersionado.Segmento<Cliente> clientes;
+    private final RegistroVersionado.Segmento<Reserva> reservas;
+
+    /**
+     * Crea una vista con el estado actual de los registros del hotel.
+     *
+     * @param versiones El contador de versiones del hotel.
+     * @param registroHabitaciones El registro de habitaciones.
+     * @param registroClientes El registro de clientes.
+     * @param registroReservas El registro de reservas.
+     */
+    VistaHotel(AtomicLong versiones, RegistroVersionado<Habitacion> registroHabitaciones,
+               RegistroVersionado<Cliente> registroClientes, RegistroVersionado<Reserva> registroReservas) {
+        this.registroHabitaciones = registroHabitaciones;
+        this.registroClientes = registroClientes;
+        this.registroReservas = registroReservas;
+        // Las cabezas se leen antes que la versión; ver RegistroVersionado#getCabeza()
+        this.habitaciones = registroHabitaciones.getCabeza();
+        this.clientes = registroClientes.getCabeza();
+        this.reservas = registroReservas.getCabeza();
+        this.version = versiones.get();
+    }
+
+    /**
+     * Obtiene la versión del hotel que muestra la vista.
+     *
+     * @return La versión; una vista posterior nunca tiene una versión menor.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Obtiene las habitaciones del hotel.
+     *
+     * @return Lista con las habitaciones en orden de número.
+     */
+    public List<Habitacion> getHabitaciones() {
+        return registroHabitaciones.listar(habitaciones, version);
+    }
+
+    /**
+     * Obtiene una página de las habitaciones del hotel, en orden de número.
+     *
+     * @param cursor {@link Pagina#INICIO} o el cursor de la página anterior de esta vista.
+     * @param tamano El número máximo de habitaciones de la página.
+     * @return La página de habitaciones.
+     */
+    public Pagina<Habitacion> getHabitaciones(long cursor, int tamano) {
+        return registroHabitaciones.pagina(habitaciones, version, cursor, comprobarTamano(tamano));
+    }
+
+    /**
+     * Obtiene los clientes del hotel.
+     *
+     * @return Lista con los clientes en el orden en que se registraron.
+     */
+    public List<Cliente> getClientes() {
+        return registroClientes.listar(clientes, version);
+    }
+
+    /**
+     * Obtiene una página de los clientes del hotel, en el orden en que se registraron.
+     *
+     * @param cursor {@link Pagina#INICIO} o el cursor de la página anterior de esta vista.
+     * @param tamano El número máximo de clientes de la página.
+     * @return La página de clientes.
+     */
+    public Pagina<Cliente> getClientes(long cursor, int tamano) {
+        return registroClientes.pagina(clientes, version, cursor, comprobarTamano(tamano));
+    }
+
+    /**
+     * Obtiene las reservas vigentes del hotel, sin las canceladas.
+     *
+     * @return Lista con las reservas en el orden en que se realizaron.
+     */
+    public List<Reserva> getReservas() {
+        return registroReservas.listar(reservas, version);
+    }
+
+    /**
+     * Obtiene una página de las reservas vigentes del hotel, en el orden en que se realizaron.
+     *
+     * @param cursor {@link Pagina#INICIO} o el cursor de la página anterior de esta vista.
+     * @param tamano El número máximo de reservas de la página.
+     * @return La página de reservas.
+     */
+    public Pagina<Reserva> getReservas(long cursor, int tamano) {
+        return registroReservas.pagina(reservas, version, cursor, comprobarTamano(tamano));
+    }
+
+    private static int comprobarTamano(int tamano) {
+        if (tamano < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo");
+        }
+        return tamano;
+    }
+}
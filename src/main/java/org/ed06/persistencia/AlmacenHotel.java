@@ -0,0 +1,133 @@
+package org.ed06.persistencia;
+
+import org.ed06.model.Hotel;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Almacenamiento persistente de un {@link Hotel}: un {@link DiarioHotel} y, opcionalmente, una
+ * {@link InstantaneaHotel} que se regenera periódicamente en segundo plano.
+ *
+ * <p>Al abrirlo se carga la instantánea, si existe, y se reproducen solo los registros del diario
+ * posteriores a ella, por lo que el tiempo de arranque depende de los cambios desde la última
+ * compactación y no de la antigüedad del hotel.</p>
+ *
+ * <p>Si una compactación en segundo plano falla, el diario sigue siendo válido y se vuelve a
+ * intentar en el siguiente periodo; el último error se conserva en {@link #getErrorCompactacion()}.</p>
+ */
+public class AlmacenHotel implements AutoCloseable {
+    private final Path ficheroDiario;
+    private final Path ficheroInstantanea;
+    private final DiarioHotel diario;
+    private final ScheduledExecutorService compactador;
+    private volatile Exception errorCompactacion;
+
+    private AlmacenHotel(Path ficheroDiario, Path ficheroInstantanea, DiarioHotel diario,
+                         ScheduledExecutorService compactador) {
+        this.ficheroDiario = ficheroDiario;
+        this.ficheroInstantanea = ficheroInstantanea;
+        this.diario = diario;
+        this.compactador = compactador;
+    }
+
+    /**
+     * Abre el almacenamiento de un hotel vacío, reconstruyendo su estado.
+     *
+     * @param ficheroDiario La ruta del diario.
+     * @param ficheroInstantanea La ruta de la instantánea, o null para usar solo el diario.
+     * @param hotel El hotel vacío que se reconstruye.
+     * @param intervaloSincronizacion Tiempo máximo entre dos volcados a disco del diario.
+     * @param intervaloCompactacion Tiempo entre dos instantáneas generadas en segundo plano.
+     * @return El almacenamiento abierto.
+     * @throws IOException Si no se pueden leer o escribir los ficheros.
+     */
+    public static AlmacenHotel abrir(Path ficheroDiario, Path ficheroInstantanea, Hotel hotel,
+                                     Duration intervaloSincronizacion, Duration intervaloCompactacion)
+            throws IOException {
+        long desde = DiarioHotel.INICIO_REGISTROS;
+        if (ficheroInstantanea != null && Files.exists(ficheroInstantanea)) {
+            desde = InstantaneaHotel.cargar(ficheroInstantanea, hotel);
+        }
+        DiarioHotel diario = DiarioHotel.abrir(ficheroDiario, hotel, intervaloSincronizacion, desde);
+        ScheduledExecutorService compactador = null;
+        if (ficheroInstantanea != null) {
+            compactador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+                Thread hilo = new Thread(tarea, "compactador-hotel");
+                hilo.setDaemon(true);
+                return hilo;
+            });
+        }
+        AlmacenHotel almacen = new AlmacenHotel(ficheroDiario, ficheroInstantanea, diario, compactador);
+        if (compactador != null) {
+            long periodo = intervaloCompactacion.toMillis();
+            compactador.scheduleWithFixedDelay(almacen::compactarEnSegundoPlano, periodo, periodo, TimeUnit.MILLISECONDS);
+        }
+        return almacen;
+    }
+
+    /**
+     * Genera una nueva instantánea con los cambios volcados a disco hasta ahora.
+     *
+     * @throws IOException Si no se pueden leer o escribir los ficheros.
+     */
+    public void compactar() throws IOException {
+        if (ficheroInstantanea != null) {
+            InstantaneaHotel.compactar(ficheroInstantanea, ficheroDiario, diario);
+        }
+    }
+
+    private void compactarEnSegundoPlano() {
+        try {
+            compactar();
+        } catch (IOException | RuntimeException e) {
+            errorCompactacion = e;
+        }
+    }
+
+    /**
+     * Obtiene el error de la última compactación en segundo plano que ha fallado, si alguna ha fallado.
+     *
+     * @return Una opción con el error, o vacía si ninguna compactación en segundo plano ha fallado.
+     */
+    public Optional<Exception> getErrorCompactacion() {
+        return Optional.ofNullable(errorCompactacion);
+    }
+
+    /**
+     * Obtiene el diario del hotel.
+     *
+     * @return El diario abierto.
+     */
+    public DiarioHotel getDiario() {
+        return diario;
+    }
+
+    /**
+     * Detiene la compactación periódica, genera una última instantánea y cierra el diario.
+     *
+     * @throws IOException Si no se pueden escribir los cambios pendientes.
+     */
+    @Override
+    public void close() throws IOException {
+        if (compactador != null) {
+            compactador.shutdown();
+            try {
+                compactador.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            compactar();
+        } finally {
+            diario.close();
+        }
+    }
+}
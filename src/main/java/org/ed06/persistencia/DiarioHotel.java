@@ -0,0 +1,608 @@
+package org.ed06.persistencia;
+
+import org.ed06.model.Cliente;
+import org.ed06.model.Habitacion;
+import org.ed06.model.Hotel;
+import org.ed06.model.ObservadorHotel;
+import org.ed06.model.Reserva;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Diario binario de solo escritura al final con todos los cambios de un {@link Hotel}.
+ *
+ * <p>El diario se registra como {@link ObservadorHotel} y guarda cada habitación, cliente y
+ * reserva nuevos, las cancelaciones de reservas y los cambios del estado VIP de los clientes por
+ * sus reservas recientes. Al abrirlo se reproduce el contenido existente para reconstruir el hotel.</p>
+ *
+ * <p>Los registros se añaden a un búfer en memoria y un hilo escritor los vuelca al fichero en
+ * grupo: todo lo acumulado mientras se escribía el lote anterior se escribe de una sola vez. El
+ * volcado a disco ({@link FileChannel#force(boolean)}) se hace como mucho una vez por intervalo de
+ * sincronización, de modo que las reservas no esperan nunca al disco; a cambio, una caída puede
+ * perder los cambios del último intervalo. {@link #sincronizar()} fuerza el volcado y espera a que
+ * termine. Con un intervalo de cero se vuelca cada lote en cuanto se escribe.</p>
+ *
+ * <p>Formato: una cabecera con {@link #MAGICO} y {@link #VERSION}, seguida de registros con
+ * {@code [tipo:1][longitud:4][datos][crc32:4]}. El CRC cubre el tipo y los datos. Un registro
+ * incompleto o con CRC incorrecto al final del fichero se considera una escritura interrumpida
+ * por una caída y se descarta al abrir el diario; {@link #getBytesDescartados()} indica cuántos
+ * bytes se han descartado.</p>
+ *
+ * <p>Si una escritura falla, el diario deja de escribirse: {@link #getError()} devuelve el error y
+ * {@link #sincronizar()} y {@link #close()} lo lanzan. Los cambios posteriores no se acumulan en
+ * memoria; se descartan y se cuentan en {@link #getRegistrosDescartados()}.</p>
+ *
+ * <p>Junto con {@link InstantaneaHotel}, el diario puede abrirse a partir de una posición: el
+ * hotel se carga primero de la instantánea y solo se reproducen los registros posteriores.</p>
+ */
+public class DiarioHotel implements ObservadorHotel, AutoCloseable {
+    /** Número mágico de la cabecera ("HDIA") */
+    static final int MAGICO = 0x48444941;
+
+    /** Versión del formato del diario */
+    static final short VERSION = 4;
+
+    /** Posición del primer registro del diario, tras la cabecera */
+    public static final long INICIO_REGISTROS = Integer.BYTES + Short.BYTES;
+
+    static final byte HABITACION = 1;
+    static final byte CLIENTE = 2;
+    static final byte RESERVA = 3;
+    static final byte ESTADO_VIP = 4;
+    static final byte CANCELACION = 5;
+
+    private static final int TAMANO_CABECERA = (int) INICIO_REGISTROS;
+    private static final int TAMANO_MARCO = 1 + Integer.BYTES + Integer.BYTES;
+    private static final int CAPACIDAD_INICIAL = 64 * 1024;
+
+    private final Hotel hotel;
+    private final FileChannel canal;
+    private final long intervaloNanos;
+    private final long posicionInicial;
+    private final long bytesDescartados;
+    private final Thread escritor;
+
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final Condition hayTrabajo = cerrojo.newCondition();
+    private final Condition sincronizado = cerrojo.newCondition();
+    private final CRC32 crc = new CRC32();
+
+    // Estado protegido por el cerrojo
+    private ByteBuffer pendiente = ByteBuffer.allocate(CAPACIDAD_INICIAL);
+    private ByteBuffer enEscritura = ByteBuffer.allocate(CAPACIDAD_INICIAL);
+    private long bytesAnadidos;
+    private long bytesDuraderos;
+    private long sincronizacionPedida;
+    private boolean cerrado;
+    private IOException error;
+    private long registrosDescartados;
+
+    private DiarioHotel(Hotel hotel, FileChannel canal, Duration intervaloSincronizacion, long bytesDescartados)
+            throws IOException {
+        this.hotel = hotel;
+        this.canal = canal;
+        this.intervaloNanos = intervaloSincronizacion.toNanos();
+        this.posicionInicial = canal.position();
+        this.bytesDescartados = bytesDescartados;
+        this.escritor = new Thread(this::escribir, "diario-hotel");
+        this.escritor.setDaemon(true);
+    }
+
+    /**
+     * Abre el diario de un hotel, reproduciendo su contenido si ya existe.
+     * <p>
+     * El hotel debe estar vacío. Tras reproducir el diario, este queda registrado como observador
+     * del hotel y guarda todos los cambios posteriores.
+     * </p>
+     *
+     * @param fichero La ruta del fichero del diario. Se crea si no existe.
+     * @param hotel El hotel que se reconstruye y cuyos cambios se guardarán.
+     * @param intervaloSincronizacion Tiempo máximo entre dos volcados a disco.
+     * @return El diario abierto.
+     * @throws IOException Si no se puede leer o escribir el fichero o su contenido no es válido.
+     */
+    public static DiarioHotel abrir(Path fichero, Hotel hotel, Duration intervaloSincronizacion) throws IOException {
+        return abrir(fichero, hotel, intervaloSincronizacion, INICIO_REGISTROS);
+    }
+
+    /**
+     * Abre el diario de un hotel reproduciendo solo los registros a partir de una posición.
+     * <p>
+     * Se usa tras cargar una {@link InstantaneaHotel}: el hotel ya contiene el estado hasta la
+     * posición guardada en la instantánea y solo falta aplicar los registros posteriores.
+     * </p>
+     *
+     * @param fichero La ruta del fichero del diario. Se crea si no existe.
+     * @param hotel El hotel que se reconstruye y cuyos cambios se guardarán.
+     * @param intervaloSincronizacion Tiempo máximo entre dos volcados a disco.
+     * @param desde Posición del primer registro que se reproduce.
+     * @return El diario abierto.
+     * @throws IOException Si no se puede leer o escribir el fichero o su contenido no es válido.
+     */
+    public static DiarioHotel abrir(Path fichero, Hotel hotel, Duration intervaloSincronizacion, long desde)
+            throws IOException {
+        FileChannel canal = FileChannel.open(fichero,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long descartados = 0;
+        try {
+            if (canal.size() == 0 && desde > INICIO_REGISTROS) {
+                throw new IOException("El diario no contiene la posición " + desde + " de la instantánea");
+            }
+            if (canal.size() == 0) {
+                ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA).putInt(MAGICO).putShort(VERSION).flip();
+                while (cabecera.hasRemaining()) {
+                    canal.write(cabecera);
+                }
+                canal.force(true);
+            } else {
+                long finValido = reproducir(canal, hotel, desde, Long.MAX_VALUE);
+                if (finValido < canal.size()) {
+                    descartados = canal.size() - finValido;
+                    canal.truncate(finValido);
+                }
+            }
+            canal.position(canal.size());
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+        DiarioHotel diario = new DiarioHotel(hotel, canal, intervaloSincronizacion, descartados);
+        diario.escritor.start();
+        hotel.anadirObservador(diario);
+        return diario;
+    }
+
+    /**
+     * Reproduce sobre un hotel los registros de un diario comprendidos entre dos posiciones, sin
+     * abrirlo para escritura.
+     *
+     * @param fichero La ruta del fichero del diario.
+     * @param hotel El hotel sobre el que se aplican los registros.
+     * @param desde Posición del primer registro que se reproduce.
+     * @param hasta Posición a partir de la cual se deja de reproducir.
+     * @return La posición del final del último registro reproducido.
+     * @throws IOException Si no se puede leer el fichero o su contenido no es válido.
+     */
+    public static long reproducir(Path fichero, Hotel hotel, long desde, long hasta) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+            return reproducir(canal, hotel, desde, hasta);
+        }
+    }
+
+    /**
+     * Reproduce sobre el hotel los registros del diario comprendidos entre dos posiciones.
+     *
+     * @param canal El canal del fichero del diario.
+     * @param hotel El hotel que se reconstruye.
+     * @param desde Posición del primer registro que se reproduce.
+     * @param hasta Posición a partir de la cual se deja de reproducir.
+     * @return La posición del final del último registro válido reproducido.
+     * @throws IOException Si no se puede leer el fichero o la cabecera no es válida.
+     */
+    private static long reproducir(FileChannel canal, Hotel hotel, long desde, long hasta) throws IOException {
+        canal.position(0);
+        ByteBuffer cabecera = ByteBuffer.allocate(TAMANO_CABECERA);
+        while (cabecera.hasRemaining() && canal.read(cabecera) >= 0) {
+            // Se lee la cabecera completa
+        }
+        cabecera.flip();
+        if (cabecera.remaining() < TAMANO_CABECERA || cabecera.getInt() != MAGICO) {
+            throw new IOException("El fichero no es un diario de hotel");
+        }
+        short version = cabecera.getShort();
+        if (version != VERSION) {
+            throw new IOException("Versión de diario no soportada: " + version);
+        }
+        if (desde < INICIO_REGISTROS || desde > canal.size()) {
+            throw new IOException("El diario no contiene la posición " + desde + " de la instantánea");
+        }
+
+        canal.position(desde);
+        InputStream entrada = Channels.newInputStream(canal);
+        DataInputStream datos = new DataInputStream(new BufferedInputStream(entrada, CAPACIDAD_INICIAL));
+        CRC32 crc = new CRC32();
+        long finValido = desde;
+        byte[] contenido = new byte[256];
+        while (finValido < hasta) {
+            byte tipo;
+            int longitud;
+            try {
+                tipo = datos.readByte();
+                longitud = datos.readInt();
+                if (longitud < 0 || longitud > canal.size()) {
+                    return finValido;
+                }
+                if (contenido.length < longitud) {
+                    contenido = new byte[Math.max(longitud, contenido.length * 2)];
+                }
+                datos.readFully(contenido, 0, longitud);
+                crc.reset();
+                crc.update(tipo);
+                crc.update(contenido, 0, longitud);
+                if ((int) crc.getValue() != datos.readInt()) {
+                    return finValido;
+                }
+            } catch (EOFException e) {
+                return finValido;
+            }
+            aplicar(hotel, tipo, ByteBuffer.wrap(contenido, 0, longitud));
+            finValido += TAMANO_MARCO + longitud;
+        }
+        return finValido;
+    }
+
+    /**
+     * Aplica un registro del diario al hotel.
+     *
+     * @param hotel El hotel que se reconstruye.
+     * @param tipo El tipo de registro.
+     * @param datos Los datos del registro.
+     * @throws IOException Si el tipo de registro no es válido.
+     */
+    private static void aplicar(Hotel hotel, byte tipo, ByteBuffer datos) throws IOException {
+        switch (tipo) {
+            case HABITACION -> hotel.restaurarHabitacion(datos.getInt(),
+                    Habitacion.RoomType.values()[datos.get()], datos.getDouble());
+            case CLIENTE -> {
+                int id = datos.getInt();
+                boolean esVip = datos.get() != 0;
+                hotel.restaurarCliente(id, leerTexto(datos), leerTexto(datos), leerTexto(datos), esVip);
+            }
+            case RESERVA -> hotel.restaurarReserva(datos.getInt(), datos.getInt(), datos.getInt(),
+                    LocalDate.ofEpochDay(datos.getLong()), LocalDate.ofEpochDay(datos.getLong()),
+                    datos.get() != 0, LocalDate.ofEpochDay(datos.getLong()), datos.getLong());
+            case ESTADO_VIP -> hotel.restaurarEstadoVip(datos.getInt(), datos.get() != 0);
+            case CANCELACION -> hotel.restaurarCancelacion(datos.getInt());
+            default -> throw new IOException("Tipo de registro desconocido en el diario: " + tipo);
+        }
+    }
+
+    private static String leerTexto(ByteBuffer datos) {
+        byte[] bytes = new byte[datos.getShort() & 0xFFFF];
+        datos.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void habitacionRegistrada(Habitacion habitacion) {
+        cerrojo.lock();
+        try {
+            int inicio = empezarRegistro(HABITACION, Integer.BYTES + 1 + Double.BYTES);
+            if (inicio < 0) {
+                return;
+            }
+            pendiente.putInt(habitacion.getNumero())
+                    .put((byte) habitacion.getTipo().ordinal())
+                    .putDouble(habitacion.getPrecioBase());
+            terminarRegistro(inicio);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    @Override
+    public void clienteRegistrado(Cliente cliente) {
+        byte[] nombre = cliente.getNombre().getBytes(StandardCharsets.UTF_8);
+        byte[] email = cliente.getEmail().getBytes(StandardCharsets.UTF_8);
+        byte[] dni = cliente.getDni().getBytes(StandardCharsets.UTF_8);
+        cerrojo.lock();
+        try {
+            int inicio = empezarRegistro(CLIENTE, Integer.BYTES + 1
+                    + 3 * Short.BYTES + nombre.length + email.length + dni.length);
+            if (inicio < 0) {
+                return;
+            }
+            pendiente.putInt(cliente.getId()).put((byte) (cliente.isVip() ? 1 : 0));
+            escribirTexto(nombre);
+            escribirTexto(email);
+            escribirTexto(dni);
+            terminarRegistro(inicio);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    @Override
+    public void reservaRealizada(Reserva reserva) {
+        cerrojo.lock();
+        try {
+            int inicio = empezarRegistro(RESERVA, 3 * Integer.BYTES + 4 * Long.BYTES + 1);
+            if (inicio < 0) {
+                return;
+            }
+            pendiente.putInt(reserva.getId())
+                    .putInt(reserva.getClienteId())
+                    .putInt(reserva.getHabitacionId())
+                    .putLong(reserva.getFechaInicio().toEpochDay())
+                    .putLong(reserva.getFechaFin().toEpochDay())
+                    .put((byte) (reserva.isClienteVip() ? 1 : 0))
+                    .putLong(reserva.getFechaReserva().toEpochDay())
+                    .putLong(reserva.getPrecioTotalCentimos());
+            terminarRegistro(inicio);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    @Override
+    public void reservaCancelada(Reserva reserva) {
+        cerrojo.lock();
+        try {
+            int inicio = empezarRegistro(CANCELACION, Integer.BYTES);
+            if (inicio < 0) {
+                return;
+            }
+            pendiente.putInt(reserva.getId());
+            terminarRegistro(inicio);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    @Override
+    public void estadoVipCambiado(Cliente cliente) {
+        cerrojo.lock();
+        try {
+            int inicio = empezarRegistro(ESTADO_VIP, Integer.BYTES + 1);
+            if (inicio < 0) {
+                return;
+            }
+            pendiente.putInt(cliente.getId()).put((byte) (cliente.isVip() ? 1 : 0));
+            terminarRegistro(inicio);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Escribe un texto precedido de su longitud en 16 bits. {@link org.ed06.model.ValidadorCliente}
+     * limita los textos de un cliente para que siempre quepan.
+     *
+     * @param texto El texto en UTF-8.
+     */
+    private void escribirTexto(byte[] texto) {
+        pendiente.putShort((short) texto.length).put(texto);
+    }
+
+    /**
+     * Escribe el comienzo del marco de un registro en el búfer pendiente. Requiere el cerrojo.
+     *
+     * @param tipo El tipo de registro.
+     * @param longitud La longitud de los datos del registro.
+     * @return La posición del registro en el búfer, o -1 si el diario ya no escribe y el registro
+     *         se descarta.
+     */
+    private int empezarRegistro(byte tipo, int longitud) {
+        if (error != null || cerrado) {
+            registrosDescartados++;
+            return -1;
+        }
+        if (pendiente.remaining() < TAMANO_MARCO + longitud) {
+            int capacidad = Math.max(pendiente.capacity() * 2, pendiente.position() + TAMANO_MARCO + longitud);
+            pendiente = ByteBuffer.allocate(capacidad).put(pendiente.flip());
+        }
+        int inicio = pendiente.position();
+        pendiente.put(tipo).putInt(longitud);
+        return inicio;
+    }
+
+    /**
+     * Añade el CRC al registro que empieza en la posición indicada y avisa al escritor. Requiere el cerrojo.
+     *
+     * @param inicio La posición del registro en el búfer.
+     */
+    private void terminarRegistro(int inicio) {
+        int fin = pendiente.position();
+        crc.reset();
+        crc.update(pendiente.array(), inicio, 1);
+        crc.update(pendiente.array(), inicio + 1 + Integer.BYTES, fin - inicio - 1 - Integer.BYTES);
+        pendiente.putInt((int) crc.getValue());
+        bytesAnadidos += pendiente.position() - inicio;
+        hayTrabajo.signal();
+    }
+
+    /**
+     * Bucle del hilo escritor: vuelca en grupo los registros pendientes y sincroniza el fichero
+     * cuando vence el intervalo, cuando se pide con {@link #sincronizar()} o al cerrar.
+     */
+    private void escribir() {
+        boolean sinSincronizar = false;
+        long proximaSincronizacion = 0;
+        while (true) {
+            long objetivo;
+            boolean forzar;
+            boolean terminar;
+            cerrojo.lock();
+            try {
+                while (pendiente.position() == 0 && !cerrado && sincronizacionPedida <= bytesDuraderos) {
+                    if (!sinSincronizar) {
+                        hayTrabajo.awaitUninterruptibly();
+                    } else {
+                        long espera = proximaSincronizacion - System.nanoTime();
+                        if (espera <= 0) {
+                            break;
+                        }
+                        hayTrabajo.awaitNanos(espera);
+                    }
+                }
+                ByteBuffer lote = pendiente;
+                pendiente = enEscritura;
+                enEscritura = lote;
+                objetivo = bytesAnadidos;
+                forzar = cerrado || sincronizacionPedida > bytesDuraderos;
+                terminar = cerrado;
+            } catch (InterruptedException e) {
+                continue;
+            } finally {
+                cerrojo.unlock();
+            }
+
+            try {
+                enEscritura.flip();
+                if (enEscritura.hasRemaining() && !sinSincronizar) {
+                    sinSincronizar = true;
+                    proximaSincronizacion = System.nanoTime() + intervaloNanos;
+                }
+                while (enEscritura.hasRemaining()) {
+                    canal.write(enEscritura);
+                }
+                enEscritura.clear();
+                if (sinSincronizar && (forzar || System.nanoTime() >= proximaSincronizacion)) {
+                    canal.force(false);
+                    sinSincronizar = false;
+                    marcarDuradero(objetivo);
+                } else if (forzar) {
+                    marcarDuradero(objetivo);
+                }
+            } catch (IOException e) {
+                cerrojo.lock();
+                try {
+                    error = e;
+                    cerrado = true;
+                    sincronizado.signalAll();
+                } finally {
+                    cerrojo.unlock();
+                }
+                return;
+            }
+            if (terminar) {
+                return;
+            }
+        }
+    }
+
+    private void marcarDuradero(long objetivo) {
+        cerrojo.lock();
+        try {
+            bytesDuraderos = objetivo;
+            sincronizado.signalAll();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Obtiene el número de bytes incompletos o corruptos que se descartaron del final del diario
+     * al abrirlo.
+     *
+     * @return El número de bytes descartados, o 0 si el diario estaba completo.
+     */
+    public long getBytesDescartados() {
+        return bytesDescartados;
+    }
+
+    /**
+     * Obtiene el error de escritura por el que el diario ha dejado de escribirse, si lo hay.
+     *
+     * @return Una opción con el error, o vacía si todas las escrituras han tenido éxito.
+     */
+    public Optional<IOException> getError() {
+        cerrojo.lock();
+        try {
+            return Optional.ofNullable(error);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Obtiene el número de registros descartados por llegar después de un error de escritura o
+     * del cierre del diario.
+     *
+     * @return El número de cambios del hotel que no se han guardado.
+     */
+    public long getRegistrosDescartados() {
+        cerrojo.lock();
+        try {
+            return registrosDescartados;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Obtiene la posición del fichero hasta la que todos los registros están volcados a disco.
+     * <p>
+     * La posición siempre coincide con el final de un registro, por lo que se puede usar como
+     * límite para reproducir el diario o como posición de una instantánea.
+     * </p>
+     *
+     * @return La posición del final del último registro volcado a disco.
+     */
+    public long getPosicionDuradera() {
+        cerrojo.lock();
+        try {
+            return posicionInicial + bytesDuraderos;
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Vuelca a disco todos los registros añadidos hasta ahora y espera a que el volcado termine.
+     *
+     * @throws IOException Si el escritor ha fallado o el hilo se interrumpe mientras espera.
+     */
+    public void sincronizar() throws IOException {
+        cerrojo.lock();
+        try {
+            long objetivo = bytesAnadidos;
+            sincronizacionPedida = Math.max(sincronizacionPedida, objetivo);
+            hayTrabajo.signal();
+            while (bytesDuraderos < objetivo && error == null && escritor.isAlive()) {
+                sincronizado.await(1, TimeUnit.SECONDS);
+            }
+            if (error != null) {
+                throw new IOException("El diario ha dejado de escribirse", error);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido mientras se sincronizaba el diario", e);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Vuelca los registros pendientes, sincroniza el fichero y lo cierra.
+     *
+     * @throws IOException Si no se pueden escribir los registros pendientes.
+     */
+    @Override
+    public void close() throws IOException {
+        hotel.eliminarObservador(this);
+        cerrojo.lock();
+        try {
+            cerrado = true;
+            hayTrabajo.signal();
+        } finally {
+            cerrojo.unlock();
+        }
+        try {
+            escritor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+        if (error != null) {
+            throw new IOException("El diario ha dejado de escribirse", error);
+        }
+    }
+}
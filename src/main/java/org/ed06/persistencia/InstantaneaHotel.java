@@ -0,0 +1,240 @@
+package org.ed06.persistencia;
+
+import org.ed06.model.Cliente;
+import org.ed06.model.Habitacion;
+import org.ed06.model.Hotel;
+import org.ed06.model.Reserva;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Instantánea binaria con el estado completo de un {@link Hotel}.
+ *
+ * <p>Una instantánea guarda todas las habitaciones, clientes y reservas junto con la posición del
+ * {@link DiarioHotel} hasta la que llega, de modo que para arrancar basta con cargarla y reproducir
+ * solo los registros del diario posteriores a esa posición.</p>
+ *
+ * <p>Las instantáneas no se toman sobre el hotel en servicio, sino con {@link #compactar}: se
+ * carga la instantánea anterior en un hotel auxiliar, se le aplican los registros del diario ya
+ * volcados a disco y se escribe el resultado. Así la instantánea es coherente con una posición
+ * exacta del diario y el hotel en servicio no se bloquea ni se recorre mientras se genera.</p>
+ *
+ * <p>Formato (versión {@link #VERSION}), todo en orden de bytes big-endian:</p>
+ * <ul>
+ *     <li>Cabecera: {@code [magico:4][version:2][posicionDiario:8][ultimoIdReserva:4]}, donde el
+ *     último ID de reserva incluye las reservas canceladas para que su ID no se reutilice</li>
+ *     <li>Habitaciones: {@code [n:4]} y n registros fijos {@code [numero:4][tipo:1][precioBase:8]}</li>
+ *     <li>Clientes: {@code [n:4]} y n registros {@code [id:4][vip:1]} seguidos de nombre, email y DNI
+ *     en UTF-8 precedidos de su longitud {@code [longitud:2]}. El byte VIP vale 1 si el cliente es
+ *     VIP y 2 si lo es por sus reservas recientes</li>
+ *     <li>Reservas: {@code [n:4]} y n registros fijos
+ *     {@code [id:4][clienteId:4][habitacion:4][entrada:8][salida:8][vip:1][fechaReserva:8][precio:8]}
+ *     con las fechas en días epoch y el precio en céntimos</li>
+ *     <li>Cola: {@code [crc32:4]} de todo lo anterior</li>
+ * </ul>
+ */
+public final class InstantaneaHotel {
+    /** Número mágico de la cabecera ("HINS") */
+    static final int MAGICO = 0x48494E53;
+
+    /** Versión del formato de la instantánea */
+    static final short VERSION = 4;
+
+    private static final byte VIP = 1;
+    private static final byte VIP_POR_RESERVAS = 2;
+
+    private static final int TAMANO_BUFER = 64 * 1024;
+
+    private InstantaneaHotel() {
+    }
+
+    /**
+     * Escribe la instantánea de un hotel que no está recibiendo cambios.
+     * <p>
+     * El fichero se escribe primero en un temporal y después se sustituye de forma atómica, de
+     * modo que una caída durante la escritura nunca deja una instantánea a medias.
+     * </p>
+     *
+     * @param hotel El hotel a guardar.
+     * @param posicionDiario Posición del diario hasta la que llega el estado del hotel.
+     * @param fichero La ruta de la instantánea.
+     * @throws IOException Si no se puede escribir el fichero.
+     */
+    public static void escribir(Hotel hotel, long posicionDiario, Path fichero) throws IOException {
+        Path temporal = fichero.resolveSibling(fichero.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (OutputStream salida = Files.newOutputStream(temporal)) {
+            DataOutputStream datos = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(salida, TAMANO_BUFER), crc));
+            datos.writeInt(MAGICO);
+            datos.writeShort(VERSION);
+            datos.writeLong(posicionDiario);
+            datos.writeInt(hotel.getUltimoIdReserva());
+
+            int numHabitaciones = hotel.getNumHabitaciones();
+            datos.writeInt(numHabitaciones);
+            int numReservas = 0;
+            for (int numero = 1; numero <= numHabitaciones; numero++) {
+                Habitacion habitacion = hotel.getHabitacion(numero).orElseThrow();
+                datos.writeInt(habitacion.getNumero());
+                datos.writeByte(habitacion.getTipo().ordinal());
+                datos.writeDouble(habitacion.getPrecioBase());
+                numReservas += habitacion.getNumReservas();
+            }
+
+            List<Cliente> clientes = hotel.getClientes();
+            datos.writeInt(clientes.size());
+            for (Cliente cliente : clientes) {
+                datos.writeInt(cliente.getId());
+                datos.writeByte(!cliente.isVip() ? 0
+                        : hotel.isVipPorReservas(cliente.getId()) ? VIP_POR_RESERVAS : VIP);
+                escribirTexto(datos, cliente.getNombre());
+                escribirTexto(datos, cliente.getEmail());
+                escribirTexto(datos, cliente.getDni());
+            }
+
+            datos.writeInt(numReservas);
+            for (int numero = 1; numero <= numHabitaciones; numero++) {
+                for (Reserva reserva : hotel.getHabitacion(numero).orElseThrow().getReservas()) {
+                    datos.writeInt(reserva.getId());
+                    datos.writeInt(reserva.getClienteId());
+                    datos.writeInt(reserva.getHabitacionId());
+                    datos.writeLong(reserva.getFechaInicio().toEpochDay());
+                    datos.writeLong(reserva.getFechaFin().toEpochDay());
+                    datos.writeByte(reserva.isClienteVip() ? 1 : 0);
+                    datos.writeLong(reserva.getFechaReserva().toEpochDay());
+                    datos.writeLong(reserva.getPrecioTotalCentimos());
+                }
+            }
+
+            datos.flush();
+            datos.writeInt((int) crc.getValue());
+            datos.flush();
+        }
+        try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+            canal.force(true);
+        }
+        Files.move(temporal, fichero, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Escribe un texto precedido de su longitud en 16 bits.
+     *
+     * @param datos El flujo de la instantánea.
+     * @param texto El texto.
+     * @throws IOException Si el texto no cabe en 64 KiB; {@link org.ed06.model.ValidadorCliente}
+     *                     limita los textos de los clientes para que no ocurra.
+     */
+    private static void escribirTexto(DataOutputStream datos, String texto) throws IOException {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Texto demasiado largo para la instantánea: " + bytes.length + " bytes");
+        }
+        datos.writeShort(bytes.length);
+        datos.write(bytes);
+    }
+
+    /**
+     * Carga una instantánea sobre un hotel vacío con una única lectura secuencial del fichero.
+     *
+     * @param fichero La ruta de la instantánea.
+     * @param hotel El hotel vacío que se reconstruye.
+     * @return La posición del diario a partir de la cual hay que reproducir los registros.
+     * @throws IOException Si no se puede leer el fichero o su contenido no es válido.
+     */
+    public static long cargar(Path fichero, Hotel hotel) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ)) {
+            MappedByteBuffer datos = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (datos.remaining() < Integer.BYTES + Short.BYTES + Long.BYTES + 2 * Integer.BYTES
+                    || datos.getInt(0) != MAGICO) {
+                throw new IOException("El fichero no es una instantánea de hotel");
+            }
+            int longitudDatos = datos.limit() - Integer.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(datos.slice(0, longitudDatos));
+            if ((int) crc.getValue() != datos.getInt(longitudDatos)) {
+                throw new IOException("La instantánea está dañada (CRC incorrecto)");
+            }
+
+            datos.position(Integer.BYTES);
+            short version = datos.getShort();
+            if (version != VERSION) {
+                throw new IOException("Versión de instantánea no soportada: " + version);
+            }
+            long posicionDiario = datos.getLong();
+            int ultimoIdReserva = datos.getInt();
+
+            Habitacion.RoomType[] tipos = Habitacion.RoomType.values();
+            int numHabitaciones = datos.getInt();
+            for (int i = 0; i < numHabitaciones; i++) {
+                hotel.restaurarHabitacion(datos.getInt(), tipos[datos.get()], datos.getDouble());
+            }
+
+            int numClientes = datos.getInt();
+            for (int i = 0; i < numClientes; i++) {
+                int id = datos.getInt();
+                byte vip = datos.get();
+                String nombre = leerTexto(datos);
+                String email = leerTexto(datos);
+                String dni = leerTexto(datos);
+                hotel.restaurarCliente(id, nombre, email, dni, vip != 0);
+                if (vip == VIP_POR_RESERVAS) {
+                    hotel.restaurarEstadoVip(id, true);
+                }
+            }
+
+            int numReservas = datos.getInt();
+            for (int i = 0; i < numReservas; i++) {
+                hotel.restaurarReserva(datos.getInt(), datos.getInt(), datos.getInt(),
+                        LocalDate.ofEpochDay(datos.getLong()), LocalDate.ofEpochDay(datos.getLong()),
+                        datos.get() != 0, LocalDate.ofEpochDay(datos.getLong()), datos.getLong());
+            }
+            hotel.restaurarUltimoIdReserva(ultimoIdReserva);
+            return posicionDiario;
+        }
+    }
+
+    private static String leerTexto(ByteBuffer datos) {
+        byte[] bytes = new byte[datos.getShort() & 0xFFFF];
+        datos.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Genera una nueva instantánea a partir de la anterior y de los registros del diario ya
+     * volcados a disco, sin tocar el hotel en servicio.
+     *
+     * @param instantanea La ruta de la instantánea. Si no existe, se parte de un hotel vacío.
+     * @param fichero La ruta del fichero del diario.
+     * @param diario El diario abierto, del que se toma la posición volcada a disco.
+     * @return La posición del diario hasta la que llega la nueva instantánea.
+     * @throws IOException Si no se pueden leer o escribir los ficheros.
+     */
+    public static long compactar(Path instantanea, Path fichero, DiarioHotel diario) throws IOException {
+        diario.sincronizar();
+        long hasta = diario.getPosicionDuradera();
+        Hotel auxiliar = new Hotel("", "", "");
+        long desde = Files.exists(instantanea) ? cargar(instantanea, auxiliar) : DiarioHotel.INICIO_REGISTROS;
+        if (desde >= hasta) {
+            return desde;
+        }
+        long posicion = DiarioHotel.reproducir(fichero, auxiliar, desde, hasta);
+        escribir(auxiliar, posicion, instantanea);
+        return posicion;
+    }
+}
@@ -0,0 +1,202 @@
+package org.ed06.servidor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lectura y escritura del JSON que usa la API del hotel.
+ *
+ * <p>Las peticiones solo contienen objetos planos, cuyos valores son cadenas, números, booleanos
+ * o null, por lo que basta con un analizador mínimo en lugar de una biblioteca externa. Las
+ * respuestas se componen directamente en un {@link StringBuilder}.</p>
+ */
+final class Json {
+
+    private final String texto;
+    private int posicion;
+
+    private Json(String texto) {
+        this.texto = texto;
+    }
+
+    /**
+     * Lee un objeto JSON plano.
+     *
+     * @param texto El texto del objeto.
+     * @return Los campos del objeto en orden de aparición. Los números se devuelven como
+     *         {@link Long} si son enteros y como {@link Double} en otro caso.
+     * @throws IllegalArgumentException Si el texto no es un objeto JSON plano válido.
+     */
+    static Map<String, Object> leerObjeto(String texto) {
+        Json lector = new Json(texto);
+        Map<String, Object> campos = lector.objeto();
+        lector.saltarEspacios();
+        if (lector.posicion != texto.length()) {
+            throw lector.error("Contenido inesperado después del objeto");
+        }
+        return campos;
+    }
+
+    /**
+     * Añade una cadena JSON entre comillas, escapando los caracteres necesarios.
+     *
+     * @param destino El destino.
+     * @param valor La cadena a escribir, o null.
+     * @return El destino.
+     */
+    static StringBuilder cadena(StringBuilder destino, String valor) {
+        if (valor == null) {
+            return destino.append("null");
+        }
+        destino.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> destino.append("\\\"");
+                case '\\' -> destino.append("\\\\");
+                case '\n' -> destino.append("\\n");
+                case '\r' -> destino.append("\\r");
+                case '\t' -> destino.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        destino.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        destino.append(c);
+                    }
+                }
+            }
+        }
+        return destino.append('"');
+    }
+
+    private Map<String, Object> objeto() {
+        saltarEspacios();
+        esperar('{');
+        Map<String, Object> campos = new LinkedHashMap<>();
+        saltarEspacios();
+        if (consumir('}')) {
+            return campos;
+        }
+        do {
+            saltarEspacios();
+            String nombre = cadena();
+            saltarEspacios();
+            esperar(':');
+            saltarEspacios();
+            campos.put(nombre, valor());
+            saltarEspacios();
+        } while (consumir(','));
+        esperar('}');
+        return campos;
+    }
+
+    private Object valor() {
+        if (posicion >= texto.length()) {
+            throw error("Falta un valor");
+        }
+        char c = texto.charAt(posicion);
+        if (c == '"') {
+            return cadena();
+        }
+        if (c == '-' || (c >= '0' && c <= '9')) {
+            return numero();
+        }
+        if (texto.startsWith("true", posicion)) {
+            posicion += 4;
+            return Boolean.TRUE;
+        }
+        if (texto.startsWith("false", posicion)) {
+            posicion += 5;
+            return Boolean.FALSE;
+        }
+        if (texto.startsWith("null", posicion)) {
+            posicion += 4;
+            return null;
+        }
+        throw error("Valor no admitido");
+    }
+
+    private String cadena() {
+        esperar('"');
+        StringBuilder valor = new StringBuilder();
+        while (posicion < texto.length()) {
+            char c = texto.charAt(posicion++);
+            if (c == '"') {
+                return valor.toString();
+            }
+            if (c != '\\') {
+                valor.append(c);
+                continue;
+            }
+            if (posicion >= texto.length()) {
+                break;
+            }
+            char escapado = texto.charAt(posicion++);
+            switch (escapado) {
+                case '"', '\\', '/' -> valor.append(escapado);
+                case 'b' -> valor.append('\b');
+                case 'f' -> valor.append('\f');
+                case 'n' -> valor.append('\n');
+                case 'r' -> valor.append('\r');
+                case 't' -> valor.append('\t');
+                case 'u' -> {
+                    if (posicion + 4 > texto.length()) {
+                        throw error("Secuencia \\u incompleta");
+                    }
+                    try {
+                        valor.append((char) Integer.parseInt(texto.substring(posicion, posicion + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Secuencia \\u no válida");
+                    }
+                    posicion += 4;
+                }
+                default -> throw error("Secuencia de escape no válida");
+            }
+        }
+        throw error("Cadena sin cerrar");
+    }
+
+    private Number numero() {
+        int inicio = posicion;
+        boolean decimal = false;
+        while (posicion < texto.length()) {
+            char c = texto.charAt(posicion);
+            if (c == '.' || c == 'e' || c == 'E') {
+                decimal = true;
+            } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                break;
+            }
+            posicion++;
+        }
+        String numero = texto.substring(inicio, posicion);
+        try {
+            return decimal ? (Number) Double.parseDouble(numero) : (Number) Long.parseLong(numero);
+        } catch (NumberFormatException e) {
+            throw error("Número no válido: " + numero);
+        }
+    }
+
+    private void saltarEspacios() {
+        while (posicion < texto.length() && Character.isWhitespace(texto.charAt(posicion))) {
+            posicion++;
+        }
+    }
+
+    private boolean consumir(char c) {
+        if (posicion < texto.length() && texto.charAt(posicion) == c) {
+            posicion++;
+            return true;
+        }
+        return false;
+    }
+
+    private void esperar(char c) {
+        if (!consumir(c)) {
+            throw error("Se esperaba '" + c + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String mensaje) {
+        return new IllegalArgumentException("JSON no válido en la posición " + posicion + ": " + mensaje);
+    }
+}
@@ -0,0 +1,482 @@
+package org.ed06.servidor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.ed06.model.Cliente;
+import org.ed06.model.Habitacion;
+import org.ed06.model.Hotel;
+import org.ed06.model.ObservadorHotel;
+import org.ed06.model.Pagina;
+import org.ed06.model.Reserva;
+import org.ed06.model.ResultadoValidacion;
+import org.ed06.model.ValidadorCliente;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+/**
+ * Servidor HTTP con una API JSON para gestionar un {@link Hotel}.
+ *
+ * <p>Usa el {@link HttpServer} del JDK con un hilo virtual por petición, de modo que miles de
+ * reservas concurrentes no necesitan miles de hilos del sistema: cada petición bloquea como mucho
+ * la habitación que reclama, igual que desde el menú.</p>
+ *
+ * <p>La API expone:</p>
+ * <ul>
+ *   <li>{@code POST /habitaciones} con {@code {"tipo", "precioBase"}} y
+ *       {@code GET /habitaciones}, las habitaciones disponibles esta noche.</li>
+ *   <li>{@code POST /clientes} con {@code {"nombre", "email", "dni", "vip"}} y
+ *       {@code GET /clientes}.</li>
+ *   <li>{@code POST /reservas} con {@code {"clienteId", "tipo", "fechaEntrada", "fechaSalida"}},
+ *       {@code GET /reservas}, {@code GET /reservas/{id}} y {@code DELETE /reservas/{id}}.</li>
+ * </ul>
+ *
+ * <p>Los listados se paginan con los parámetros {@code cursor} y {@code tamano} y devuelven
+ * {@code {"elementos": [...], "cursor": n, "hayMas": b}}. Los errores se devuelven como
+ * {@code {"error": "mensaje"}} con el código HTTP correspondiente.</p>
+ *
+ * <p>El hotel no devuelve los objetos que crea, pero avisa a sus observadores desde el mismo hilo
+ * que realiza la operación; el servidor se registra como observador y recoge así la habitación,
+ * el cliente o la reserva creados por cada petición.</p>
+ */
+public class ServidorHotel implements AutoCloseable {
+    /** Tamaño de página de los listados si no se indica otro */
+    static final int TAMANO_PAGINA_POR_DEFECTO = 100;
+
+    /** Tamaño de página máximo que se admite en los listados */
+    static final int TAMANO_PAGINA_MAXIMO = 1000;
+
+    private static final String TIPO_JSON = "application/json; charset=utf-8";
+
+    private final Hotel hotel;
+    private final HttpServer servidor;
+    private final ExecutorService ejecutor;
+    private final Capturador capturador = new Capturador();
+
+    private ServidorHotel(Hotel hotel, HttpServer servidor, ExecutorService ejecutor) {
+        this.hotel = hotel;
+        this.servidor = servidor;
+        this.ejecutor = ejecutor;
+    }
+
+    /**
+     * Crea e inicia un servidor para un hotel.
+     *
+     * @param hotel El hotel que se gestiona.
+     * @param direccion La dirección y el puerto en que escucha; con el puerto 0 se elige uno libre.
+     * @return El servidor iniciado.
+     * @throws IOException Si no se puede abrir el puerto.
+     */
+    public static ServidorHotel iniciar(Hotel hotel, InetSocketAddress direccion) throws IOException {
+        HttpServer http = HttpServer.create(direccion, 0);
+        ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor();
+        ServidorHotel servidor = new ServidorHotel(hotel, http, ejecutor);
+        http.createContext("/habitaciones", intercambio -> servidor.atender(intercambio, servidor::habitaciones));
+        http.createContext("/clientes", intercambio -> servidor.atender(intercambio, servidor::clientes));
+        http.createContext("/reservas", intercambio -> servidor.atender(intercambio, servidor::reservas));
+        http.setExecutor(ejecutor);
+        hotel.anadirObservador(servidor.capturador);
+        http.start();
+        return servidor;
+    }
+
+    /**
+     * Obtiene el puerto en que escucha el servidor.
+     *
+     * @return El puerto.
+     */
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    /**
+     * Deja de aceptar peticiones, espera a que terminen las que están en curso y deja de observar
+     * el hotel.
+     */
+    @Override
+    public void close() {
+        servidor.stop(1);
+        ejecutor.close();
+        hotel.eliminarObservador(capturador);
+    }
+
+    // Recursos
+
+    private Respuesta habitaciones(HttpExchange intercambio, String subruta) throws IOException {
+        if (!subruta.isEmpty()) {
+            return Respuesta.error(404, "Recurso no encontrado");
+        }
+        switch (intercambio.getRequestMethod()) {
+            case "GET" -> {
+                Map<String, String> parametros = parametros(intercambio);
+                Pagina<Habitacion> pagina = hotel.getHabitacionesDisponibles(cursor(parametros), tamano(parametros));
+                return Respuesta.ok(pagina(pagina, ServidorHotel::habitacion));
+            }
+            case "POST" -> {
+                Map<String, Object> cuerpo = cuerpo(intercambio);
+                Habitacion.RoomType tipo = tipo(cuerpo);
+                double precioBase = numero(cuerpo, "precioBase").doubleValue();
+                if (!(precioBase > 0)) {
+                    return Respuesta.error(400, "El precio base debe ser positivo");
+                }
+                hotel.registrarHabitacion(tipo, precioBase);
+                return Respuesta.creado(habitacion(new StringBuilder(), capturador.habitacion()).toString());
+            }
+            default -> {
+                return Respuesta.error(405, "Método no admitido");
+            }
+        }
+    }
+
+    private Respuesta clientes(HttpExchange intercambio, String subruta) throws IOException {
+        if (!subruta.isEmpty()) {
+            return Respuesta.error(404, "Recurso no encontrado");
+        }
+        switch (intercambio.getRequestMethod()) {
+            case "GET" -> {
+                Map<String, String> parametros = parametros(intercambio);
+                Pagina<Cliente> pagina = hotel.getClientes(cursor(parametros), tamano(parametros));
+                return Respuesta.ok(pagina(pagina, ServidorHotel::cliente));
+            }
+            case "POST" -> {
+                Map<String, Object> cuerpo = cuerpo(intercambio);
+                String nombre = texto(cuerpo, "nombre");
+                String email = texto(cuerpo, "email");
+                String dni = texto(cuerpo, "dni");
+                Object vip = cuerpo.getOrDefault("vip", Boolean.FALSE);
+                if (!(vip instanceof Boolean)) {
+                    return Respuesta.error(400, "El campo vip debe ser true o false");
+                }
+                ResultadoValidacion validacion = ValidadorCliente.validar(nombre, dni, email);
+                if (!validacion.esValido()) {
+                    return Respuesta.error(400, validacion.getMensaje());
+                }
+                try {
+                    hotel.registrarCliente(nombre, email, dni, (Boolean) vip);
+                } catch (IllegalArgumentException e) {
+                    // Los datos ya están validados: solo puede estar repetido el DNI o el email
+                    return Respuesta.error(409, e.getMessage());
+                }
+                return Respuesta.creado(cliente(new StringBuilder(), capturador.cliente()).toString());
+            }
+            default -> {
+                return Respuesta.error(405, "Método no admitido");
+            }
+        }
+    }
+
+    private Respuesta reservas(HttpExchange intercambio, String subruta) throws IOException {
+        if (!subruta.isEmpty()) {
+            int id;
+            try {
+                id = Integer.parseInt(subruta);
+            } catch (NumberFormatException e) {
+                return Respuesta.error(404, "Recurso no encontrado");
+            }
+            switch (intercambio.getRequestMethod()) {
+                case "GET" -> {
+                    Optional<Reserva> reserva = hotel.getReserva(id);
+                    return reserva.isPresent()
+                            ? Respuesta.ok(reserva(new StringBuilder(), reserva.get()).toString())
+                            : Respuesta.error(404, "No existe la reserva con id " + id);
+                }
+                case "DELETE" -> {
+                    return hotel.cancelarReserva(id)
+                            ? new Respuesta(204, null)
+                            : Respuesta.error(404, "No existe la reserva con id " + id);
+                }
+                default -> {
+                    return Respuesta.error(405, "Método no admitido");
+                }
+            }
+        }
+        switch (intercambio.getRequestMethod()) {
+            case "GET" -> {
+                Map<String, String> parametros = parametros(intercambio);
+                Pagina<Reserva> pagina = hotel.getReservas(cursor(parametros), tamano(parametros));
+                return Respuesta.ok(pagina(pagina, ServidorHotel::reserva));
+            }
+            case "POST" -> {
+                Map<String, Object> cuerpo = cuerpo(intercambio);
+                int clienteId = Math.toIntExact(numero(cuerpo, "clienteId").longValue());
+                Habitacion.RoomType tipo = tipo(cuerpo);
+                LocalDate fechaEntrada = fecha(cuerpo, "fechaEntrada");
+                LocalDate fechaSalida = fecha(cuerpo, "fechaSalida");
+                int resultado = hotel.reservarHabitacion(clienteId, tipo, fechaEntrada, fechaSalida);
+                return switch (resultado) {
+                    case -1 -> Respuesta.error(409, "No hay habitaciones disponibles del tipo " + tipo);
+                    case -2 -> Respuesta.error(400, "La fecha de entrada debe ser anterior a la de salida");
+                    case -3 -> Respuesta.error(404, "No existe el cliente con id " + clienteId);
+                    case -4 -> Respuesta.error(409, "No hay habitaciones en el hotel");
+                    default -> Respuesta.creado(reserva(new StringBuilder(), capturador.reserva()).toString());
+                };
+            }
+            default -> {
+                return Respuesta.error(405, "Método no admitido");
+            }
+        }
+    }
+
+    // Peticiones y respuestas
+
+    /**
+     * Atiende una petición y envía su respuesta. Los datos no válidos se responden con 400 y
+     * cualquier otro fallo con 500, sin interrumpir el servidor.
+     *
+     * @param intercambio La petición.
+     * @param recurso El recurso que la atiende, que recibe la ruta posterior a su contexto.
+     * @throws IOException Si no se puede enviar la respuesta.
+     */
+    private void atender(HttpExchange intercambio, Recurso recurso) throws IOException {
+        try (intercambio) {
+            String ruta = intercambio.getRequestURI().getPath();
+            String subruta = ruta.substring(intercambio.getHttpContext().getPath().length());
+            if (subruta.startsWith("/")) {
+                subruta = subruta.substring(1);
+            }
+            if (!subruta.isEmpty() && subruta.endsWith("/")) {
+                subruta = subruta.substring(0, subruta.length() - 1);
+            }
+            Respuesta respuesta;
+            try {
+                respuesta = recurso.atender(intercambio, subruta);
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                respuesta = Respuesta.error(400, e.getMessage());
+            } catch (RuntimeException e) {
+                respuesta = Respuesta.error(500, "Error interno: " + e.getMessage());
+            }
+            enviar(intercambio, respuesta);
+        }
+    }
+
+    private static void enviar(HttpExchange intercambio, Respuesta respuesta) throws IOException {
+        if (respuesta.cuerpo == null) {
+            intercambio.sendResponseHeaders(respuesta.codigo, -1);
+            return;
+        }
+        byte[] bytes = respuesta.cuerpo.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", TIPO_JSON);
+        intercambio.sendResponseHeaders(respuesta.codigo, bytes.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(bytes);
+        }
+    }
+
+    private static Map<String, Object> cuerpo(HttpExchange intercambio) throws IOException {
+        try (InputStream entrada = intercambio.getRequestBody()) {
+            return Json.leerObjeto(new String(entrada.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> parametros(HttpExchange intercambio) {
+        Map<String, String> parametros = new HashMap<>();
+        String consulta = intercambio.getRequestURI().getRawQuery();
+        if (consulta == null || consulta.isEmpty()) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            String nombre = igual < 0 ? par : par.substring(0, igual);
+            String valor = igual < 0 ? "" : par.substring(igual + 1);
+            parametros.put(URLDecoder.decode(nombre, StandardCharsets.UTF_8),
+                    URLDecoder.decode(valor, StandardCharsets.UTF_8));
+        }
+        return parametros;
+    }
+
+    private static long cursor(Map<String, String> parametros) {
+        String cursor = parametros.get("cursor");
+        if (cursor == null) {
+            return Pagina.INICIO;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El cursor no es válido: " + cursor);
+        }
+    }
+
+    private static int tamano(Map<String, String> parametros) {
+        String tamano = parametros.get("tamano");
+        if (tamano == null) {
+            return TAMANO_PAGINA_POR_DEFECTO;
+        }
+        try {
+            return Math.min(Integer.parseInt(tamano), TAMANO_PAGINA_MAXIMO);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("El tamaño de página no es válido: " + tamano);
+        }
+    }
+
+    private static Object campo(Map<String, Object> cuerpo, String nombre) {
+        Object valor = cuerpo.get(nombre);
+        if (valor == null) {
+            throw new IllegalArgumentException("Falta el campo " + nombre);
+        }
+        return valor;
+    }
+
+    private static String texto(Map<String, Object> cuerpo, String nombre) {
+        if (!(campo(cuerpo, nombre) instanceof String valor)) {
+            throw new IllegalArgumentException("El campo " + nombre + " debe ser una cadena");
+        }
+        return valor;
+    }
+
+    private static Number numero(Map<String, Object> cuerpo, String nombre) {
+        if (!(campo(cuerpo, nombre) instanceof Number valor)) {
+            throw new IllegalArgumentException("El campo " + nombre + " debe ser un número");
+        }
+        return valor;
+    }
+
+    private static Habitacion.RoomType tipo(Map<String, Object> cuerpo) {
+        String tipo = texto(cuerpo, "tipo");
+        try {
+            return Habitacion.RoomType.valueOf(tipo.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tipo de habitación no válido: " + tipo);
+        }
+    }
+
+    private static LocalDate fecha(Map<String, Object> cuerpo, String nombre) {
+        String fecha = texto(cuerpo, nombre);
+        try {
+            return LocalDate.parse(fecha);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("El campo " + nombre + " debe ser una fecha AAAA-MM-DD");
+        }
+    }
+
+    // Representación JSON
+
+    private static <T> String pagina(Pagina<T> pagina, BiConsumer<StringBuilder, T> elemento) {
+        StringBuilder json = new StringBuilder("{\"elementos\":[");
+        List<T> elementos = pagina.getElementos();
+        for (int i = 0; i < elementos.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            elemento.accept(json, elementos.get(i));
+        }
+        return json.append("],\"cursor\":").append(pagina.getCursor())
+                .append(",\"hayMas\":").append(pagina.hayMas()).append('}').toString();
+    }
+
+    private static StringBuilder habitacion(StringBuilder json, Habitacion habitacion) {
+        json.append("{\"numero\":").append(habitacion.getNumero())
+                .append(",\"tipo\":\"").append(habitacion.getTipo())
+                .append("\",\"precioBase\":").append(habitacion.getPrecioBase()).append('}');
+        return json;
+    }
+
+    private static StringBuilder cliente(StringBuilder json, Cliente cliente) {
+        json.append("{\"id\":").append(cliente.getId()).append(",\"nombre\":");
+        Json.cadena(json, cliente.getNombre()).append(",\"email\":");
+        Json.cadena(json, cliente.getEmail()).append(",\"dni\":");
+        Json.cadena(json, cliente.getDni()).append(",\"vip\":").append(cliente.isVip()).append('}');
+        return json;
+    }
+
+    private static StringBuilder reserva(StringBuilder json, Reserva reserva) {
+        json.append("{\"id\":").append(reserva.getId())
+                .append(",\"clienteId\":").append(reserva.getClienteId())
+                .append(",\"habitacion\":").append(reserva.getHabitacionId())
+                .append(",\"tipo\":\"").append(reserva.getTipoHabitacion())
+                .append("\",\"fechaEntrada\":\"").append(reserva.getFechaInicio())
+                .append("\",\"fechaSalida\":\"").append(reserva.getFechaFin())
+                .append("\",\"precioCentimos\":").append(reserva.getPrecioTotalCentimos()).append('}');
+        return json;
+    }
+
+    /**
+     * Recurso de la API que atiende las peticiones de un contexto.
+     */
+    @FunctionalInterface
+    private interface Recurso {
+        Respuesta atender(HttpExchange intercambio, String subruta) throws IOException;
+    }
+
+    /**
+     * Código HTTP y cuerpo JSON de una respuesta.
+     */
+    private static class Respuesta {
+        private final int codigo;
+        private final String cuerpo;
+
+        Respuesta(int codigo, String cuerpo) {
+            this.codigo = codigo;
+            this.cuerpo = cuerpo;
+        }
+
+        static Respuesta ok(String cuerpo) {
+            return new Respuesta(200, cuerpo);
+        }
+
+        static Respuesta creado(String cuerpo) {
+            return new Respuesta(201, cuerpo);
+        }
+
+        static Respuesta error(int codigo, String mensaje) {
+            return new Respuesta(codigo, Json.cadena(new StringBuilder("{\"error\":"), mensaje).append('}').toString());
+        }
+    }
+
+    /**
+     * Observador que guarda, para el hilo de cada petición, lo último que el hotel ha creado en él.
+     */
+    private static class Capturador implements ObservadorHotel {
+        private final ThreadLocal<Habitacion> habitacion = new ThreadLocal<>();
+        private final ThreadLocal<Cliente> cliente = new ThreadLocal<>();
+        private final ThreadLocal<Reserva> reserva = new ThreadLocal<>();
+
+        @Override
+        public void habitacionRegistrada(Habitacion habitacion) {
+            this.habitacion.set(habitacion);
+        }
+
+        @Override
+        public void clienteRegistrado(Cliente cliente) {
+            this.cliente.set(cliente);
+        }
+
+        @Override
+        public void reservaRealizada(Reserva reserva) {
+            this.reserva.set(reserva);
+        }
+
+        Habitacion habitacion() {
+            return extraer(habitacion);
+        }
+
+        Cliente cliente() {
+            return extraer(cliente);
+        }
+
+        Reserva reserva() {
+            return extraer(reserva);
+        }
+
+        private static <T> T extraer(ThreadLocal<T> valor) {
+            T capturado = valor.get();
+            valor.remove();
+            if (capturado == null) {
+                throw new IllegalStateException("El hotel no ha notificado la operación");
+            }
+            return capturado;
+        }
+    }
+}
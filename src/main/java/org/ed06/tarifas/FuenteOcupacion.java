@@ -0,0 +1,21 @@
+package org.ed06.tarifas;
+
+import org.ed06.model.Habitacion;
+
+import java.time.LocalDate;
+
+/**
+ * Fuente de la ocupación del hotel que consultan las reglas de precio por ocupación.
+ */
+@FunctionalInterface
+public interface FuenteOcupacion {
+
+    /**
+     * Obtiene el porcentaje de habitaciones de un tipo ocupadas una noche.
+     *
+     * @param tipo El tipo de habitación.
+     * @param dia El día de la noche consultada.
+     * @return El porcentaje de ocupación, entre 0 y 100.
+     */
+    int getOcupacion(Habitacion.RoomType tipo, LocalDate dia);
+}
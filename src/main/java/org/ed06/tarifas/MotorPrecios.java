@@ -0,0 +1,225 @@
+package org.ed06.tarifas;
+
+import org.ed06.model.Habitacion;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Calcula el precio de las estancias aplicando una lista de {@link ReglaPrecio}.
+ *
+ * <p>Todos los importes se manejan en céntimos con aritmética entera, redondeando cada porcentaje
+ * al céntimo más cercano. Al crear el motor las reglas se compilan en arrays con sus operaciones y
+ * condiciones, y cada cálculo es un único recorrido sobre esos arrays, sin objetos intermedios.</p>
+ *
+ * <p>Las reglas que no dependen de la ocupación solo dependen del tipo de habitación, su precio
+ * por noche, el número de noches, si el cliente es VIP y la temporada. Su resultado se guarda en
+ * una caché acotada de acceso directo, de modo que las cotizaciones repetidas (por ejemplo, al
+ * mostrar los precios de una búsqueda) no vuelven a evaluar las reglas. Las reglas por ocupación
+ * se aplican después, sobre el precio guardado en la caché.</p>
+ *
+ * <p>El motor es inmutable y se puede usar desde varios hilos a la vez.</p>
+ */
+public class MotorPrecios {
+    /** Número de cotizaciones que guarda la caché por defecto */
+    public static final int CAPACIDAD_CACHE_POR_DEFECTO = 4096;
+
+    private static final int DESCUENTO_VIP = 1000; // 10% de descuento para clientes VIP
+    private static final int DESCUENTO_ESTANCIA_LARGA = 500; // 5% de descuento para estancias largas
+    private static final int DIAS_ESTANCIA_LARGA = 7; // Número de días mínimo para una estancia larga
+
+    private static final MotorPrecios POR_DEFECTO = new MotorPrecios(List.of(
+            ReglaPrecio.descuentoVip(DESCUENTO_VIP),
+            ReglaPrecio.descuentoEstanciaLarga(DIAS_ESTANCIA_LARGA, DESCUENTO_ESTANCIA_LARGA)));
+
+    // Límites para poder empaquetar una cotización en una clave de la caché
+    private static final long MAX_PRECIO_CACHEABLE = 1L << 36;
+    private static final int MAX_NOCHES_CACHEABLES = 1 << 20;
+
+    private final Secuencia fijas;
+    private final Secuencia porOcupacion;
+    private final Cotizacion[] cache;
+
+    /**
+     * Crea un motor con la capacidad de caché por defecto.
+     *
+     * @param reglas Las reglas a aplicar, en orden.
+     */
+    public MotorPrecios(List<ReglaPrecio> reglas) {
+        this(reglas, CAPACIDAD_CACHE_POR_DEFECTO);
+    }
+
+    /**
+     * Crea un motor de precios.
+     *
+     * @param reglas Las reglas a aplicar, en orden.
+     * @param capacidadCache Número de cotizaciones que puede guardar la caché. Se redondea a la
+     *                       siguiente potencia de dos; con cero no se usa caché.
+     */
+    public MotorPrecios(List<ReglaPrecio> reglas, int capacidadCache) {
+        if (capacidadCache < 0) {
+            throw new IllegalArgumentException("La capacidad de la caché no puede ser negativa");
+        }
+        List<ReglaPrecio> reglasFijas = new ArrayList<>();
+        List<ReglaPrecio> reglasPorOcupacion = new ArrayList<>();
+        for (ReglaPrecio regla : reglas) {
+            (regla.dependeDeOcupacion() ? reglasPorOcupacion : reglasFijas).add(regla);
+        }
+        this.fijas = new Secuencia(reglasFijas);
+        this.porOcupacion = new Secuencia(reglasPorOcupacion);
+        this.cache = capacidadCache == 0 ? null
+                : new Cotizacion[Math.max(1, Integer.highestOneBit(capacidadCache - 1) << 1)];
+    }
+
+    /**
+     * Obtiene el motor con las reglas de precio habituales del hotel: un 10 % de descuento para
+     * clientes VIP y un 5 % para estancias de 7 noches o más.
+     *
+     * @return El motor de precios por defecto.
+     */
+    public static MotorPrecios porDefecto() {
+        return POR_DEFECTO;
+    }
+
+    /**
+     * Convierte un importe en euros a céntimos.
+     *
+     * @param euros El importe en euros.
+     * @return El importe redondeado al céntimo más cercano.
+     */
+    public static long aCentimos(double euros) {
+        return Math.round(euros * 100);
+    }
+
+    /**
+     * Calcula el precio de una estancia.
+     *
+     * @param tipo El tipo de habitación.
+     * @param precioNocheCentimos El precio base por noche de la habitación, en céntimos.
+     * @param fechaEntrada La fecha de entrada.
+     * @param fechaSalida La fecha de salida.
+     * @param vip Indica si el cliente es VIP.
+     * @param ocupacion La fuente de ocupación, que solo se consulta si hay reglas por ocupación.
+     * @return El precio total de la estancia, en céntimos.
+     */
+    public long calcular(Habitacion.RoomType tipo, long precioNocheCentimos, LocalDate fechaEntrada,
+                         LocalDate fechaSalida, boolean vip, FuenteOcupacion ocupacion) {
+        int noches = (int) ChronoUnit.DAYS.between(fechaEntrada, fechaSalida);
+        long precio = cotizar(tipo, precioNocheCentimos, noches, vip, Temporada.de(fechaEntrada));
+        if (porOcupacion.estaVacia()) {
+            return precio;
+        }
+        int porcentaje = ocupacion.getOcupacion(tipo, fechaEntrada);
+        return porOcupacion.evaluar(precio, tipo, noches, vip, Temporada.de(fechaEntrada), porcentaje);
+    }
+
+    /**
+     * Calcula el precio de una estancia aplicando solo las reglas que no dependen de la ocupación,
+     * usando la caché de cotizaciones.
+     *
+     * @param tipo El tipo de habitación.
+     * @param precioNocheCentimos El precio base por noche de la habitación, en céntimos.
+     * @param noches El número de noches.
+     * @param vip Indica si el cliente es VIP.
+     * @param temporada La temporada de la fecha de entrada.
+     * @return El precio de la estancia sin las reglas por ocupación, en céntimos.
+     */
+    public long cotizar(Habitacion.RoomType tipo, long precioNocheCentimos, int noches, boolean vip,
+                        Temporada temporada) {
+        if (cache == null || precioNocheCentimos < 0 || precioNocheCentimos >= MAX_PRECIO_CACHEABLE
+                || noches < 0 || noches >= MAX_NOCHES_CACHEABLES) {
+            return fijas.evaluar(precioNocheCentimos * noches, tipo, noches, vip, temporada, 0);
+        }
+        long clave = precioNocheCentimos << 27 | (long) noches << 7 | temporada.ordinal() << 5
+                | (vip ? 1 << 4 : 0) | tipo.ordinal();
+        int posicion = (int) ((clave * 0x9E3779B97F4A7C15L) >>> 32) & (cache.length - 1);
+        Cotizacion cotizacion = cache[posicion];
+        if (cotizacion != null && cotizacion.clave == clave) {
+            return cotizacion.precio;
+        }
+        long precio = fijas.evaluar(precioNocheCentimos * noches, tipo, noches, vip, temporada, 0);
+        cache[posicion] = new Cotizacion(clave, precio);
+        return precio;
+    }
+
+    /**
+     * Reglas compiladas en arrays paralelos, uno por campo de {@link ReglaPrecio}.
+     */
+    private static final class Secuencia {
+        private final byte[] operaciones;
+        private final long[] valores;
+        private final byte[] clientes;
+        private final int[] nochesMinimas;
+        private final int[] mascarasTemporadas;
+        private final int[] mascarasTipos;
+        private final int[] ocupacionesMinimas;
+
+        Secuencia(List<ReglaPrecio> reglas) {
+            int n = reglas.size();
+            operaciones = new byte[n];
+            valores = new long[n];
+            clientes = new byte[n];
+            nochesMinimas = new int[n];
+            mascarasTemporadas = new int[n];
+            mascarasTipos = new int[n];
+            ocupacionesMinimas = new int[n];
+            for (int i = 0; i < n; i++) {
+                ReglaPrecio regla = reglas.get(i);
+                operaciones[i] = regla.operacion;
+                valores[i] = regla.valor;
+                clientes[i] = regla.cliente;
+                nochesMinimas[i] = regla.nochesMinimas;
+                mascarasTemporadas[i] = regla.mascaraTemporadas;
+                mascarasTipos[i] = regla.mascaraTipos;
+                ocupacionesMinimas[i] = regla.ocupacionMinima;
+            }
+        }
+
+        boolean estaVacia() {
+            return operaciones.length == 0;
+        }
+
+        /**
+         * Aplica en orden las reglas cuyas condiciones se cumplen.
+         *
+         * @return El precio resultante, en céntimos.
+         */
+        long evaluar(long precio, Habitacion.RoomType tipo, int noches, boolean vip, Temporada temporada,
+                     int ocupacion) {
+            int bitTemporada = 1 << temporada.ordinal();
+            int bitTipo = 1 << tipo.ordinal();
+            for (int i = 0; i < operaciones.length; i++) {
+                if ((clientes[i] == ReglaPrecio.SOLO_VIP && !vip)
+                        || noches < nochesMinimas[i]
+                        || (mascarasTemporadas[i] & bitTemporada) == 0
+                        || (mascarasTipos[i] & bitTipo) == 0
+                        || ocupacion < ocupacionesMinimas[i]) {
+                    continue;
+                }
+                if (operaciones[i] == ReglaPrecio.PORCENTAJE) {
+                    precio = Math.floorDiv(precio * (ReglaPrecio.PUNTOS_BASICOS_TOTAL + valores[i])
+                            + ReglaPrecio.PUNTOS_BASICOS_TOTAL / 2, ReglaPrecio.PUNTOS_BASICOS_TOTAL);
+                } else {
+                    precio += valores[i] * noches;
+                }
+            }
+            return precio;
+        }
+    }
+
+    /**
+     * Entrada inmutable de la caché. Al ser inmutable se puede publicar en el array sin cerrojos:
+     * un hilo ve la entrada completa o la anterior.
+     */
+    private static final class Cotizacion {
+        private final long clave;
+        private final long precio;
+
+        Cotizacion(long clave, long precio) {
+            this.clave = clave;
+            this.precio = precio;
+        }
+    }
+}
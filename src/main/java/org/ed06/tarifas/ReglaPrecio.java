@@ -0,0 +1,134 @@
+package org.ed06.tarifas;
+
+import org.ed06.model.Habitacion;
+
+/**
+ * Regla que modifica el precio de una estancia cuando se cumplen sus condiciones.
+ *
+ * <p>Una regla es un porcentaje sobre el precio acumulado hasta ella o un suplemento fijo por
+ * noche. Los porcentajes se expresan en puntos básicos: 100 puntos básicos son un 1 %. Las reglas
+ * se crean con los métodos de fábrica y son inmutables; {@link MotorPrecios} las compila en una
+ * secuencia de operaciones que se evalúa en el orden en que se le entregan.</p>
+ */
+public final class ReglaPrecio {
+    /** Puntos básicos que forman el 100 % */
+    static final int PUNTOS_BASICOS_TOTAL = 10_000;
+
+    static final byte PORCENTAJE = 0;
+    static final byte SUPLEMENTO_NOCHE = 1;
+
+    static final byte CUALQUIER_CLIENTE = 0;
+    static final byte SOLO_VIP = 1;
+
+    private static final int TODAS_TEMPORADAS = (1 << Temporada.values().length) - 1;
+    private static final int TODOS_TIPOS = (1 << Habitacion.RoomType.values().length) - 1;
+
+    final byte operacion;
+    final long valor;
+    final byte cliente;
+    final int nochesMinimas;
+    final int mascaraTemporadas;
+    final int mascaraTipos;
+    final int ocupacionMinima;
+
+    private ReglaPrecio(byte operacion, long valor, byte cliente, int nochesMinimas,
+                        int mascaraTemporadas, int mascaraTipos, int ocupacionMinima) {
+        this.operacion = operacion;
+        this.valor = valor;
+        this.cliente = cliente;
+        this.nochesMinimas = nochesMinimas;
+        this.mascaraTemporadas = mascaraTemporadas;
+        this.mascaraTipos = mascaraTipos;
+        this.ocupacionMinima = ocupacionMinima;
+    }
+
+    /**
+     * Crea un descuento para los clientes VIP.
+     *
+     * @param puntosBasicos El descuento en puntos básicos (1000 es un 10 %).
+     * @return La regla creada.
+     */
+    public static ReglaPrecio descuentoVip(int puntosBasicos) {
+        return new ReglaPrecio(PORCENTAJE, -comprobarPorcentaje(puntosBasicos), SOLO_VIP, 0,
+                TODAS_TEMPORADAS, TODOS_TIPOS, 0);
+    }
+
+    /**
+     * Crea un descuento para las estancias de al menos un número de noches.
+     *
+     * @param nochesMinimas El número mínimo de noches de la estancia.
+     * @param puntosBasicos El descuento en puntos básicos (500 es un 5 %).
+     * @return La regla creada.
+     */
+    public static ReglaPrecio descuentoEstanciaLarga(int nochesMinimas, int puntosBasicos) {
+        return new ReglaPrecio(PORCENTAJE, -comprobarPorcentaje(puntosBasicos), CUALQUIER_CLIENTE, nochesMinimas,
+                TODAS_TEMPORADAS, TODOS_TIPOS, 0);
+    }
+
+    /**
+     * Crea una variación del precio para las estancias que empiezan en una temporada.
+     *
+     * @param temporada La temporada de la fecha de entrada.
+     * @param puntosBasicos La variación en puntos básicos: positiva para un recargo y negativa
+     *                      para un descuento.
+     * @return La regla creada.
+     */
+    public static ReglaPrecio tarifaTemporada(Temporada temporada, int puntosBasicos) {
+        return new ReglaPrecio(PORCENTAJE, comprobarVariacion(puntosBasicos), CUALQUIER_CLIENTE, 0,
+                1 << temporada.ordinal(), TODOS_TIPOS, 0);
+    }
+
+    /**
+     * Crea un recargo para cuando la ocupación del tipo de habitación el día de entrada alcanza un
+     * porcentaje.
+     *
+     * @param ocupacionMinima El porcentaje de ocupación, entre 1 y 100, a partir del cual se aplica.
+     * @param puntosBasicos El recargo en puntos básicos (1500 es un 15 %).
+     * @return La regla creada.
+     */
+    public static ReglaPrecio recargoOcupacion(int ocupacionMinima, int puntosBasicos) {
+        if (ocupacionMinima < 1 || ocupacionMinima > 100) {
+            throw new IllegalArgumentException("La ocupación mínima debe estar entre 1 y 100");
+        }
+        return new ReglaPrecio(PORCENTAJE, comprobarVariacion(puntosBasicos), CUALQUIER_CLIENTE, 0,
+                TODAS_TEMPORADAS, TODOS_TIPOS, ocupacionMinima);
+    }
+
+    /**
+     * Crea un suplemento fijo por noche para un tipo de habitación.
+     *
+     * @param tipo El tipo de habitación.
+     * @param centimos El suplemento por noche, en céntimos.
+     * @return La regla creada.
+     */
+    public static ReglaPrecio suplementoPorNoche(Habitacion.RoomType tipo, long centimos) {
+        if (centimos < 0) {
+            throw new IllegalArgumentException("El suplemento no puede ser negativo");
+        }
+        return new ReglaPrecio(SUPLEMENTO_NOCHE, centimos, CUALQUIER_CLIENTE, 0,
+                TODAS_TEMPORADAS, 1 << tipo.ordinal(), 0);
+    }
+
+    /**
+     * Indica si la regla depende de la ocupación del hotel.
+     *
+     * @return true si la regla solo se aplica a partir de una ocupación.
+     */
+    boolean dependeDeOcupacion() {
+        return ocupacionMinima > 0;
+    }
+
+    private static int comprobarPorcentaje(int puntosBasicos) {
+        if (puntosBasicos < 0 || puntosBasicos > PUNTOS_BASICOS_TOTAL) {
+            throw new IllegalArgumentException("El porcentaje debe estar entre 0 y 10000 puntos básicos");
+        }
+        return puntosBasicos;
+    }
+
+    private static int comprobarVariacion(int puntosBasicos) {
+        if (puntosBasicos < -PUNTOS_BASICOS_TOTAL) {
+            throw new IllegalArgumentException("Un descuento no puede superar los 10000 puntos básicos");
+        }
+        return puntosBasicos;
+    }
+}
@@ -0,0 +1,34 @@
+package org.ed06.tarifas;
+
+import java.time.LocalDate;
+
+/**
+ * Temporadas del año a efectos de precios.
+ *
+ * <p>La temporada de una estancia es la de su fecha de entrada.</p>
+ */
+public enum Temporada {
+    /** De enero a mayo, octubre y noviembre */
+    BAJA,
+
+    /** Junio, septiembre y diciembre */
+    MEDIA,
+
+    /** Julio y agosto */
+    ALTA;
+
+    /** Temporada de cada mes, empezando por enero */
+    private static final Temporada[] POR_MES = {
+            BAJA, BAJA, BAJA, BAJA, BAJA, MEDIA, ALTA, ALTA, MEDIA, BAJA, BAJA, MEDIA
+    };
+
+    /**
+     * Obtiene la temporada a la que pertenece un día.
+     *
+     * @param dia El día.
+     * @return La temporada del día.
+     */
+    public static Temporada de(LocalDate dia) {
+        return POR_MES[dia.getMonthValue() - 1];
+    }
+}